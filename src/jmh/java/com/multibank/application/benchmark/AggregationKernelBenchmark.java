@@ -0,0 +1,109 @@
+package com.multibank.application.benchmark;
+
+import com.multibank.application.model.Candle;
+import com.multibank.application.service.impl.CandleKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucket high/low/volume of one day of 1s candles: the per-object loop over Candle records against the
+ * reduction kernels over columns, once on the Vector API and once on their scalar fallback.
+ * ./gradlew jmh -Pjmh.includes=AggregationKernelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationKernelBenchmark {
+
+    private static final int SECONDS = 86_400;
+
+    @Param({"60", "3600"})
+    public int bucketSeconds;
+
+    private List<Candle> candles;
+    private double[] highs;
+    private double[] lows;
+    private long[] volumes;
+
+    private double[] bucketHigh;
+    private double[] bucketLow;
+    private long[] bucketVolume;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        candles = new ArrayList<>(SECONDS);
+        highs = new double[SECONDS];
+        lows = new double[SECONDS];
+        volumes = new long[SECONDS];
+        double price = 100;
+        for (int i = 0; i < SECONDS; i++) {
+            double open = price;
+            price += random.nextGaussian() * 0.1;
+            Candle candle = new Candle(1_735_689_600L + i, open, Math.max(open, price), Math.min(open, price), price,
+                    random.nextInt(100));
+            candles.add(candle);
+            highs[i] = candle.high();
+            lows[i] = candle.low();
+            volumes[i] = candle.volume();
+        }
+
+        int buckets = SECONDS / bucketSeconds;
+        bucketHigh = new double[buckets];
+        bucketLow = new double[buckets];
+        bucketVolume = new long[buckets];
+    }
+
+    @Benchmark
+    public long[] perObjectLoop() {
+        int bucket = -1;
+        long currentBucket = Long.MIN_VALUE;
+        for (Candle candle : candles) {
+            long bucketTime = candle.time() / bucketSeconds;
+            if (bucketTime != currentBucket) {
+                currentBucket = bucketTime;
+                bucket++;
+                bucketHigh[bucket] = candle.high();
+                bucketLow[bucket] = candle.low();
+                bucketVolume[bucket] = 0;
+            } else {
+                bucketHigh[bucket] = Math.max(bucketHigh[bucket], candle.high());
+                bucketLow[bucket] = Math.min(bucketLow[bucket], candle.low());
+            }
+            bucketVolume[bucket] += candle.volume();
+        }
+        return bucketVolume;
+    }
+
+    @Benchmark
+    public long[] vectorKernels() {
+        if (!CandleKernels.isVectorized()) {
+            throw new IllegalStateException("Vector API not available, run with --add-modules jdk.incubator.vector");
+        }
+        return columnar();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dcandle.kernels=scalar")
+    public long[] scalarKernels() {
+        return columnar();
+    }
+
+    private long[] columnar() {
+        // Every second is present, so the buckets are fixed-width ranges of the columns
+        for (int bucket = 0, from = 0; from < SECONDS; bucket++, from += bucketSeconds) {
+            int to = from + bucketSeconds;
+            bucketHigh[bucket] = CandleKernels.max(highs, from, to);
+            bucketLow[bucket] = CandleKernels.min(lows, from, to);
+            bucketVolume[bucket] = CandleKernels.sum(volumes, from, to);
+        }
+        return bucketVolume;
+    }
+}
@@ -0,0 +1,128 @@
+package com.multibank.application.benchmark;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.CandleBatch;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.repository.CandleCustomJdbcRepository;
+import com.multibank.application.repository.CandleCustomJdbcRepositoryImpl;
+import com.multibank.application.repository.SymbolJdbcRepositoryImpl;
+import com.multibank.application.repository.columnar.ColumnarFileCandleRepository;
+import com.multibank.application.repository.columnar.ColumnarStorageProperties;
+import com.multibank.application.repository.columnar.SymbolFileRepository;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Columnar file storage against the JDBC/TimescaleDB implementation on one day of 1s candles.
+ * The JDBC variant needs a database initialised with db-init.sql, configured via bench.jdbc.url,
+ * bench.jdbc.username and bench.jdbc.password:
+ * ./gradlew jmh -Pjmh.includes=CandleRepositoryBenchmark -Pjmh.implementation=columnar,jdbc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandleRepositoryBenchmark {
+
+    private static final String SYMBOL = "BENCH-USD";
+    private static final long DAY_START_MS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+
+    @Param({"columnar"})
+    public String implementation;
+
+    private CandleCustomJdbcRepository repository;
+    private SymbolRegistry symbols;
+    private int symbolId;
+    private List<CandleEntity> flushBatch;
+    private long flushSecond;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("jdbc".equals(implementation)) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/candle_aggregation_service"),
+                    System.getProperty("bench.jdbc.username", "postgres"),
+                    System.getProperty("bench.jdbc.password", "postgres"));
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            symbols = new SymbolRegistry(new SymbolJdbcRepositoryImpl(jdbcTemplate));
+            symbolId = symbols.register(SYMBOL);
+            jdbcTemplate.update("DELETE FROM candles_1s WHERE symbol_id = ?", symbolId);
+            repository = new CandleCustomJdbcRepositoryImpl(jdbcTemplate);
+            fillOneDay();
+            for (CandleInterval interval : CandleInterval.values()) {
+                if (interval != CandleInterval.ONE_SECOND) {
+                    jdbcTemplate.execute("CALL refresh_continuous_aggregate('candles_" + interval.getLabel() + "', NULL, NULL)");
+                }
+            }
+        } else {
+            ColumnarStorageProperties properties = new ColumnarStorageProperties();
+            properties.setDirectory(Files.createTempDirectory("candle-bench").toString());
+            repository = new ColumnarFileCandleRepository(properties);
+            symbols = new SymbolRegistry(new SymbolFileRepository(properties));
+            symbolId = symbols.register(SYMBOL);
+            fillOneDay();
+        }
+
+        // A typical flush: one 1s candle for each of 150 symbols
+        flushBatch = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            flushBatch.add(new CandleEntity(new CandleEntity.CandleId(DAY_START_MS, symbols.register("FLUSH" + i)), 100.0, 101.0, 99.0, 100.5, 10L));
+        }
+    }
+
+    private void fillOneDay() {
+        List<CandleEntity> batch = new ArrayList<>();
+        double price = 100;
+        for (int second = 0; second < 86_400; second++) {
+            double next = price * (1 + (Math.sin(second) * 0.001));
+            batch.add(new CandleEntity(new CandleEntity.CandleId(DAY_START_MS + second * 1000L, symbolId),
+                    price, Math.max(price, next) + 0.01, Math.min(price, next) - 0.01, next, 50L));
+            price = next;
+            if (batch.size() == 5000) {
+                repository.batchUpsert(batch);
+                batch.clear();
+            }
+        }
+        repository.batchUpsert(batch);
+    }
+
+    @Benchmark
+    public CandleBatch oneHourOf1sCandles() {
+        long from = DAY_START_MS + 12 * 3_600_000L;
+        return repository.find1sCandleBatch(symbolId, from, from + 3_599_000L);
+    }
+
+    @Benchmark
+    public CandleBatch oneDayOf1mCandles() {
+        long from = DAY_START_MS / 1000;
+        return repository.findCandleBatch(CandleInterval.ONE_MINUTE, symbolId, from, from + 86_399);
+    }
+
+    @Benchmark
+    public CandleBatch oneDayOf1hCandles() {
+        long from = DAY_START_MS / 1000;
+        return repository.findCandleBatch(CandleInterval.ONE_HOUR, symbolId, from, from + 86_399);
+    }
+
+    @Benchmark
+    public void flush150Candles() {
+        // Move on to the next second every call so the upserts insert rather than only update
+        long time = DAY_START_MS + (flushSecond++ % 86_400) * 1000;
+        List<CandleEntity> batch = new ArrayList<>(flushBatch.size());
+        for (CandleEntity candle : flushBatch) {
+            batch.add(new CandleEntity(new CandleEntity.CandleId(time, candle.getId().getSymbolId()),
+                    candle.getOpen(), candle.getHigh(), candle.getLow(), candle.getClose(), candle.getVolume()));
+        }
+        repository.batchUpsert(batch);
+    }
+}
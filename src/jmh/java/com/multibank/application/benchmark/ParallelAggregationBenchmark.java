@@ -0,0 +1,55 @@
+package com.multibank.application.benchmark;
+
+import com.multibank.application.model.CandleBatch;
+import com.multibank.application.service.impl.ParallelCandleAggregation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fork-join aggregation of one day of 1s candles into 1m candles for different pool sizes;
+ * parallelism 1 is the single-threaded baseline.
+ * ./gradlew jmh -Pjmh.includes=ParallelAggregationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelAggregationBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"60", "3600"})
+    public long bucketSeconds;
+
+    private CandleBatch oneDay;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        oneDay = new CandleBatch(86_400);
+        double price = 100;
+        for (int i = 0; i < 86_400; i++) {
+            double open = price;
+            price += random.nextGaussian() * 0.1;
+            oneDay.add(1_735_689_600L + i, open, Math.max(open, price), Math.min(open, price), price, 10);
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public CandleBatch aggregateOneDay() {
+        return ParallelCandleAggregation.aggregate(oneDay, bucketSeconds, pool);
+    }
+}
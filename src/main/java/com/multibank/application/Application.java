@@ -2,9 +2,11 @@ package com.multibank.application;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableJpaRepositories(basePackages = "com.multibank.application.repository")
 public class Application {
 
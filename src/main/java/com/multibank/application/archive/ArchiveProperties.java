@@ -0,0 +1,21 @@
+package com.multibank.application.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "archive")
+public class ArchiveProperties {
+
+    // Moves old 1s candles out of candles_1s into archive files
+    private boolean enabled = false;
+
+    private String directory = "data/archive";
+
+    // Whole days older than this are archived; at least 1, so the continuous aggregates never refresh them again
+    private int afterDays = 7;
+
+    private int runIntervalMinutes = 60;
+}
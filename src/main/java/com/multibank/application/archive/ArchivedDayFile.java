@@ -0,0 +1,215 @@
+package com.multibank.application.archive;
+
+import com.multibank.application.model.CandleBatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The archived 1s candles of one symbol and day, written once and never modified. Candles are stored in blocks
+ * of up to {@link #BLOCK_SIZE}, each block holding its columns one after another and deflated as a whole.
+ * Before deflating, times and volumes are replaced by the delta to the previous candle and prices by the XOR
+ * with the previous price of the same column, so neighbouring candles turn into runs of zero bytes.
+ * <p>
+ * Layout: header (magic, version, symbol id, day start, candle count, block count), one index entry per block
+ * (first and last time, candle count, compressed length), then the compressed blocks. The index lets reads
+ * skip blocks outside the requested range without inflating them.
+ */
+final class ArchivedDayFile {
+
+    static final int BLOCK_SIZE = 4096;
+
+    private static final int MAGIC = 0x43415243;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 4 + 4;
+    private static final int INDEX_ENTRY_BYTES = 8 + 8 + 4 + 4;
+
+    // time delta, open, high, low, close, volume delta
+    private static final int CANDLE_BYTES = 6 * Long.BYTES;
+
+    private ArchivedDayFile() {
+    }
+
+    /**
+     * Writes the time-ordered candles to {@code path}, replacing the file atomically
+     */
+    static void write(Path path, int symbolId, long dayStartMs, CandleBatch candles) {
+        List<byte[]> blocks = new ArrayList<>();
+        for (int from = 0; from < candles.size(); from += BLOCK_SIZE) {
+            blocks.add(compress(encode(candles, dayStartMs, from, Math.min(candles.size(), from + BLOCK_SIZE))));
+        }
+
+        int size = HEADER_BYTES + blocks.size() * INDEX_ENTRY_BYTES;
+        for (byte[] block : blocks) {
+            size += block.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(symbolId).putLong(dayStartMs)
+                .putInt(candles.size()).putInt(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            int from = i * BLOCK_SIZE;
+            int to = Math.min(candles.size(), from + BLOCK_SIZE);
+            buffer.putLong(candles.time(from)).putLong(candles.time(to - 1))
+                    .putInt(to - from).putInt(blocks.get(i).length);
+        }
+        for (byte[] block : blocks) {
+            buffer.put(block);
+        }
+
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, buffer.array());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write archive file " + path, e);
+        }
+    }
+
+    /**
+     * Appends the archived candles starting in [fromMs, toMs], in time order
+     */
+    static void read(Path path, long fromMs, long toMs, CandleBatch out) {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive file " + path, e);
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalStateException("Not an archive file: " + path);
+        }
+        buffer.getInt();
+        long dayStartMs = buffer.getLong();
+        buffer.getInt();
+        int blockCount = buffer.getInt();
+
+        int blockOffset = HEADER_BYTES + blockCount * INDEX_ENTRY_BYTES;
+        for (int i = 0; i < blockCount; i++) {
+            long firstTime = buffer.getLong();
+            long lastTime = buffer.getLong();
+            int count = buffer.getInt();
+            int length = buffer.getInt();
+
+            if (lastTime >= fromMs && firstTime <= toMs) {
+                byte[] encoded = decompress(buffer.array(), blockOffset, length, count * CANDLE_BYTES, path);
+                decode(ByteBuffer.wrap(encoded), count, dayStartMs, fromMs, toMs, out);
+            }
+            blockOffset += length;
+        }
+    }
+
+    private static byte[] encode(CandleBatch candles, long dayStartMs, int from, int to) {
+        ByteBuffer buffer = ByteBuffer.allocate((to - from) * CANDLE_BYTES);
+
+        long previousTime = dayStartMs;
+        for (int i = from; i < to; i++) {
+            buffer.putLong(candles.time(i) - previousTime);
+            previousTime = candles.time(i);
+        }
+        putXor(buffer, candles.opens(), from, to);
+        putXor(buffer, candles.highs(), from, to);
+        putXor(buffer, candles.lows(), from, to);
+        putXor(buffer, candles.closes(), from, to);
+
+        long previousVolume = 0;
+        for (int i = from; i < to; i++) {
+            buffer.putLong(candles.volume(i) - previousVolume);
+            previousVolume = candles.volume(i);
+        }
+        return buffer.array();
+    }
+
+    private static void putXor(ByteBuffer buffer, double[] column, int from, int to) {
+        long previous = 0;
+        for (int i = from; i < to; i++) {
+            long bits = Double.doubleToRawLongBits(column[i]);
+            buffer.putLong(bits ^ previous);
+            previous = bits;
+        }
+    }
+
+    private static void decode(ByteBuffer buffer, int count, long dayStartMs, long fromMs, long toMs,
+                               CandleBatch out) {
+        long[] times = new long[count];
+        long time = dayStartMs;
+        for (int i = 0; i < count; i++) {
+            time += buffer.getLong();
+            times[i] = time;
+        }
+        double[] opens = getXor(buffer, count);
+        double[] highs = getXor(buffer, count);
+        double[] lows = getXor(buffer, count);
+        double[] closes = getXor(buffer, count);
+
+        long volume = 0;
+        for (int i = 0; i < count; i++) {
+            volume += buffer.getLong();
+            if (times[i] >= fromMs && times[i] <= toMs) {
+                out.add(times[i], opens[i], highs[i], lows[i], closes[i], volume);
+            }
+        }
+    }
+
+    private static double[] getXor(ByteBuffer buffer, int count) {
+        double[] column = new double[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous ^= buffer.getLong();
+            column[i] = Double.longBitsToDouble(previous);
+        }
+        return column;
+    }
+
+    private static byte[] compress(byte[] encoded) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(encoded);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(encoded.length / 4);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] source, int offset, int length, int decodedLength, Path path) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(source, offset, length);
+            byte[] decoded = new byte[decodedLength];
+            int read = 0;
+            while (read < decodedLength && !inflater.finished()) {
+                int n = inflater.inflate(decoded, read, decodedLength - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != decodedLength) {
+                throw new IllegalStateException("Truncated block in archive file " + path);
+            }
+            return decoded;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block in archive file " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
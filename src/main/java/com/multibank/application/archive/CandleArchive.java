@@ -0,0 +1,104 @@
+package com.multibank.application.archive;
+
+import com.multibank.application.model.CandleBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for 1s candles: one immutable {@link ArchivedDayFile} per symbol and day, under a directory named by
+ * symbol id. Days are archived oldest first and removed from candles_1s afterwards, so everything before
+ * {@link #archivedUntilMs(int)} is read from here and everything from it on from the database.
+ */
+@Slf4j
+@Component
+@Profile("!embedded")
+@ConditionalOnProperty(prefix = "archive", name = "enabled", havingValue = "true")
+public class CandleArchive {
+
+    static final long DAY_MS = 86_400_000L;
+
+    private static final String SUFFIX = ".candles";
+
+    private final Path directory;
+
+    // End of the newest archived day per symbol id
+    private final Map<Integer, Long> archivedUntil = new ConcurrentHashMap<>();
+
+    public CandleArchive(ArchiveProperties properties) {
+        this.directory = Path.of(properties.getDirectory());
+        loadArchivedDays();
+        log.info("Using candle archive in {} ({} symbols archived)", directory.toAbsolutePath(), archivedUntil.size());
+    }
+
+    /**
+     * Start of the first day not in the archive, Long.MIN_VALUE when nothing of the symbol was archived yet
+     */
+    public long archivedUntilMs(int symbolId) {
+        return archivedUntil.getOrDefault(symbolId, Long.MIN_VALUE);
+    }
+
+    /**
+     * Appends the archived 1s candles starting in [fromMs, toMs], in time order
+     */
+    public void read(int symbolId, long fromMs, long toMs, CandleBatch out) {
+        for (long day = Math.floorDiv(fromMs, DAY_MS); day <= Math.floorDiv(toMs, DAY_MS); day++) {
+            Path path = path(symbolId, day);
+            if (Files.exists(path)) {
+                ArchivedDayFile.read(path, fromMs, toMs, out);
+            }
+        }
+    }
+
+    /**
+     * Archives the time-ordered 1s candles of one symbol and day. Candles already archived for that day, e.g. by
+     * an earlier run that stopped before deleting them from the database, are kept unless replaced by the new ones.
+     */
+    public void write(int symbolId, long day, CandleBatch candles) {
+        Path path = path(symbolId, day);
+        CandleBatch merged = candles;
+        if (Files.exists(path)) {
+            CandleBatch existing = new CandleBatch();
+            ArchivedDayFile.read(path, Long.MIN_VALUE, Long.MAX_VALUE, existing);
+            merged = CandleBatch.mergeByTime(existing, candles);
+        }
+
+        ArchivedDayFile.write(path, symbolId, day * DAY_MS, merged);
+        archivedUntil.merge(symbolId, (day + 1) * DAY_MS, Math::max);
+    }
+
+    private Path path(int symbolId, long day) {
+        return directory.resolve(Integer.toString(symbolId)).resolve(LocalDate.ofEpochDay(day) + SUFFIX);
+    }
+
+    private void loadArchivedDays() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> symbolDirectories = Files.list(directory)) {
+            for (Path symbolDirectory : symbolDirectories.toList()) {
+                int symbolId = Integer.parseInt(symbolDirectory.getFileName().toString());
+                try (Stream<Path> files = Files.list(symbolDirectory)) {
+                    files.map(file -> file.getFileName().toString())
+                            .filter(name -> name.endsWith(SUFFIX))
+                            .mapToLong(name -> LocalDate.parse(name.substring(0, name.length() - SUFFIX.length()))
+                                    .toEpochDay())
+                            .max()
+                            .ifPresent(day -> archivedUntil.put(symbolId, (day + 1) * DAY_MS));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list candle archive " + directory, e);
+        }
+    }
+}
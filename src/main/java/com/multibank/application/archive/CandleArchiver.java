@@ -0,0 +1,98 @@
+package com.multibank.application.archive;
+
+import com.multibank.application.cluster.SymbolPartitioner;
+import com.multibank.application.model.CandleBatch;
+import com.multibank.application.repository.CandleCustomJdbcRepositoryImpl;
+import com.multibank.application.symbol.SymbolRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.multibank.application.archive.CandleArchive.DAY_MS;
+
+/**
+ * Periodically moves whole days of 1s candles older than archive.after-days from candles_1s into the
+ * {@link CandleArchive}, oldest day first. A day is deleted from the database only after its file was written,
+ * so a run that stops in between repeats that day the next time without losing candles.
+ * <p>
+ * Every node archives only the symbols it owns, since candles_1s is shared; in cluster mode archive.directory
+ * has to be shared storage as well, so any node can read the days archived by the others.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!embedded")
+@ConditionalOnProperty(prefix = "archive", name = "enabled", havingValue = "true")
+public class CandleArchiver {
+
+    private final ArchiveProperties properties;
+    private final CandleArchive archive;
+    private final CandleCustomJdbcRepositoryImpl repository;
+    private final SymbolRegistry symbolRegistry;
+    private final SymbolPartitioner symbolPartitioner;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @PostConstruct
+    public void start() {
+        if (properties.getAfterDays() < 1) {
+            throw new IllegalArgumentException("archive.after-days must be at least 1: " + properties.getAfterDays());
+        }
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archiveDueDays();
+            } catch (Exception e) {
+                log.error("Error archiving candles", e);
+            }
+        }, 1, properties.getRunIntervalMinutes(), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void archiveDueDays() {
+        // Days before this one are archived
+        long firstKeptDay = Math.floorDiv(System.currentTimeMillis(), DAY_MS) - properties.getAfterDays();
+
+        for (String symbol : symbolRegistry.names()) {
+            if (!symbolPartitioner.isLocal(symbol)) {
+                continue;
+            }
+            int symbolId = symbolRegistry.idOf(symbol);
+            Long oldest = repository.findOldest1sCandleTime(symbolId);
+            if (oldest == null) {
+                continue;
+            }
+            for (long day = Math.floorDiv(oldest, DAY_MS); day < firstKeptDay; day++) {
+                archiveDay(symbol, symbolId, day);
+            }
+        }
+    }
+
+    private void archiveDay(String symbol, int symbolId, long day) {
+        long startMs = day * DAY_MS;
+        // Read exactly the rows deleted below, including the last second of the day
+        CandleBatch candles = repository.find1sCandleBatchToArchive(symbolId, startMs, startMs + DAY_MS);
+        if (candles.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        archive.write(symbolId, day, candles);
+        int deleted = repository.delete1sCandles(symbolId, startMs, startMs + DAY_MS);
+
+        log.info("Archived {} 1s candles of {} on {} in {}ms ({} deleted from candles_1s)",
+                candles.size(), symbol, LocalDate.ofEpochDay(day), System.currentTimeMillis() - start, deleted);
+    }
+}
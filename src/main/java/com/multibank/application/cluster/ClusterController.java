@@ -0,0 +1,37 @@
+package com.multibank.application.cluster;
+
+import com.multibank.application.model.OpenCandleState;
+import com.multibank.application.service.CandleAggregationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cluster")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cluster", name = "enabled", havingValue = "true")
+public class ClusterController {
+
+    private final CandleAggregationService candleAggregationService;
+    private final SymbolPartitioner symbolPartitioner;
+
+    @PostMapping("/handover")
+    public ResponseEntity<Void> handover(@RequestBody List<OpenCandleState> states) {
+        candleAggregationService.importOpenCandles(states);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/owner")
+    public ResponseEntity<Map<String, Object>> owner(@RequestParam String symbol) {
+        ClusterMember owner = symbolPartitioner.ownerOf(symbol);
+        return ResponseEntity.ok(Map.of(
+                "symbol", symbol,
+                "nodeId", owner.nodeId(),
+                "baseUrl", owner.baseUrl(),
+                "local", symbolPartitioner.isLocal(symbol)));
+    }
+}
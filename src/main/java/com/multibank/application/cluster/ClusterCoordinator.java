@@ -0,0 +1,158 @@
+package com.multibank.application.cluster;
+
+import com.multibank.application.model.OpenCandleState;
+import com.multibank.application.service.CandleAggregationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the cluster view of this node: loads the static membership file, builds the consistent hash ring
+ * and, when the membership changes, hands the open candles of symbols that moved away over to their new owners.
+ * With cluster mode disabled every symbol is local.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterCoordinator implements SymbolPartitioner {
+
+    static final String HANDOVER_PATH = "/cluster/handover";
+
+    private final ClusterProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final CandleAggregationService candleAggregationService;
+
+    private final RestClient restClient = RestClient.create();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Ring and this node's entry in it, replaced together so no reader sees one without the other
+    private volatile View view;
+    private long membershipLastModified;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Resource membership = resourceLoader.getResource(properties.getMembershipFile());
+        applyMembership(loadMembers(membership));
+        membershipLastModified = membership.lastModified();
+
+        if (membership.isFile()) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    reloadIfChanged(membership);
+                } catch (Exception e) {
+                    log.error("Error reloading cluster membership", e);
+                }
+            }, properties.getMembershipRefreshMs(), properties.getMembershipRefreshMs(), TimeUnit.MILLISECONDS);
+        }
+
+        View current = view;
+        log.info("Cluster mode enabled: node {} of {}", current.self().nodeId(), current.ring().getMembers().size());
+    }
+
+    @Override
+    public boolean isLocal(String symbol) {
+        View current = view;
+        return current == null || current.ring().ownerOf(symbol).nodeId().equals(current.self().nodeId());
+    }
+
+    @Override
+    public ClusterMember ownerOf(String symbol) {
+        View current = view;
+        return current == null ? null : current.ring().ownerOf(symbol);
+    }
+
+    public boolean isEnabled() {
+        return view != null;
+    }
+
+    private void reloadIfChanged(Resource membership) throws IOException {
+        long lastModified = membership.lastModified();
+        if (lastModified == membershipLastModified) {
+            return;
+        }
+        membershipLastModified = lastModified;
+
+        List<ClusterMember> members = loadMembers(membership);
+        if (new HashSet<>(members).equals(new HashSet<>(view.ring().getMembers()))) {
+            return;
+        }
+
+        log.info("Cluster membership changed: {}", members);
+        applyMembership(members);
+        handOverForeignCandles();
+    }
+
+    private void applyMembership(List<ClusterMember> members) {
+        ClusterMember self = members.stream()
+                .filter(m -> m.nodeId().equals(properties.getNodeId()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "Node " + properties.getNodeId() + " is not listed in " + properties.getMembershipFile()));
+        view = new View(new ConsistentHashRing(members, properties.getVirtualNodes()), self);
+    }
+
+    /**
+     * Ticks for symbols this node no longer owns stop being accepted as soon as the new ring is published,
+     * so whatever is still open for them is moved to the new owner. Closed candles are flushed locally as usual.
+     */
+    private void handOverForeignCandles() {
+        List<OpenCandleState> foreign = candleAggregationService.exportOpenCandles(symbol -> !isLocal(symbol));
+
+        Map<ClusterMember, List<OpenCandleState>> byOwner = foreign.stream()
+                .collect(Collectors.groupingBy(state -> ownerOf(state.symbol())));
+
+        byOwner.forEach((owner, states) -> {
+            try {
+                restClient.post()
+                        .uri(owner.baseUrl() + HANDOVER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(states)
+                        .retrieve()
+                        .toBodilessEntity();
+                log.info("Handed over {} open candles to {}", states.size(), owner.nodeId());
+            } catch (Exception e) {
+                // Keep the candles rather than losing them; the DB upsert merges them with the new owner's
+                log.error("Failed to hand over {} open candles to {}, keeping them locally", states.size(), owner.nodeId(), e);
+                candleAggregationService.importOpenCandles(states);
+            }
+        });
+    }
+
+    private static List<ClusterMember> loadMembers(Resource membership) throws IOException {
+        Properties members = new Properties();
+        try (InputStream in = membership.getInputStream()) {
+            members.load(in);
+        }
+
+        return members.stringPropertyNames().stream()
+                .sorted()
+                .map(nodeId -> new ClusterMember(nodeId, members.getProperty(nodeId).trim()))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private record View(ConsistentHashRing ring, ClusterMember self) {
+    }
+}
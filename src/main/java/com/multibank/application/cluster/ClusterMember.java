@@ -0,0 +1,6 @@
+package com.multibank.application.cluster;
+
+public record ClusterMember(
+    String nodeId,
+    String baseUrl) {
+}
@@ -0,0 +1,30 @@
+package com.multibank.application.cluster;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+
+    private boolean enabled = false;
+
+    // Id of this node; must match one of the keys in the membership file
+    private String nodeId = "node-1";
+
+    // Properties file with one "nodeId=baseUrl" line per member. Reloaded on change when it is a plain file
+    private String membershipFile = "classpath:cluster-members.properties";
+
+    private int virtualNodes = 128;
+
+    private long membershipRefreshMs = 5000;
+
+    // /history requests whose range ends within this window are served by the symbol owner
+    private long liveTailSeconds = 120;
+
+    // Shared by all members. Forwarded requests carrying it are charged to the client the receiving node saw;
+    // without it the owner charges them to the forwarding node
+    private String forwardingSecret = "";
+}
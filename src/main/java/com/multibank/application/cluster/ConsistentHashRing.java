@@ -0,0 +1,53 @@
+package com.multibank.application.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Immutable consistent hash ring. Every member is placed on the ring {@code virtualNodes} times,
+ * so adding or removing a member only moves roughly 1/N of the symbols.
+ */
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, ClusterMember> ring = new TreeMap<>();
+    private final List<ClusterMember> members;
+
+    public ConsistentHashRing(Collection<ClusterMember> members, int virtualNodes) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Cluster membership is empty");
+        }
+        this.members = List.copyOf(members);
+
+        for (ClusterMember member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(member.nodeId() + "#" + i), member);
+            }
+        }
+    }
+
+    public ClusterMember ownerOf(String symbol) {
+        Map.Entry<Long, ClusterMember> entry = ring.ceilingEntry(hash(symbol));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<ClusterMember> getMembers() {
+        return members;
+    }
+
+    /**
+     * 64-bit FNV-1a followed by the murmur3 finalizer, which spreads FNV's weak low bits over the ring
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e5d8e8f1bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
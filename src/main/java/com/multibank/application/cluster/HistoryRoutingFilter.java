@@ -0,0 +1,149 @@
+package com.multibank.application.cluster;
+
+import com.multibank.application.controller.HistoryAdmissionControl;
+import com.multibank.application.controller.HistoryExecutionProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends /history requests that reach into the live tail of a symbol owned by another node to that node.
+ * Older ranges are already in storage and are served by whichever node receives them.
+ * <p>
+ * With a cluster.forwarding-secret the client identity the receiving node admitted the request for is sent along,
+ * so the owner charges the client's budget instead of one shared by everything the forwarding node sends.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "cluster", name = "enabled", havingValue = "true")
+public class HistoryRoutingFilter extends OncePerRequestFilter {
+
+    static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+    static final String CLIENT_HEADER = "X-Cluster-Client";
+    static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    // Conditional requests and content negotiation have to reach the owner, and its caching headers the client
+    private static final List<String> REQUEST_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.ACCEPT_ENCODING);
+    private static final List<String> RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY, HttpHeaders.RETRY_AFTER);
+
+    private final ClusterProperties properties;
+    private final SymbolPartitioner symbolPartitioner;
+    private final HistoryAdmissionControl historyAdmissionControl;
+
+    private final RestClient restClient;
+
+    public HistoryRoutingFilter(ClusterProperties properties, SymbolPartitioner symbolPartitioner,
+                                HistoryAdmissionControl historyAdmissionControl,
+                                HistoryExecutionProperties executionProperties) {
+        this.properties = properties;
+        this.symbolPartitioner = symbolPartitioner;
+        this.historyAdmissionControl = historyAdmissionControl;
+
+        // The owner gives up on the query by then, so a node that has not answered is treated as unreachable
+        // rather than holding this servlet thread
+        Duration timeout = Duration.ofMillis(executionProperties.getTimeoutMs());
+        JdkClientHttpRequestFactory requestFactory =
+                new JdkClientHttpRequestFactory(HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"/history".equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getHeader(FORWARDED_HEADER) != null) {
+            // A forwarded request is always served locally, even if membership views disagree for a moment
+            String client = request.getHeader(CLIENT_HEADER);
+            if (client != null && isFromMember(request)) {
+                request.setAttribute(HistoryAdmissionControl.CLIENT_ATTRIBUTE, client);
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String symbol = request.getParameter("symbol");
+        String to = request.getParameter("to");
+
+        if (symbol == null || to == null || symbolPartitioner.isLocal(symbol) || !isLiveTail(to)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ClusterMember owner = symbolPartitioner.ownerOf(symbol);
+        try {
+            restClient.get()
+                    .uri(owner.baseUrl() + request.getRequestURI() + "?" + request.getQueryString())
+                    .headers(headers -> {
+                        headers.set(FORWARDED_HEADER, "true");
+                        if (!properties.getForwardingSecret().isEmpty()) {
+                            headers.set(CLIENT_HEADER, historyAdmissionControl.clientOf(new ServletWebRequest(request)));
+                            headers.set(SECRET_HEADER, properties.getForwardingSecret());
+                        }
+                        for (String name : REQUEST_HEADERS) {
+                            Collections.list(request.getHeaders(name)).forEach(value -> headers.add(name, value));
+                        }
+                    })
+                    .exchange((clientRequest, clientResponse) -> {
+                        response.setStatus(clientResponse.getStatusCode().value());
+                        for (String name : RESPONSE_HEADERS) {
+                            clientResponse.getHeaders().getOrEmpty(name).forEach(value -> response.addHeader(name, value));
+                        }
+                        try (InputStream body = clientResponse.getBody()) {
+                            body.transferTo(response.getOutputStream());
+                        }
+                        return null;
+                    });
+        } catch (Exception e) {
+            // The owner is unreachable or did not answer in time - fall back to what is already in storage
+            log.warn("Could not forward /history for {} to {}, serving locally", symbol, owner.nodeId(), e);
+            if (!response.isCommitted()) {
+                response.reset();
+                chain.doFilter(request, response);
+            }
+        }
+    }
+
+    /**
+     * Whether the request was forwarded by a member, i.e. carries the shared secret; only then is its client trusted
+     */
+    private boolean isFromMember(HttpServletRequest request) {
+        String secret = properties.getForwardingSecret();
+        String received = request.getHeader(SECRET_HEADER);
+        return !secret.isEmpty() && received != null && MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), received.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isLiveTail(String to) {
+        try {
+            long now = System.currentTimeMillis() / 1000;
+            return Long.parseLong(to) >= now - properties.getLiveTailSeconds();
+        } catch (NumberFormatException e) {
+            // Let the controller reject it
+            return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.multibank.application.cluster;
+
+public interface SymbolPartitioner {
+
+    /**
+     * True when this node aggregates and flushes the given symbol
+     */
+    boolean isLocal(String symbol);
+
+    ClusterMember ownerOf(String symbol);
+}
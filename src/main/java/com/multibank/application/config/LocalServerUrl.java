@@ -0,0 +1,28 @@
+package com.multibank.application.config;
+
+import org.springframework.boot.web.server.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.env.Environment;
+
+/**
+ * Base URL of this instance's own web server, for requests the application sends to itself
+ */
+public final class LocalServerUrl {
+
+    private LocalServerUrl() {
+    }
+
+    /**
+     * Scheme, actual port and servlet context path of the running server, e.g. https://localhost:8443/candles.
+     * Only valid once the web server has started.
+     */
+    public static String of(ServletWebServerApplicationContext context) {
+        Environment environment = context.getEnvironment();
+        boolean ssl = environment.getProperty("server.ssl.enabled", Boolean.class, true)
+                && (environment.containsProperty("server.ssl.bundle")
+                || environment.containsProperty("server.ssl.key-store")
+                || environment.containsProperty("server.ssl.certificate"));
+
+        return (ssl ? "https" : "http") + "://localhost:" + context.getWebServer().getPort()
+                + context.getServletContext().getContextPath();
+    }
+}
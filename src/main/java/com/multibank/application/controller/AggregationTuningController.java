@@ -0,0 +1,116 @@
+package com.multibank.application.controller;
+
+import com.multibank.application.service.AggregationTuning;
+import com.multibank.application.service.CandleAggregationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Reads and changes the aggregation parameters of the running service. Every parameter is published as the
+ * aggregation.tuning gauge and every change counted in aggregation.tuning.changes, both tagged with the
+ * parameter name, so changes can be lined up with latency and throughput on the same dashboards.
+ * <p>
+ * Off unless aggregation.tuning-endpoint-enabled=true: the endpoint is served on the application port without
+ * authentication, so it is meant for test and load-test setups or ports clients cannot reach.
+ */
+@RestController
+@RequestMapping("/admin/aggregation")
+@ConditionalOnProperty(prefix = "aggregation", name = "tuning-endpoint-enabled", havingValue = "true")
+public class AggregationTuningController {
+
+    private static final Map<String, ToDoubleFunction<AggregationTuning>> PARAMETERS = new LinkedHashMap<>();
+
+    static {
+        PARAMETERS.put("eventThreads", AggregationTuning::eventThreads);
+        PARAMETERS.put("schedulerThreads", AggregationTuning::schedulerThreads);
+        PARAMETERS.put("candleCloseDelayMs", AggregationTuning::candleCloseDelayMs);
+        PARAMETERS.put("closeCheckIntervalMs", AggregationTuning::closeCheckIntervalMs);
+        PARAMETERS.put("maxFlushDelayMs", AggregationTuning::maxFlushDelayMs);
+        PARAMETERS.put("flushCheckIntervalMs", AggregationTuning::flushCheckIntervalMs);
+        PARAMETERS.put("realtimeWindowSeconds", AggregationTuning::realtimeWindowSeconds);
+        PARAMETERS.put("maxTickLatenessMs", AggregationTuning::maxTickLatenessMs);
+    }
+
+    private final CandleAggregationService candleAggregationService;
+    private final Map<String, Counter> changes = new LinkedHashMap<>();
+
+    public AggregationTuningController(CandleAggregationService candleAggregationService,
+                                       MeterRegistry meterRegistry) {
+        this.candleAggregationService = candleAggregationService;
+
+        PARAMETERS.forEach((name, value) -> {
+            Gauge.builder("aggregation.tuning", candleAggregationService,
+                            service -> value.applyAsDouble(service.getTuning()))
+                    .description("Aggregation parameter currently in effect")
+                    .tag("parameter", name)
+                    .register(meterRegistry);
+            changes.put(name, Counter.builder("aggregation.tuning.changes")
+                    .description("Runtime changes of an aggregation parameter")
+                    .tag("parameter", name)
+                    .register(meterRegistry));
+        });
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> current() {
+        return ResponseEntity.ok(toResponse(candleAggregationService.getTuning()));
+    }
+
+    /**
+     * Changes the given parameters and keeps the others
+     */
+    @PutMapping
+    public synchronized ResponseEntity<Map<String, Object>> update(
+            @RequestParam(required = false) Integer eventThreads,
+            @RequestParam(required = false) Integer schedulerThreads,
+            @RequestParam(required = false) Integer candleCloseDelayMs,
+            @RequestParam(required = false) Integer closeCheckIntervalMs,
+            @RequestParam(required = false) Integer maxFlushDelayMs,
+            @RequestParam(required = false) Integer flushCheckIntervalMs,
+            @RequestParam(required = false) Integer realtimeWindowSeconds,
+            @RequestParam(required = false) Long maxTickLatenessMs
+    ) {
+        AggregationTuning current = candleAggregationService.getTuning();
+        AggregationTuning updated = new AggregationTuning(
+                eventThreads != null ? eventThreads : current.eventThreads(),
+                schedulerThreads != null ? schedulerThreads : current.schedulerThreads(),
+                candleCloseDelayMs != null ? candleCloseDelayMs : current.candleCloseDelayMs(),
+                closeCheckIntervalMs != null ? closeCheckIntervalMs : current.closeCheckIntervalMs(),
+                maxFlushDelayMs != null ? maxFlushDelayMs : current.maxFlushDelayMs(),
+                flushCheckIntervalMs != null ? flushCheckIntervalMs : current.flushCheckIntervalMs(),
+                realtimeWindowSeconds != null ? realtimeWindowSeconds : current.realtimeWindowSeconds(),
+                maxTickLatenessMs != null ? maxTickLatenessMs : current.maxTickLatenessMs());
+
+        if (!updated.equals(current)) {
+            candleAggregationService.retune(updated);
+            PARAMETERS.forEach((name, value) -> {
+                if (value.applyAsDouble(updated) != value.applyAsDouble(current)) {
+                    changes.get(name).increment();
+                }
+            });
+        }
+        return ResponseEntity.ok(toResponse(updated));
+    }
+
+    private static Map<String, Object> toResponse(AggregationTuning tuning) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("s", "ok");
+        response.put("eventThreads", tuning.eventThreads());
+        response.put("schedulerThreads", tuning.schedulerThreads());
+        response.put("candleCloseDelayMs", tuning.candleCloseDelayMs());
+        response.put("closeCheckIntervalMs", tuning.closeCheckIntervalMs());
+        response.put("maxFlushDelayMs", tuning.maxFlushDelayMs());
+        response.put("flushCheckIntervalMs", tuning.flushCheckIntervalMs());
+        response.put("realtimeWindowSeconds", tuning.realtimeWindowSeconds());
+        response.put("maxTickLatenessMs", tuning.maxTickLatenessMs());
+        return response;
+    }
+}
@@ -2,12 +2,16 @@ package com.multibank.application.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -22,6 +26,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(HistoryQueryRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleQueryRejected(HistoryQueryRejectedException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("s", "error");
+        error.put("errmsg", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    @ExceptionHandler({QueryTimeoutException.class, CancellationException.class})
+    public ResponseEntity<Map<String, Object>> handleQueryAborted(RuntimeException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("s", "error");
+        error.put("errmsg", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleUnexpected(Exception e) {
         // Log full stacktrace for diagnostics while returning a generic message to clients
@@ -0,0 +1,228 @@
+package com.multibank.application.controller;
+
+import com.multibank.application.model.CandleInterval;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for /history by estimated cost. Before a query runs, the candle rows it will read are estimated
+ * from its range and the tier that serves it (1s rows, or buckets of the interval maxPoints settles on) and charged
+ * to a token bucket per client. A query too expensive for any budget is refused; one that the client's budget
+ * cannot cover waits for it to refill for up to maxQueueMs and is rejected with 429 and Retry-After otherwise.
+ * A few clients pulling months of 1s candles thereby only slow themselves down, not the interactive charts.
+ * <p>
+ * Requests carrying this instance's {@link #internalToken()}, i.e. its own warm-up, are not charged.
+ * Requests another node forwarded are charged to the client set as {@link #CLIENT_ATTRIBUTE}, when the cluster
+ * routing vouches for it.
+ */
+@Component
+public class HistoryAdmissionControl {
+
+    public static final String INTERNAL_HEADER = "X-Internal-Token";
+
+    // Request attribute, so unlike a header it cannot be set by the client itself
+    public static final String CLIENT_ATTRIBUTE = HistoryAdmissionControl.class.getName() + ".client";
+
+    private final HistoryAdmissionProperties properties;
+    private final LongSupplier nanoTime;
+    private final double refillPerNano;
+    private final String internalToken = UUID.randomUUID().toString();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Counter rejectedByCost;
+    private final Counter rejectedByBudget;
+    private final Counter queued;
+
+    @Autowired
+    public HistoryAdmissionControl(HistoryAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    HistoryAdmissionControl(HistoryAdmissionProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        if (properties.getMaxQueryCost() > properties.getBucketCapacity() || properties.getRefillPerSecond() <= 0) {
+            throw new IllegalArgumentException("history.admission needs max-query-cost <= bucket-capacity and a "
+                    + "positive refill-per-second");
+        }
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.refillPerNano = properties.getRefillPerSecond() / (double) TimeUnit.SECONDS.toNanos(1);
+        this.rejectedByCost = rejected(meterRegistry, "cost");
+        this.rejectedByBudget = rejected(meterRegistry, "budget");
+        this.queued = Counter.builder("history.admission.queued")
+                .description("History requests that waited for their client's budget to refill")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("history.admission.rejected")
+                .description("History requests refused by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Value of {@link #INTERNAL_HEADER} that exempts a request, only known inside this process
+     */
+    public String internalToken() {
+        return internalToken;
+    }
+
+    /**
+     * Charges the estimated cost of the query to the requesting client, waiting for the budget if needed
+     *
+     * @throws IllegalArgumentException       when the query is more expensive than any client may run at once
+     * @throws HistoryQueryRejectedException when the client's budget does not cover it within maxQueueMs
+     * @throws CancellationException          when interrupted while waiting for the budget
+     */
+    public void admit(WebRequest request, CandleInterval interval, long from, long to, Integer maxPoints) {
+        if (!properties.isEnabled() || internalToken.equals(request.getHeader(INTERNAL_HEADER))) {
+            return;
+        }
+
+        long cost = estimateCost(interval, from, to, maxPoints);
+        if (cost > properties.getMaxQueryCost()) {
+            rejectedByCost.increment();
+            throw new IllegalArgumentException("Query too large: about " + cost + " candles to read, at most "
+                    + properties.getMaxQueryCost() + " per request. Narrow the range, use a coarser interval or "
+                    + "pass maxPoints");
+        }
+
+        long now = nanoTime.getAsLong();
+        String client = clientOf(request);
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxQueueMs());
+        TokenBucket bucket;
+        long waitNanos;
+        do {
+            // A bucket retired by forgetIdleClients is on its way out of the map, the client gets a new one
+            bucket = buckets.computeIfAbsent(client, c -> new TokenBucket(capacity(), now));
+            waitNanos = bucket.reserve(cost, now, capacity(), refillPerNano, maxWaitNanos);
+        } while (waitNanos < 0);
+        forgetIdleClients(now);
+
+        if (waitNanos > maxWaitNanos) {
+            rejectedByBudget.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - maxWaitNanos) + 1);
+            throw new HistoryQueryRejectedException("Query budget exceeded: about " + cost
+                    + " candles to read, retry in " + retryAfterSeconds + "s", retryAfterSeconds);
+        }
+        if (waitNanos > 0) {
+            queued.increment();
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // The query never runs, so it is not charged
+                bucket.refund(cost, capacity());
+                throw new CancellationException("Interrupted while waiting for the query budget");
+            }
+        }
+    }
+
+    /**
+     * Candle rows the query reads: seconds of the range for 1s candles, buckets for the aggregated intervals,
+     * after maxPoints picked the tier; plus the base cost of every query
+     */
+    long estimateCost(CandleInterval interval, long from, long to, Integer maxPoints) {
+        CandleInterval tier = maxPoints == null ? interval : CandleInterval.smallestFitting(interval, from, to, maxPoints);
+        return properties.getBaseCost() + tier.bucketCount(from, to);
+    }
+
+    /**
+     * Client whose budget the request is charged to: the one a forwarding node saw, the client header if configured,
+     * otherwise the remote address
+     */
+    public String clientOf(WebRequest request) {
+        if (request.getAttribute(CLIENT_ATTRIBUTE, WebRequest.SCOPE_REQUEST) instanceof String client) {
+            return client;
+        }
+        String header = properties.getClientHeader();
+        if (!header.isEmpty()) {
+            String client = request.getHeader(header);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return request instanceof ServletWebRequest servletRequest
+                ? servletRequest.getRequest().getRemoteAddr()
+                : "unknown";
+    }
+
+    /**
+     * Removes the buckets that refilled completely. A new bucket is full as well, so each is retired before it is
+     * removed: a request that got it from the map in the meantime then takes a new one instead of charging a bucket
+     * that is gone.
+     */
+    private void forgetIdleClients(long now) {
+        if (buckets.size() > properties.getMaxClients()) {
+            buckets.values().removeIf(bucket -> bucket.retireIfFull(now, capacity(), refillPerNano));
+        }
+    }
+
+    private long capacity() {
+        return properties.getBucketCapacity();
+    }
+
+    /**
+     * Tokens may go negative: a request that waits reserves its cost up front, so later ones queue behind it
+     */
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long refilledAtNanos;
+        private boolean retired;
+
+        TokenBucket(long capacity, long now) {
+            this.tokens = capacity;
+            this.refilledAtNanos = now;
+        }
+
+        /**
+         * Takes {@code cost} tokens if they are available within {@code maxWaitNanos}
+         *
+         * @return nanoseconds until the tokens are available, greater than maxWaitNanos when nothing was taken,
+         * or -1 when the bucket was retired
+         */
+        synchronized long reserve(long cost, long now, long capacity, double refillPerNano, long maxWaitNanos) {
+            if (retired) {
+                return -1;
+            }
+            refill(now, capacity, refillPerNano);
+            double deficit = cost - tokens;
+            long waitNanos = deficit <= 0 ? 0 : (long) Math.ceil(deficit / refillPerNano);
+            if (waitNanos <= maxWaitNanos) {
+                tokens -= cost;
+            }
+            return waitNanos;
+        }
+
+        synchronized boolean retireIfFull(long now, long capacity, double refillPerNano) {
+            refill(now, capacity, refillPerNano);
+            if (tokens >= capacity) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        synchronized void refund(long cost, long capacity) {
+            tokens = Math.min(capacity, tokens + cost);
+        }
+
+        private void refill(long now, long capacity, double refillPerNano) {
+            if (now > refilledAtNanos) {
+                tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * refillPerNano);
+                refilledAtNanos = now;
+            }
+        }
+    }
+}
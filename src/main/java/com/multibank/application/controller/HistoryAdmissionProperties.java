@@ -0,0 +1,36 @@
+package com.multibank.application.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Budgets for /history, in estimated candle rows read, see {@link HistoryAdmissionControl}
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "history.admission")
+public class HistoryAdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Header that identifies a client (e.g. an API key); clients are told apart by remote address when empty or missing
+    private String clientHeader = "";
+
+    // Charged on top of the rows of every query: the round trip and the realtime tail of aggregated intervals
+    private long baseCost = 100;
+
+    // A single query estimated above this is refused outright, about 11 days of 1s candles
+    private long maxQueryCost = 1_000_000;
+
+    // Burst budget per client, must be at least maxQueryCost
+    private long bucketCapacity = 2_000_000;
+
+    private long refillPerSecond = 100_000;
+
+    // How long a request may wait for its client's budget to refill before it is rejected
+    private long maxQueueMs = 2_000;
+
+    // Above this many tracked clients, those whose budget is full again are forgotten
+    private int maxClients = 10_000;
+}
@@ -0,0 +1,96 @@
+package com.multibank.application.controller;
+
+import com.multibank.application.model.CandleBatch;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.service.AggregationTuning;
+import com.multibank.application.service.CandleAggregationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP caching rules for /history. A window that ended before the settle period can no longer change, so its
+ * response is cacheable for good and its ETag is derived from the request alone, which lets a revalidation be
+ * answered without a query. Windows reaching into the live tail get a short max-age and an ETag of their content.
+ */
+@Component
+@RequiredArgsConstructor
+public class HistoryCachePolicy {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final HistoryCacheProperties properties;
+
+    private final CandleAggregationService candleAggregationService;
+
+    /**
+     * Whether every candle the request can return is final. With maxPoints a coarser tier may be read,
+     * whose last bucket can reach up to an hour past {@code to}.
+     */
+    public boolean isSettled(CandleInterval interval, long to, Integer maxPoints, long nowSeconds) {
+        CandleInterval widest = maxPoints == null ? interval : CandleInterval.ONE_HOUR;
+        return widest.alignTimestamp(to) + widest.getSeconds() <= nowSeconds - settleSeconds();
+    }
+
+    /**
+     * Time after the end of a bucket until it can no longer change under the tuning in effect: its last candle is
+     * closed, late ticks are accepted up to maxTickLatenessMs, their correction is flushed within maxFlushDelayMs
+     * and then has to be refreshed into the continuous aggregates.
+     */
+    long settleSeconds() {
+        AggregationTuning tuning = candleAggregationService.getTuning();
+        long settleMs = tuning.candleCloseDelayMs() + tuning.maxTickLatenessMs() + tuning.maxFlushDelayMs();
+        return Math.ceilDiv(settleMs, 1000) + properties.getAggregateRefreshSeconds();
+    }
+
+    public CacheControl cacheControl(boolean settled) {
+        if (settled) {
+            return CacheControl.maxAge(properties.getImmutableMaxAgeSeconds(), TimeUnit.SECONDS)
+                    .cachePublic()
+                    .immutable();
+        }
+        return CacheControl.maxAge(properties.getLiveMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic();
+    }
+
+    /**
+     * Strong ETag of a settled window, identical for every request of it
+     */
+    public String requestETag(String symbol, CandleInterval interval, long from, long to, Integer maxPoints) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < symbol.length(); i++) {
+            hash = hash(hash, symbol.charAt(i));
+        }
+        hash = hash(hash, interval.ordinal());
+        hash = hash(hash, from);
+        hash = hash(hash, to);
+        hash = hash(hash, maxPoints == null ? -1 : maxPoints);
+        return "\"w" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Strong ETag over the returned candles
+     */
+    public String contentETag(CandleBatch candles) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < candles.size(); i++) {
+            hash = hash(hash, candles.time(i));
+            hash = hash(hash, Double.doubleToLongBits(candles.open(i)));
+            hash = hash(hash, Double.doubleToLongBits(candles.high(i)));
+            hash = hash(hash, Double.doubleToLongBits(candles.low(i)));
+            hash = hash(hash, Double.doubleToLongBits(candles.close(i)));
+            hash = hash(hash, candles.volume(i));
+        }
+        return "\"c" + Long.toHexString(hash) + "\"";
+    }
+
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
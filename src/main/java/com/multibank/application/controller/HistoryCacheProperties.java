@@ -0,0 +1,19 @@
+package com.multibank.application.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "history.cache")
+public class HistoryCacheProperties {
+
+    // Time for a flushed 1s candle to reach the continuous aggregates: their end_offset and schedule_interval of a
+    // minute each, and a minute for the refresh job. Added to the lateness and flush bounds of the aggregation tuning
+    private long aggregateRefreshSeconds = 180;
+
+    private long immutableMaxAgeSeconds = 365L * 24 * 3600;
+
+    private long liveMaxAgeSeconds = 1;
+}
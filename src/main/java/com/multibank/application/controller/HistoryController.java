@@ -1,17 +1,24 @@
 package com.multibank.application.controller;
 
-import com.multibank.application.model.Candle;
+import com.multibank.application.jfr.HistoryRequestEvent;
+import com.multibank.application.model.CandleBatch;
 import com.multibank.application.model.CandleInterval;
 import com.multibank.application.service.CandleAggregationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,25 +26,152 @@ public class HistoryController {
 
     private final CandleAggregationService candleAggregationService;
 
+    private final HistoryRequestCoalescer historyRequestCoalescer;
+
+    private final HistoryCachePolicy historyCachePolicy;
+
+    private final HistoryAdmissionControl historyAdmissionControl;
+
+    private final HistoryQueryExecutor historyQueryExecutor;
+
+    /**
+     * Validation and revalidation of settled windows are answered right away, everything else runs on
+     * {@link HistoryQueryExecutor} under the request's deadline
+     */
     @GetMapping("/history")
-    public ResponseEntity<Map<String, Object>> getHistory(
+    public DeferredResult<ResponseEntity<Map<String, Object>>> getHistory(
             @RequestParam String symbol,
             @RequestParam String interval,
             @RequestParam long from,
-            @RequestParam long to
+            @RequestParam long to,
+            @RequestParam(required = false) Integer maxPoints,
+            WebRequest webRequest
     ) {
-        CandleInterval candleInterval = CandleInterval.fromLabel(interval);
-        List<Candle> candles = candleAggregationService.getHistoricalCandles(symbol, candleInterval, from, to);
+        // Committed once the request has an outcome, by the query when it gets that far
+        HistoryRequestEvent event = new HistoryRequestEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            CandleInterval candleInterval = CandleInterval.fromLabel(interval);
+
+            // Polls of the same chart differ by a few seconds. The window is widened to whole buckets, so requests
+            // within the same buckets read the same candles and can share a query and an ETag
+            HistoryKey key = new HistoryKey(symbol, candleInterval, candleInterval.alignTimestamp(from),
+                    candleInterval.alignTimestamp(to) + candleInterval.getSeconds() - 1, maxPoints);
+
+            boolean settled = historyCachePolicy.isSettled(candleInterval, key.to(), maxPoints,
+                    System.currentTimeMillis() / 1000);
+            CacheControl cacheControl = historyCachePolicy.cacheControl(settled);
 
+            // A settled window never changes, so a client holding it can be answered without querying
+            String requestETag = settled
+                    ? historyCachePolicy.requestETag(symbol, candleInterval, key.from(), key.to(), maxPoints) : null;
+            if (requestETag != null && webRequest.checkNotModified(requestETag)) {
+                outcome = "not_modified";
+                DeferredResult<ResponseEntity<Map<String, Object>>> notModified = new DeferredResult<>();
+                notModified.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(requestETag).cacheControl(cacheControl).build());
+                return notModified;
+            }
+
+            DeferredResult<ResponseEntity<Map<String, Object>>> result = historyQueryExecutor.execute(
+                    () -> query(event, key, webRequest, requestETag, cacheControl));
+            outcome = null;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            if (outcome != null) {
+                commit(event, symbol, interval, maxPoints, outcome, null);
+            }
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> query(HistoryRequestEvent event, HistoryKey key,
+                                                      WebRequest webRequest, String requestETag,
+                                                      CacheControl cacheControl) {
+        String outcome = "error";
+        HistoryResponse response = null;
+        try {
+            // Charged before coalescing: a heavy client pays for its requests even when another one runs the query
+            historyAdmissionControl.admit(webRequest, key.interval(), key.from(), key.to(), key.maxPoints());
+
+            // Answered by the query of the same window that is already running, if any
+            response = historyRequestCoalescer.execute(key, () -> historyQueryExecutor.limited(() -> queryHistory(key)));
+            outcome = "ok";
+
+            // Live windows are revalidated by content; a 304 is sent by Spring when If-None-Match matches
+            return ResponseEntity.ok()
+                    .eTag(requestETag != null ? requestETag : response.contentETag())
+                    .cacheControl(cacheControl)
+                    .body(response.body());
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            commit(event, key.symbol(), key.interval().getLabel(), key.maxPoints(), outcome, response);
+        }
+    }
+
+    private static void commit(HistoryRequestEvent event, String symbol, String interval, Integer maxPoints,
+                               String outcome, HistoryResponse response) {
+        if (event.shouldCommit()) {
+            event.symbol = symbol;
+            event.interval = interval;
+            event.maxPoints = maxPoints == null ? 0 : maxPoints;
+            event.outcome = outcome;
+            if (response != null) {
+                event.candles = response.candles();
+                event.serializationTime = response.buildNanos();
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Outcome of a request that failed with {@code e}, as answered by {@link GlobalExceptionHandler}
+     */
+    private static String outcomeOf(RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return "bad_request";
+        }
+        if (e instanceof HistoryQueryRejectedException) {
+            return "rejected";
+        }
+        if (e instanceof QueryTimeoutException || e instanceof CancellationException) {
+            return "unavailable";
+        }
+        return "error";
+    }
+
+    private HistoryResponse queryHistory(HistoryKey key) {
+        CandleBatch candles = key.maxPoints() == null
+                ? candleAggregationService.getCandleBatch(key.symbol(), key.interval(), key.from(), key.to())
+                : candleAggregationService.getCandleBatch(key.symbol(), key.interval(), key.from(), key.to(),
+                        key.maxPoints());
+
+        // The columns are serialized as they are, as JSON arrays of primitives
+        long buildStart = System.nanoTime();
+        candles.trimToSize();
         Map<String, Object> response = new HashMap<>();
         response.put("s", "ok");
-        response.put("t", candles.stream().map(Candle::time).toList());
-        response.put("o", candles.stream().map(Candle::open).toList());
-        response.put("h", candles.stream().map(Candle::high).toList());
-        response.put("l", candles.stream().map(Candle::low).toList());
-        response.put("c", candles.stream().map(Candle::close).toList());
-        response.put("v", candles.stream().map(Candle::volume).toList());
-
-        return ResponseEntity.ok(response);
+        response.put("t", candles.times());
+        response.put("o", candles.opens());
+        response.put("h", candles.highs());
+        response.put("l", candles.lows());
+        response.put("c", candles.closes());
+        response.put("v", candles.volumes());
+
+        // Shared by all coalesced requests, so it must not be modified afterwards
+        String contentETag = historyCachePolicy.contentETag(candles);
+        return new HistoryResponse(Collections.unmodifiableMap(response), contentETag, candles.size(),
+                System.nanoTime() - buildStart);
+    }
+
+    private record HistoryResponse(Map<String, Object> body, String contentETag, int candles, long buildNanos) {
+    }
+
+    private record HistoryKey(String symbol, CandleInterval interval, long from, long to, Integer maxPoints) {
     }
 }
@@ -0,0 +1,17 @@
+package com.multibank.application.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "history.execution")
+public class HistoryExecutionProperties {
+
+    // Deadline of a /history request, including waiting for its budget and a query slot
+    private long timeoutMs = 10_000;
+
+    // Queries running against storage at once, at most the connection pool size so none waits for a connection
+    private int maxConcurrentQueries = 10;
+}
@@ -0,0 +1,107 @@
+package com.multibank.application.controller;
+
+import com.multibank.application.repository.QueryDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs /history requests off the servlet threads, each on its own virtual thread under a {@link QueryDeadline}.
+ * When the deadline passes the request is answered with 503 and its query cancelled; when the client goes away
+ * the query is cancelled as well. Storage queries take one of maxConcurrentQueries slots, waiting for one at most
+ * until the deadline, so a slow database makes requests fail fast instead of piling up on the connection pool.
+ */
+@Component
+public class HistoryQueryExecutor {
+
+    private final HistoryExecutionProperties properties;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("history-", 0).factory());
+    private final Semaphore querySlots;
+
+    private final Counter timedOut;
+    private final Counter disconnected;
+
+    public HistoryQueryExecutor(HistoryExecutionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.querySlots = new Semaphore(properties.getMaxConcurrentQueries());
+        this.timedOut = aborted(meterRegistry, "deadline");
+        this.disconnected = aborted(meterRegistry, "disconnect");
+    }
+
+    private static Counter aborted(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("history.requests.aborted")
+                .description("History requests given up before their query completed")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts {@code request} under a new deadline; its result or exception completes the returned DeferredResult
+     */
+    public <T> DeferredResult<T> execute(Supplier<T> request) {
+        long timeoutMs = properties.getTimeoutMs();
+        QueryDeadline deadline = QueryDeadline.after(timeoutMs);
+        DeferredResult<T> result = new DeferredResult<>(timeoutMs);
+
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.setResult(deadline.call(request));
+            } catch (RuntimeException | Error e) {
+                result.setErrorResult(e);
+            }
+        });
+
+        result.onTimeout(() -> {
+            timedOut.increment();
+            deadline.cancel();
+            task.cancel(true);
+            result.setErrorResult(new QueryTimeoutException("History request did not complete within " + timeoutMs
+                    + "ms"));
+        });
+        result.onError(e -> {
+            disconnected.increment();
+            deadline.cancel();
+            task.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Runs a storage query in one of the query slots, waiting for a free one until the current request's deadline
+     */
+    public <T> T limited(Supplier<T> query) {
+        QueryDeadline deadline = QueryDeadline.current();
+        long waitNanos = deadline == null ? Long.MAX_VALUE : deadline.remainingNanos();
+        try {
+            if (!querySlots.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                throw new QueryTimeoutException("No query slot free within the deadline, "
+                        + properties.getMaxConcurrentQueries() + " queries running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a query slot");
+        }
+        try {
+            return query.get();
+        } finally {
+            querySlots.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
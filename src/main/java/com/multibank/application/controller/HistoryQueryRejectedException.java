@@ -0,0 +1,18 @@
+package com.multibank.application.controller;
+
+/**
+ * A /history request that its client's query budget cannot cover right now
+ */
+public class HistoryQueryRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HistoryQueryRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
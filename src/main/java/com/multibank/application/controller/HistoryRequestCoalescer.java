@@ -0,0 +1,67 @@
+package com.multibank.application.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of /history queries: while a query for a key is running, identical requests
+ * wait for it and share its response instead of starting their own. Nothing is cached afterwards, the next
+ * request after completion runs a fresh query. When the running query is cancelled because its own request went
+ * away, the waiting requests start over instead of failing with it.
+ */
+@Component
+public class HistoryRequestCoalescer {
+
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public HistoryRequestCoalescer(MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("history.requests.coalesced")
+                .description("History requests answered by an identical request already in flight")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> query) {
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running;
+        while ((running = inFlight.putIfAbsent(key, own)) != null) {
+            coalesced.increment();
+            try {
+                return (T) running.get();
+            } catch (CancellationException e) {
+                // Cancelled for the request that ran it, not for this one
+                inFlight.remove(key, running);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a coalesced query");
+            }
+        }
+
+        try {
+            T result = query.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    public double getCoalescedCount() {
+        return coalesced.count();
+    }
+}
@@ -1,24 +1,26 @@
 package com.multibank.application.datagenerator;
 
+import com.multibank.application.cluster.SymbolPartitioner;
 import com.multibank.application.model.BidAskEvent;
-import com.multibank.application.service.CandleAggregationService;
+import com.multibank.application.service.TickIngress;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 import java.util.concurrent.*;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "loadtest", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class DataGenerator {
 
-    private final CandleAggregationService candleAggregationService;
+    private final TickIngress tickIngress;
+    private final SymbolPartitioner symbolPartitioner;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(8);
 
     private final Map<String, Double> initialPricePerSymbol = new HashMap<>() {{
@@ -57,6 +59,11 @@ public class DataGenerator {
     }
 
     private void generateEvent(String symbol) {
+        // In cluster mode every node simulates the whole feed but only aggregates the symbols it owns
+        if (!symbolPartitioner.isLocal(symbol)) {
+            return;
+        }
+
         try {
             double basePrice = currentPricePerSymbol.get(symbol);
             double onePercentOfPrice = basePrice / 100;
@@ -66,10 +73,8 @@ public class DataGenerator {
             currentPricePerSymbol.put(symbol, newPrice);
 
             double spread = newPrice * 0.0005;
-            double bid = BigDecimal.valueOf(newPrice - spread / 2)
-                    .setScale(4, RoundingMode.HALF_UP).doubleValue();
-            double ask = BigDecimal.valueOf(newPrice + spread / 2)
-                    .setScale(4, RoundingMode.HALF_UP).doubleValue();
+            double bid = roundToTickSize(newPrice - spread / 2);
+            double ask = roundToTickSize(newPrice + spread / 2);
 
             BidAskEvent event = new BidAskEvent(
                     symbol,
@@ -78,12 +83,19 @@ public class DataGenerator {
                     System.currentTimeMillis()
             );
 
-            candleAggregationService.processEvent(event);
+            tickIngress.publish(event);
         } catch (Exception e) {
             log.error("Error generating event for {}", symbol, e);
         }
     }
 
+    /**
+     * Rounds to 4 decimals without going through BigDecimal
+     */
+    static double roundToTickSize(double price) {
+        return Math.round(price * 10_000) / 10_000.0;
+    }
+
     @PreDestroy
     public void shutdown() {
         log.info("Stopping data generator");
@@ -39,7 +39,7 @@ public class CandleEntity {
     public static class CandleId implements Serializable {
         @Convert(converter = TimestampConverter.class)
         private Long time;
-        private String symbol;
+        private Integer symbolId;
     }
     
 }
@@ -0,0 +1,31 @@
+package com.multibank.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.multibank.CandleClose")
+@Label("Candle Close")
+@Description("A 1s candle stopped accepting regular ticks and was queued for flushing")
+@Category({"Candle Aggregation", "Aggregation"})
+@StackTrace(false)
+public class CandleCloseEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Bucket Start")
+    public long bucket;
+
+    @Label("Ticks")
+    public long ticks;
+
+    @Label("Close Lag")
+    @Description("Time from the end of the bucket until the candle was closed")
+    @Timespan(Timespan.MILLISECONDS)
+    public long lag;
+}
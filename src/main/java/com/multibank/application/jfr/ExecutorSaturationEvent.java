@@ -0,0 +1,30 @@
+package com.multibank.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+@Name("com.multibank.ExecutorSaturation")
+@Label("Executor Saturation")
+@Description("Periodic sample of the aggregation executors: queued tasks and busy threads")
+@Category({"Candle Aggregation", "Aggregation"})
+@Period("1 s")
+@StackTrace(false)
+public class ExecutorSaturationEvent extends Event {
+
+    @Label("Executor")
+    public String executor;
+
+    @Label("Queued Tasks")
+    public int queued;
+
+    @Label("Active Threads")
+    public int active;
+
+    @Label("Pool Size")
+    public int poolSize;
+}
@@ -0,0 +1,29 @@
+package com.multibank.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.multibank.FlushBatch")
+@Label("Flush Batch")
+@Description("One batch of closed candles or late-tick corrections written to storage")
+@Category({"Candle Aggregation", "Aggregation"})
+@StackTrace(false)
+public class FlushBatchEvent extends Event {
+
+    @Label("Kind")
+    @Description("upsert for closed candles, correction for late-tick rewrites")
+    public String kind;
+
+    @Label("Size")
+    public int size;
+
+    @Label("Target Batch Size")
+    public int targetBatchSize;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,39 @@
+package com.multibank.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.multibank.HistoryQuery")
+@Label("History Query")
+@Description("Candle history lookup in the aggregation service and the storage path it took")
+@Category({"Candle Aggregation", "History"})
+@StackTrace(false)
+public class HistoryQueryEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Interval")
+    public String interval;
+
+    @Label("Path")
+    @Description("1s, historical, realtime or mixed")
+    public String path;
+
+    @Label("Split")
+    @Description("Start of the range aggregated from 1s candles: the view's materialization watermark or the first bucket late ticks can still change, whichever is earlier, or now minus the realtime window when unknown")
+    public long split;
+
+    @Label("From")
+    public long from;
+
+    @Label("To")
+    public long to;
+
+    @Label("Candles")
+    public int candles;
+}
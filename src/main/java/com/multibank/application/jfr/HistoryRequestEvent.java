@@ -0,0 +1,38 @@
+package com.multibank.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.multibank.HistoryRequest")
+@Label("History Request")
+@Description("Handling of one /history request, whatever its outcome; the History Query and Storage Read events of the same thread show where the time went")
+@Category({"Candle Aggregation", "History"})
+@StackTrace(false)
+public class HistoryRequestEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Interval")
+    public String interval;
+
+    @Label("Max Points")
+    public int maxPoints;
+
+    @Label("Candles")
+    public int candles;
+
+    @Label("Outcome")
+    @Description("ok, not_modified, bad_request, rejected (429), unavailable (503, deadline passed or cancelled) or error")
+    public String outcome;
+
+    @Label("Response Build Time")
+    @Description("Time spent turning the candles into the response body")
+    @Timespan(Timespan.NANOSECONDS)
+    public long serializationTime;
+}
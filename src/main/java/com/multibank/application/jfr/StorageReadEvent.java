@@ -0,0 +1,25 @@
+package com.multibank.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.multibank.StorageRead")
+@Label("Storage Read")
+@Description("One candle query against the database")
+@Category({"Candle Aggregation", "History"})
+@StackTrace(false)
+public class StorageReadEvent extends Event {
+
+    @Label("Table")
+    public String table;
+
+    @Label("Symbol Id")
+    public int symbolId;
+
+    @Label("Rows Read")
+    public int rows;
+}
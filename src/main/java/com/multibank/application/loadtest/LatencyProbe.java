@@ -0,0 +1,90 @@
+package com.multibank.application.loadtest;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.service.AggregationListener;
+import com.multibank.application.symbol.SymbolRegistry;
+import lombok.RequiredArgsConstructor;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures tick-to-candle-visible latency: the time from when a sampled tick was supposed to be sent
+ * until the 1s candle it belongs to has been flushed to storage, or for a late tick, corrected there. Measuring from the intended send time
+ * rather than the actual one keeps a stalled generator from hiding the stall (coordinated omission).
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "loadtest", name = "enabled", havingValue = "true")
+public class LatencyProbe implements AggregationListener {
+
+    private static final long STALE_AFTER_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SymbolRegistry symbols;
+
+    // candle key -> intended send time (System.nanoTime) of the first sampled tick of that candle
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+    private final Recorder recorder = new Recorder(TimeUnit.HOURS.toMicros(1), 3);
+    private final AtomicLong lost = new AtomicLong();
+
+    void track(String symbol, long eventTimestamp, long intendedNanos) {
+        pending.putIfAbsent(key(symbols.register(symbol), CandleInterval.ONE_SECOND.alignTimestamp(eventTimestamp)), intendedNanos);
+    }
+
+    @Override
+    public void onCandlesFlushed(List<CandleEntity> candles) {
+        recordVisible(candles);
+    }
+
+    /**
+     * A late tick becomes visible with the correction of its already flushed candle
+     */
+    @Override
+    public void onCandlesCorrected(List<CandleEntity> candles) {
+        recordVisible(candles);
+    }
+
+    private void recordVisible(List<CandleEntity> candles) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (CandleEntity candle : candles) {
+            Long intended = pending.remove(key(candle.getId().getSymbolId(), candle.getId().getTime()));
+            if (intended != null) {
+                recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(now - intended), TimeUnit.HOURS.toMicros(1)));
+            }
+        }
+    }
+
+    Recorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Forgets samples whose candle never became visible, e.g. because the flush failed, and counts them
+     */
+    long expireStale() {
+        long cutoff = System.nanoTime() - STALE_AFTER_NANOS;
+        pending.entrySet().removeIf(e -> {
+            boolean stale = e.getValue() < cutoff;
+            if (stale) {
+                lost.incrementAndGet();
+            }
+            return stale;
+        });
+        return lost.get();
+    }
+
+    private static long key(int symbolId, long time) {
+        return ((long) symbolId << 48) | time;
+    }
+}
@@ -0,0 +1,239 @@
+package com.multibank.application.loadtest;
+
+import com.multibank.application.config.LocalServerUrl;
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.service.TickIngress;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.server.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator replacing the DataGenerator when loadtest.enabled=true.
+ * Producer threads send ticks for Zipf-distributed symbols on a fixed schedule of intended send times and
+ * never slow down when the service falls behind; query threads do the same with /history requests sent over HTTP
+ * to this instance once it is ready, so they go through the whole request path.
+ * All latencies are measured from the intended start, so they are not subject to coordinated omission.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "loadtest", name = "enabled", havingValue = "true")
+public class LoadGenerator {
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int MAX_BATCH = 1024;
+
+    private final LoadTestProperties properties;
+    private final TickIngress tickIngress;
+    private final LatencyProbe latencyProbe;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicLong ticksSent = new AtomicLong();
+    private final AtomicLong queriesFailed = new AtomicLong();
+    private final AtomicLong queriesRejected = new AtomicLong();
+    private final Recorder queryRecorder = new Recorder(TimeUnit.HOURS.toMicros(1), 3);
+    private final Histogram tickTotal = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+    private final Histogram queryTotal = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+
+    private String[] symbols;
+    private double[] prices;
+    private ZipfDistribution popularity;
+    private volatile boolean running = true;
+    private long lastReportTicks;
+
+    @PostConstruct
+    public void start() {
+        symbols = new String[properties.getSymbols()];
+        prices = new double[properties.getSymbols()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = String.format("SYM%05d-USD", i);
+            prices[i] = 10 + ThreadLocalRandom.current().nextDouble() * 1000;
+        }
+        popularity = new ZipfDistribution(symbols.length, properties.getZipfExponent());
+
+        long startNanos = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+
+        double tickPeriodNanos = 1e9 * properties.getProducerThreads() / properties.getTicksPerSecond();
+        for (int i = 0; i < properties.getProducerThreads(); i++) {
+            threads.add(Thread.ofPlatform().name("load-producer-" + i).daemon()
+                    .start(() -> produceTicks(startNanos, startMillis, tickPeriodNanos)));
+        }
+
+        reporter.scheduleAtFixedRate(this::report, properties.getReportIntervalSeconds(),
+                properties.getReportIntervalSeconds(), TimeUnit.SECONDS);
+
+        log.info("Load test started: {} symbols, {} ticks/s on {} threads, {} queries/s on {} threads",
+                symbols.length, properties.getTicksPerSecond(), properties.getProducerThreads(),
+                properties.getQueriesPerSecond(), properties.getQueryThreads());
+    }
+
+    /**
+     * Queries start once the web server is up and warm-up is done, with their own schedule from then on
+     */
+    @EventListener
+    public void startQueries(ApplicationReadyEvent event) {
+        if (properties.getQueriesPerSecond() <= 0
+                || !(event.getApplicationContext() instanceof ServletWebServerApplicationContext context)) {
+            return;
+        }
+
+        RestClient client = RestClient.create(LocalServerUrl.of(context));
+        long startNanos = System.nanoTime();
+        double queryPeriodNanos = 1e9 * properties.getQueryThreads() / properties.getQueriesPerSecond();
+        CandleInterval interval = CandleInterval.fromLabel(properties.getQueryInterval());
+        for (int i = 0; i < properties.getQueryThreads(); i++) {
+            threads.add(Thread.ofPlatform().name("load-query-" + i).daemon()
+                    .start(() -> runQueries(client, startNanos, queryPeriodNanos, interval)));
+        }
+    }
+
+    private void produceTicks(long startNanos, long startMillis, double periodNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sequence = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            long intended = startNanos + (long) (sequence * periodNanos);
+
+            if (intended > now) {
+                LockSupport.parkNanos(Math.min(intended - now, MAX_PARK_NANOS));
+                continue;
+            }
+
+            // Catch up on everything that was due, in bounded batches so the loop stays responsive
+            for (int batch = 0; batch < MAX_BATCH && intended <= now; batch++) {
+                sendTick(random, intended, startMillis + TimeUnit.NANOSECONDS.toMillis(intended - startNanos));
+                sequence++;
+                intended = startNanos + (long) (sequence * periodNanos);
+            }
+        }
+    }
+
+    private void sendTick(ThreadLocalRandom random, long intendedNanos, long intendedMillis) {
+        int index = popularity.sample();
+
+        // Racy read-modify-write across producers is fine for synthetic prices
+        double price = prices[index] * (1 + (random.nextDouble() - 0.5) * 0.0002);
+        prices[index] = price;
+        double spread = price * 0.0005;
+
+        long timestamp = intendedMillis;
+        double roll = random.nextDouble();
+        if (roll < properties.getLateRatio()) {
+            timestamp -= properties.getLateByMs();
+        } else if (roll < properties.getLateRatio() + properties.getOutOfOrderRatio()) {
+            timestamp -= random.nextLong(properties.getMaxOutOfOrderMs() + 1);
+        }
+
+        String symbol = symbols[index];
+        if (random.nextDouble() < properties.getLatencySampleRatio()) {
+            latencyProbe.track(symbol, timestamp, intendedNanos);
+        }
+
+        tickIngress.publish(new BidAskEvent(symbol, price - spread / 2, price + spread / 2, timestamp));
+        ticksSent.incrementAndGet();
+    }
+
+    private void runQueries(RestClient client, long startNanos, double periodNanos, CandleInterval interval) {
+        long sequence = 0;
+
+        while (running) {
+            long intended = startNanos + (long) (sequence * periodNanos);
+            long now = System.nanoTime();
+            if (intended > now) {
+                LockSupport.parkNanos(intended - now);
+                continue;
+            }
+
+            String symbol = symbols[popularity.sample()];
+            long to = System.currentTimeMillis() / 1000;
+            try {
+                client.get()
+                        .uri(uri -> uri.path("/history")
+                                .queryParam("symbol", symbol)
+                                .queryParam("interval", interval.getLabel())
+                                .queryParam("from", to - properties.getQueryRangeSeconds())
+                                .queryParam("to", to)
+                                .build())
+                        .header("Accept-Encoding", "gzip")
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (HttpClientErrorException e) {
+                // Rejected by admission control rather than failed
+                (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS ? queriesRejected : queriesFailed).incrementAndGet();
+            } catch (Exception e) {
+                queriesFailed.incrementAndGet();
+            }
+            queryRecorder.recordValue(Math.min(
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended), TimeUnit.HOURS.toMicros(1)));
+            sequence++;
+        }
+    }
+
+    private void report() {
+        try {
+            Histogram ticks = latencyProbe.getRecorder().getIntervalHistogram();
+            Histogram queries = queryRecorder.getIntervalHistogram();
+            tickTotal.add(ticks);
+            queryTotal.add(queries);
+
+            long sent = ticksSent.get();
+            long rate = (sent - lastReportTicks) / properties.getReportIntervalSeconds();
+            lastReportTicks = sent;
+
+            log.info("Load test: {} ticks/s sent (target {}), lost samples {}, failed queries {}, "
+                            + "rejected queries {} | tick->visible {} | query {}",
+                    rate, properties.getTicksPerSecond(), latencyProbe.expireStale(), queriesFailed.get(),
+                    queriesRejected.get(), summary(ticks), summary(queries));
+        } catch (Exception e) {
+            log.error("Error reporting load test results", e);
+        }
+    }
+
+    private static String summary(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return "no samples";
+        }
+        return String.format("n=%d p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        reporter.shutdownNow();
+        for (Thread thread : threads) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        report();
+        log.info("Load test totals: tick->visible {} | query {}", summary(tickTotal), summary(queryTotal));
+    }
+}
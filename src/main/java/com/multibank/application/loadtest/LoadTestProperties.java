@@ -0,0 +1,51 @@
+package com.multibank.application.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    // Replaces the DataGenerator with the load generator
+    private boolean enabled = false;
+
+    private int symbols = 2000;
+
+    // Target rate over all symbols; ticks are sent on an open-loop schedule regardless of how the service keeps up.
+    // Once aggregation.event-queue-capacity ticks are waiting, producers aggregate on their own thread and the
+    // backlog shows up as tick latency
+    private long ticksPerSecond = 1_000_000;
+
+    private int producerThreads = 4;
+
+    // Symbol popularity follows a Zipf distribution with this exponent; 0 means uniform
+    private double zipfExponent = 1.1;
+
+    // Share of ticks whose timestamp is moved back by up to maxOutOfOrderMs
+    private double outOfOrderRatio = 0.0;
+
+    private long maxOutOfOrderMs = 500;
+
+    // Share of ticks that arrive lateByMs after their timestamp, i.e. after their candle was closed
+    private double lateRatio = 0.0;
+
+    // Well inside aggregation.max-tick-lateness-ms, so late ticks are merged rather than dropped depending on timing
+    private long lateByMs = 2000;
+
+    // Share of ticks tracked until their candle is visible in storage
+    private double latencySampleRatio = 0.001;
+
+    private int queryThreads = 4;
+
+    // Target /history query rate over all query threads; 0 disables the query load
+    private int queriesPerSecond = 200;
+
+    private long queryRangeSeconds = 3600;
+
+    private String queryInterval = "1m";
+
+    private int reportIntervalSeconds = 10;
+}
@@ -0,0 +1,29 @@
+package com.multibank.application.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent via an inverse CDF lookup
+ */
+class ZipfDistribution {
+
+    private final double[] cdf;
+
+    ZipfDistribution(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    int sample() {
+        int index = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
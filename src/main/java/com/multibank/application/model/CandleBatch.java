@@ -0,0 +1,240 @@
+package com.multibank.application.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Candles in columnar form, one primitive array per field, so any number of candles costs six arrays instead
+ * of one object each. Filled by appending, with the columns growing like an ArrayList; once handed on it is
+ * treated as read-only. Not thread-safe while being filled.
+ * <p>
+ * The column accessors return the backing arrays, of which the first {@link #size()} entries are valid;
+ * {@link #trimToSize()} makes them exactly that long, e.g. before serializing them.
+ */
+public final class CandleBatch {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] time;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+    private int size;
+
+    public CandleBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CandleBatch(int capacity) {
+        time = new long[capacity];
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        volume = new long[capacity];
+    }
+
+    public static CandleBatch empty() {
+        return new CandleBatch(0);
+    }
+
+    public static CandleBatch of(List<Candle> candles) {
+        CandleBatch batch = new CandleBatch(candles.size());
+        for (Candle candle : candles) {
+            batch.add(candle);
+        }
+        return batch;
+    }
+
+    public void add(long time, double open, double high, double low, double close, long volume) {
+        if (size == this.time.length) {
+            grow(Math.max(DEFAULT_CAPACITY, size + (size >> 1)));
+        }
+        this.time[size] = time;
+        this.open[size] = open;
+        this.high[size] = high;
+        this.low[size] = low;
+        this.close[size] = close;
+        this.volume[size] = volume;
+        size++;
+    }
+
+    public void add(Candle candle) {
+        add(candle.time(), candle.open(), candle.high(), candle.low(), candle.close(), candle.volume());
+    }
+
+    /**
+     * Appends all candles of another batch
+     */
+    public void addAll(CandleBatch other) {
+        if (size + other.size > time.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.time, 0, time, size, other.size);
+        System.arraycopy(other.open, 0, open, size, other.size);
+        System.arraycopy(other.high, 0, high, size, other.size);
+        System.arraycopy(other.low, 0, low, size, other.size);
+        System.arraycopy(other.close, 0, close, size, other.size);
+        System.arraycopy(other.volume, 0, volume, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Union of two time-ordered batches by candle time, in time order. Where both have a candle with the same
+     * time, the one from {@code preferred} is taken.
+     */
+    public static CandleBatch mergeByTime(CandleBatch other, CandleBatch preferred) {
+        CandleBatch merged = new CandleBatch(other.size + preferred.size);
+        int i = 0;
+        int j = 0;
+        while (i < other.size || j < preferred.size) {
+            if (j == preferred.size || (i < other.size && other.time[i] < preferred.time[j])) {
+                merged.add(other, i++);
+            } else {
+                if (i < other.size && other.time[i] == preferred.time[j]) {
+                    i++;
+                }
+                merged.add(preferred, j++);
+            }
+        }
+        return merged;
+    }
+
+    private void add(CandleBatch from, int index) {
+        add(from.time[index], from.open[index], from.high[index], from.low[index], from.close[index],
+                from.volume[index]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long time(int index) {
+        return time[index];
+    }
+
+    public double open(int index) {
+        return open[index];
+    }
+
+    public double high(int index) {
+        return high[index];
+    }
+
+    public double low(int index) {
+        return low[index];
+    }
+
+    public double close(int index) {
+        return close[index];
+    }
+
+    public long volume(int index) {
+        return volume[index];
+    }
+
+    public Candle get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return new Candle(time[index], open[index], high[index], low[index], close[index], volume[index]);
+    }
+
+    public long[] times() {
+        return time;
+    }
+
+    public double[] opens() {
+        return open;
+    }
+
+    public double[] highs() {
+        return high;
+    }
+
+    public double[] lows() {
+        return low;
+    }
+
+    public double[] closes() {
+        return close;
+    }
+
+    public long[] volumes() {
+        return volume;
+    }
+
+    /**
+     * Shrinks the columns to exactly {@link #size()} entries
+     */
+    public CandleBatch trimToSize() {
+        if (time.length != size) {
+            grow(size);
+        }
+        return this;
+    }
+
+    /**
+     * The candles as a list, creating each record only when it is read
+     */
+    public List<Candle> toList() {
+        return new AbstractList<>() {
+            @Override
+            public Candle get(int index) {
+                return CandleBatch.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void grow(int capacity) {
+        time = Arrays.copyOf(time, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CandleBatch other) || size != other.size) {
+            return false;
+        }
+        return Arrays.equals(time, 0, size, other.time, 0, size)
+                && Arrays.equals(open, 0, size, other.open, 0, size)
+                && Arrays.equals(high, 0, size, other.high, 0, size)
+                && Arrays.equals(low, 0, size, other.low, 0, size)
+                && Arrays.equals(close, 0, size, other.close, 0, size)
+                && Arrays.equals(volume, 0, size, other.volume, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = size;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(time[i]);
+            hash = 31 * hash + Long.hashCode(volume[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "CandleBatch" + toList();
+    }
+}
@@ -27,4 +27,28 @@ public enum CandleInterval {
     public long alignTimestamp(long timestamp) {
         return (timestamp / seconds) * seconds;
     }
+
+    /**
+     * Number of buckets of this interval touched by the inclusive range [from, to].
+     */
+    public long bucketCount(long from, long to) {
+        if (to < from) {
+            return 0;
+        }
+        return alignTimestamp(to) / seconds - alignTimestamp(from) / seconds + 1;
+    }
+
+    /**
+     * Finest interval, not finer than {@code base}, that covers [from, to] in at most {@code maxPoints} buckets.
+     * Falls back to the coarsest interval when none of them fits.
+     */
+    public static CandleInterval smallestFitting(CandleInterval base, long from, long to, int maxPoints) {
+        CandleInterval[] intervals = values();
+        for (int i = base.ordinal(); i < intervals.length; i++) {
+            if (intervals[i].bucketCount(from, to) <= maxPoints) {
+                return intervals[i];
+            }
+        }
+        return intervals[intervals.length - 1];
+    }
 }
\ No newline at end of file
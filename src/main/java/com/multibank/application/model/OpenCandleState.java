@@ -0,0 +1,17 @@
+package com.multibank.application.model;
+
+/**
+ * Full state of a 1s candle that is still accumulating ticks, including the timestamps
+ * that decide open and close, so it can be handed over to another node and merged there.
+ */
+public record OpenCandleState(
+    String symbol,
+    long startTime,
+    double open,
+    long openTimestamp,
+    double high,
+    double low,
+    double close,
+    long closeTimestamp,
+    long volume) {
+}
@@ -0,0 +1,27 @@
+package com.multibank.application.model;
+
+/**
+ * Which side of the book a candle is built from
+ */
+public enum PriceBasis {
+    MID,
+    BID,
+    ASK;
+
+    public double price(double bid, double ask) {
+        return switch (this) {
+            case MID -> (bid + ask) / 2.0;
+            case BID -> bid;
+            case ASK -> ask;
+        };
+    }
+
+    public static PriceBasis fromLabel(String label) {
+        for (PriceBasis basis : values()) {
+            if (basis.name().equalsIgnoreCase(label)) {
+                return basis;
+            }
+        }
+        throw new IllegalArgumentException("Unknown price basis: " + label);
+    }
+}
@@ -0,0 +1,20 @@
+package com.multibank.application.rangeindex;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "rangeindex")
+public class RangeIndexProperties {
+
+    private boolean enabled = true;
+
+    // Seconds of 1s candles indexed per symbol; 112 bytes per second, about 2.4 MB per symbol for 6 hours
+    private int windowSeconds = 6 * 3600;
+
+    // Symbols indexed at once, which bounds the memory to maxSymbols times the size above. A symbol is indexed
+    // from its first query on; beyond this the least recently queried one is dropped
+    private int maxSymbols = 64;
+}
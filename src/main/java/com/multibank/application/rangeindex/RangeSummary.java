@@ -0,0 +1,15 @@
+package com.multibank.application.rangeindex;
+
+/**
+ * Aggregate of all 1s candles in a range: open of the first and close of the last candle, their start times
+ * in epoch millis, the extremes and the total volume
+ */
+public record RangeSummary(
+        long firstTime,
+        long lastTime,
+        double open,
+        double high,
+        double low,
+        double close,
+        long volume) {
+}
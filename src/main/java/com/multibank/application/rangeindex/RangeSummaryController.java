@@ -0,0 +1,50 @@
+package com.multibank.application.rangeindex;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "rangeindex", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RangeSummaryController {
+
+    private final RecentCandleRangeIndex recentCandleRangeIndex;
+
+    /**
+     * Open/high/low/close/volume over any window of recent 1s candles, e.g. the last 37 minutes
+     */
+    @GetMapping("/range-summary")
+    public ResponseEntity<Map<String, Object>> rangeSummary(
+            @RequestParam String symbol,
+            @RequestParam long from,
+            @RequestParam long to
+    ) {
+        Optional<RangeSummary> summary = recentCandleRangeIndex.summarize(symbol, from, to);
+
+        Map<String, Object> response = new HashMap<>();
+        if (summary.isEmpty()) {
+            response.put("s", "no_data");
+            return ResponseEntity.ok(response);
+        }
+
+        RangeSummary s = summary.get();
+        response.put("s", "ok");
+        response.put("first", s.firstTime());
+        response.put("last", s.lastTime());
+        response.put("o", s.open());
+        response.put("h", s.high());
+        response.put("l", s.low());
+        response.put("c", s.close());
+        response.put("v", s.volume());
+
+        return ResponseEntity.ok(response);
+    }
+}
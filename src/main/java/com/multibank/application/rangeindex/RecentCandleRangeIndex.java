@@ -0,0 +1,88 @@
+package com.multibank.application.rangeindex;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.service.AggregationListener;
+import com.multibank.application.symbol.SymbolRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory range index over the flushed 1s candles of the last rangeindex.window-seconds per symbol.
+ * Answers high/low/first/last/volume over arbitrary windows in O(log n) without reading candles back from storage.
+ * Candle times are epoch millis, as flushed.
+ * <p>
+ * A symbol is indexed from its first query on, and at most rangeindex.max-symbols of them at once, so memory stays
+ * bounded however many symbols are aggregated; the least recently queried one is dropped to make room.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "rangeindex", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RecentCandleRangeIndex implements AggregationListener {
+
+    private final RangeIndexProperties properties;
+    private final SymbolRegistry symbols;
+
+    // By symbol id, only symbols that have been queried
+    private final Map<Integer, SymbolRangeIndex> indexes = new ConcurrentHashMap<>();
+
+    @Override
+    public void onCandlesFlushed(List<CandleEntity> candles) {
+        index(candles, false);
+    }
+
+    @Override
+    public void onCandlesCorrected(List<CandleEntity> candles) {
+        // Corrections carry the complete candle
+        index(candles, true);
+    }
+
+    /**
+     * Summary of the 1s candles starting within the seconds range [from, to]. Only the indexed window is
+     * covered; parts of the range before it, or before the symbol was first queried, are ignored.
+     */
+    public Optional<RangeSummary> summarize(String symbol, long from, long to) {
+        if (to < from) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        int symbolId = symbols.idOf(symbol);
+        if (symbolId == SymbolRegistry.UNKNOWN) {
+            return Optional.empty();
+        }
+
+        SymbolRangeIndex index = indexes.get(symbolId);
+        if (index == null) {
+            startIndexing(symbolId);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index.query(from, to));
+    }
+
+    private synchronized void startIndexing(int symbolId) {
+        if (indexes.containsKey(symbolId)) {
+            return;
+        }
+        if (indexes.size() >= properties.getMaxSymbols()) {
+            indexes.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastQueriedNanos()))
+                    .ifPresent(e -> indexes.remove(e.getKey()));
+        }
+        indexes.put(symbolId, new SymbolRangeIndex(properties.getWindowSeconds()));
+    }
+
+    private void index(List<CandleEntity> candles, boolean replace) {
+        for (CandleEntity candle : candles) {
+            SymbolRangeIndex index = indexes.get(candle.getId().getSymbolId());
+            if (index != null) {
+                index.put(candle.getId().getTime(), candle.getOpen(), candle.getHigh(), candle.getLow(),
+                        candle.getClose(), candle.getVolume(), replace);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.multibank.application.rangeindex;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Segment tree over the last {@code capacity} seconds of one symbol. Leaves form a ring indexed by
+ * epoch second modulo capacity; inner nodes hold the aggregate of their subtree, so any range within the window
+ * is answered by combining O(log n) nodes. First/last are decided by time, which makes the combination
+ * independent of where the ring wraps and of the order nodes are combined in, so the bottom-up tree works for
+ * any capacity without rounding it up to a power of two. Seconds that fall out of the window are cleared as the
+ * newest second advances, so every leaf only ever holds a second of the current window.
+ */
+final class SymbolRangeIndex {
+
+    private static final long EMPTY_FIRST = Long.MAX_VALUE;
+    private static final long EMPTY_LAST = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final long[] firstTime;
+    private final double[] open;
+    private final long[] lastTime;
+    private final double[] close;
+    private final double[] high;
+    private final double[] low;
+    private final long[] volume;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long newestSecond = Long.MIN_VALUE;
+
+    private volatile long lastQueriedNanos = System.nanoTime();
+
+    SymbolRangeIndex(int windowSeconds) {
+        this.capacity = Math.max(2, windowSeconds);
+        this.firstTime = new long[2 * capacity];
+        this.open = new double[2 * capacity];
+        this.lastTime = new long[2 * capacity];
+        this.close = new double[2 * capacity];
+        this.high = new double[2 * capacity];
+        this.low = new double[2 * capacity];
+        this.volume = new long[2 * capacity];
+        clearAll();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long lastQueriedNanos() {
+        return lastQueriedNanos;
+    }
+
+    /**
+     * Adds a 1s candle starting at {@code timeMs}. With {@code replace} it overwrites what is stored for that
+     * second, otherwise it is merged into it. Candles older than the window are ignored.
+     */
+    void put(long timeMs, double o, double h, double l, double c, long v, boolean replace) {
+        long second = Math.floorDiv(timeMs, 1000);
+
+        lock.writeLock().lock();
+        try {
+            if (second > newestSecond) {
+                advanceTo(second);
+            } else if (second <= newestSecond - capacity) {
+                return;
+            }
+
+            int node = capacity + leaf(second);
+            if (replace || firstTime[node] == EMPTY_FIRST) {
+                firstTime[node] = timeMs;
+                open[node] = o;
+                lastTime[node] = timeMs;
+                close[node] = c;
+                high[node] = h;
+                low[node] = l;
+                volume[node] = v;
+            } else {
+                combineInto(node, timeMs, o, timeMs, c, h, l, v);
+            }
+
+            for (node >>>= 1; node > 0; node >>>= 1) {
+                pull(node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregate over the seconds [fromSecond, toSecond], clipped to the window; null if no candle is in range
+     */
+    RangeSummary query(long fromSecond, long toSecond) {
+        lastQueriedNanos = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            long from = Math.max(fromSecond, newestSecond - capacity + 1);
+            long to = Math.min(toSecond, newestSecond);
+            if (newestSecond == Long.MIN_VALUE || from > to) {
+                return null;
+            }
+
+            Accumulator acc = new Accumulator();
+            int first = leaf(from);
+            int last = leaf(to);
+            if (first <= last) {
+                collect(first, last, acc);
+            } else {
+                // Range wraps around the end of the ring
+                collect(first, capacity - 1, acc);
+                collect(0, last, acc);
+            }
+
+            if (acc.firstTime == EMPTY_FIRST) {
+                return null;
+            }
+            return new RangeSummary(acc.firstTime, acc.lastTime, acc.open, acc.high, acc.low, acc.close, acc.volume);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(int fromLeaf, int toLeaf, Accumulator acc) {
+        for (int l = fromLeaf + capacity, r = toLeaf + capacity + 1; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                acc.add(this, l++);
+            }
+            if ((r & 1) == 1) {
+                acc.add(this, --r);
+            }
+        }
+    }
+
+    private void advanceTo(long second) {
+        if (newestSecond == Long.MIN_VALUE || second - newestSecond >= capacity) {
+            clearAll();
+        } else {
+            for (long s = newestSecond + 1; s < second; s++) {
+                clearLeaf(leaf(s));
+            }
+            // The new second's leaf still holds the second one window earlier
+            clearLeaf(leaf(second));
+        }
+        newestSecond = second;
+    }
+
+    private void clearAll() {
+        Arrays.fill(firstTime, EMPTY_FIRST);
+        Arrays.fill(lastTime, EMPTY_LAST);
+        Arrays.fill(high, Double.NEGATIVE_INFINITY);
+        Arrays.fill(low, Double.POSITIVE_INFINITY);
+        Arrays.fill(volume, 0);
+    }
+
+    private void clearLeaf(int leaf) {
+        int node = capacity + leaf;
+        if (firstTime[node] == EMPTY_FIRST) {
+            return;
+        }
+        firstTime[node] = EMPTY_FIRST;
+        lastTime[node] = EMPTY_LAST;
+        high[node] = Double.NEGATIVE_INFINITY;
+        low[node] = Double.POSITIVE_INFINITY;
+        volume[node] = 0;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            pull(node);
+        }
+    }
+
+    private void pull(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        firstTime[node] = firstTime[left];
+        open[node] = open[left];
+        lastTime[node] = lastTime[left];
+        close[node] = close[left];
+        high[node] = high[left];
+        low[node] = low[left];
+        volume[node] = volume[left];
+        combineInto(node, firstTime[right], open[right], lastTime[right], close[right], high[right], low[right],
+                volume[right]);
+    }
+
+    private void combineInto(int node, long fTime, double o, long lTime, double c, double h, double l, long v) {
+        if (fTime < firstTime[node]) {
+            firstTime[node] = fTime;
+            open[node] = o;
+        }
+        if (lTime > lastTime[node]) {
+            lastTime[node] = lTime;
+            close[node] = c;
+        }
+        high[node] = Math.max(high[node], h);
+        low[node] = Math.min(low[node], l);
+        volume[node] += v;
+    }
+
+    private int leaf(long second) {
+        return (int) Math.floorMod(second, (long) capacity);
+    }
+
+    private static final class Accumulator {
+        long firstTime = EMPTY_FIRST;
+        double open;
+        long lastTime = EMPTY_LAST;
+        double close;
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        long volume;
+
+        void add(SymbolRangeIndex index, int node) {
+            if (index.firstTime[node] < firstTime) {
+                firstTime = index.firstTime[node];
+                open = index.open[node];
+            }
+            if (index.lastTime[node] > lastTime) {
+                lastTime = index.lastTime[node];
+                close = index.close[node];
+            }
+            high = Math.max(high, index.high[node]);
+            low = Math.min(low, index.low[node]);
+            volume += index.volume[node];
+        }
+    }
+}
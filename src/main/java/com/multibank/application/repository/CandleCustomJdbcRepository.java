@@ -2,15 +2,37 @@ package com.multibank.application.repository;
 
 import com.multibank.application.entity.CandleEntity;
 import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
 import com.multibank.application.model.CandleInterval;
 
 import java.util.List;
 
 public interface CandleCustomJdbcRepository {
 
-    List<Candle> find1sCandles(String symbol, Long from, Long to);
+    CandleBatch find1sCandleBatch(int symbolId, Long from, Long to);
 
-    List<Candle> findCandles(CandleInterval interval, String symbol, Long from, Long to);
+    CandleBatch findCandleBatch(CandleInterval interval, int symbolId, Long from, Long to);
+
+    default List<Candle> find1sCandles(int symbolId, Long from, Long to) {
+        return find1sCandleBatch(symbolId, from, to).toList();
+    }
+
+    default List<Candle> findCandles(CandleInterval interval, int symbolId, Long from, Long to) {
+        return findCandleBatch(interval, symbolId, from, to).toList();
+    }
+
+    /**
+     * End (exclusive, epoch seconds) of the range of {@code interval} candles that storage has materialized, so
+     * {@link #findCandleBatch} returns complete candles before it. Null when it is not known.
+     */
+    default Long findMaterializedUntil(CandleInterval interval) {
+        return null;
+    }
 
     void batchUpsert(List<CandleEntity> candles);
+
+    /**
+     * Overwrites stored 1s candles with the given complete state instead of merging into them
+     */
+    void batchReplace(List<CandleEntity> candles);
 }
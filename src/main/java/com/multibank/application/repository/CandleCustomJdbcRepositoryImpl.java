@@ -1,72 +1,215 @@
 package com.multibank.application.repository;
 
+import com.multibank.application.archive.CandleArchive;
 import com.multibank.application.entity.CandleEntity;
-import com.multibank.application.model.Candle;
+import com.multibank.application.jfr.StorageReadEvent;
+import com.multibank.application.model.CandleBatch;
 import com.multibank.application.model.CandleInterval;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 @RequiredArgsConstructor
 @Slf4j
+@Profile("!embedded")
 public class CandleCustomJdbcRepositoryImpl implements CandleCustomJdbcRepository {
 
+    // Epoch millis computed by the database, so no Timestamp is created per row
+    private static final String COLUMNS =
+            "(EXTRACT(EPOCH FROM time) * 1000)::BIGINT AS time_ms, open, high, low, close, volume ";
+
+    // Reads the rows straight into the columns, as primitives
+    private static final ResultSetExtractor<CandleBatch> TO_BATCH = rs -> {
+        CandleBatch candles = new CandleBatch();
+        while (rs.next()) {
+            candles.add(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5),
+                    rs.getLong(6));
+        }
+        return candles;
+    };
 
     private final JdbcTemplate jdbcTemplate;
 
+    private final Optional<CandleArchive> archive;
+
+    /**
+     * Reads the part of the range before the archive boundary from the archive files and the rest from candles_1s
+     */
     @Override
-    public List<Candle> find1sCandles(String symbol, Long from, Long to) {
+    public CandleBatch find1sCandleBatch(int symbolId, Long from, Long to) {
+        long archivedUntil = archive.map(a -> a.archivedUntilMs(symbolId)).orElse(Long.MIN_VALUE);
+        if (from >= archivedUntil) {
+            return find1sCandleBatchInDatabase(symbolId, from, to);
+        }
+
+        QueryDeadline deadline = QueryDeadline.current();
+        if (deadline != null) {
+            deadline.check();
+        }
+        StorageReadEvent event = new StorageReadEvent();
+        event.begin();
+        CandleBatch candles = new CandleBatch();
+        archive.get().read(symbolId, from, Math.min(to, archivedUntil - 1), candles);
+        commitRead(event, "archive", symbolId, candles.size());
+
+        if (to >= archivedUntil) {
+            candles.addAll(find1sCandleBatchInDatabase(symbolId, archivedUntil, to));
+        }
+        return candles;
+    }
+
+    public CandleBatch find1sCandleBatchInDatabase(int symbolId, long from, long to) {
         String sql =
-                "SELECT time, open, high, low, close, volume " +
+                "SELECT " + COLUMNS +
                         "FROM candles_1s " +
-                        "WHERE symbol = ? " +
+                        "WHERE symbol_id = ? " +
                         "AND time >= to_timestamp(? / 1000) " +
                         "AND time <= to_timestamp(? / 1000) " +
                         "ORDER BY time ASC";
 
-        return jdbcTemplate.query(sql,
-                (rs, rowNum) -> new Candle(
-                        rs.getTimestamp("time").toInstant().toEpochMilli(),
-                        rs.getBigDecimal("open").doubleValue(),
-                        rs.getBigDecimal("high").doubleValue(),
-                        rs.getBigDecimal("low").doubleValue(),
-                        rs.getBigDecimal("close").doubleValue(),
-                        rs.getBigDecimal("volume").intValue()
-                ),
-                symbol, from, to
-        );
+        StorageReadEvent event = new StorageReadEvent();
+        event.begin();
+        CandleBatch candles = query(sql, TO_BATCH, symbolId, from, to);
+
+        commitRead(event, "candles_1s", symbolId, candles.size());
+        return candles;
     }
 
 
     @Override
-    public List<Candle> findCandles(CandleInterval interval, String symbol, Long from, Long to) {
+    public CandleBatch findCandleBatch(CandleInterval interval, int symbolId, Long from, Long to) {
         String sql = String.format(
-                "SELECT time, open, high, low, close, volume " +
+                "SELECT " + COLUMNS +
                         "FROM candles_%s " +
-                        "WHERE symbol = ? " +
+                        "WHERE symbol_id = ? " +
                         "AND time >= to_timestamp(?) " +
                         "AND time <= to_timestamp(?) " +
                         "ORDER BY time ASC",
                 interval.getLabel()
         );
 
-        return jdbcTemplate.query(sql,
-                (rs, rowNum) -> new Candle(
-                        rs.getTimestamp("time").toInstant().toEpochMilli(),
-                        rs.getBigDecimal("open").doubleValue(),
-                        rs.getBigDecimal("high").doubleValue(),
-                        rs.getBigDecimal("low").doubleValue(),
-                        rs.getBigDecimal("close").doubleValue(),
-                        rs.getBigDecimal("volume").intValue()
-                ),
-                symbol, from, to
-        );
+        StorageReadEvent event = new StorageReadEvent();
+        event.begin();
+        CandleBatch candles = query(sql, TO_BATCH, symbolId, from, to);
+
+        commitRead(event, "candles_" + interval.getLabel(), symbolId, candles.size());
+        return candles;
+    }
+
+    /**
+     * Runs a read under the deadline of the current request, if there is one: its remaining time is the statement's
+     * query timeout and cancelling the request cancels the statement
+     */
+    private <T> T query(String sql, ResultSetExtractor<T> extractor, Object... args) {
+        QueryDeadline deadline = QueryDeadline.current();
+        if (deadline == null) {
+            return jdbcTemplate.query(sql, extractor, args);
+        }
+
+        PreparedStatement[] statement = new PreparedStatement[1];
+        try {
+            return jdbcTemplate.query(connection -> {
+                statement[0] = connection.prepareStatement(sql);
+                new ArgumentPreparedStatementSetter(args).setValues(statement[0]);
+                deadline.apply(statement[0]);
+                return statement[0];
+            }, extractor);
+        } catch (RuntimeException e) {
+            throw deadline.translate(e);
+        } finally {
+            deadline.release(statement[0]);
+        }
+    }
+
+    /**
+     * The watermark TimescaleDB keeps for the continuous aggregate of {@code interval}: buckets before it are
+     * materialized in candles_<interval>, later ones exist only as 1s rows until the next refresh
+     */
+    @Override
+    public Long findMaterializedUntil(CandleInterval interval) {
+        // The watermark is -infinity as long as nothing has been materialized
+        String sql =
+                "SELECT CASE WHEN isfinite(w) THEN EXTRACT(EPOCH FROM w)::BIGINT END " +
+                        "FROM (SELECT _timescaledb_functions.to_timestamp(" +
+                        "_timescaledb_functions.cagg_watermark(mat_hypertable_id)) AS w " +
+                        "FROM _timescaledb_catalog.continuous_agg " +
+                        "WHERE user_view_name = ?) watermark";
+        ResultSetExtractor<Long> watermark = rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            long seconds = rs.getLong(1);
+            return rs.wasNull() ? Long.MIN_VALUE : seconds;
+        };
+        try {
+            return jdbcTemplate.query(sql, watermark, "candles_" + interval.getLabel());
+        } catch (DataAccessException e) {
+            log.debug("Cannot read the watermark of candles_{}", interval.getLabel(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Start time in millis of the oldest 1s candle of the symbol in candles_1s, null when there is none
+     */
+    public Long findOldest1sCandleTime(int symbolId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT (EXTRACT(EPOCH FROM MIN(time)) * 1000)::BIGINT FROM candles_1s WHERE symbol_id = ?",
+                Long.class, symbolId);
+    }
+
+    /**
+     * 1s candles of the symbol starting in [from, to) in candles_1s, the same rows {@link #delete1sCandles} removes.
+     * The bounds are divided as numeric, so a bound inside a second is not truncated to the second before it.
+     */
+    public CandleBatch find1sCandleBatchToArchive(int symbolId, long from, long to) {
+        String sql =
+                "SELECT " + COLUMNS +
+                        "FROM candles_1s " +
+                        "WHERE symbol_id = ? " +
+                        "AND time >= to_timestamp(? / 1000.0) " +
+                        "AND time < to_timestamp(? / 1000.0) " +
+                        "ORDER BY time ASC";
+
+        StorageReadEvent event = new StorageReadEvent();
+        event.begin();
+        CandleBatch candles = query(sql, TO_BATCH, symbolId, from, to);
+
+        commitRead(event, "candles_1s", symbolId, candles.size());
+        return candles;
+    }
+
+    /**
+     * Deletes the 1s candles of the symbol starting in [from, to) from candles_1s
+     */
+    @Transactional
+    public int delete1sCandles(int symbolId, long from, long to) {
+        return jdbcTemplate.update(
+                "DELETE FROM candles_1s " +
+                        "WHERE symbol_id = ? " +
+                        "AND time >= to_timestamp(? / 1000.0) " +
+                        "AND time < to_timestamp(? / 1000.0)",
+                symbolId, from, to);
+    }
+
+    private static void commitRead(StorageReadEvent event, String table, int symbolId, int rows) {
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.symbolId = symbolId;
+            event.rows = rows;
+            event.commit();
+        }
     }
 
     /**
@@ -81,9 +224,9 @@ public class CandleCustomJdbcRepositoryImpl implements CandleCustomJdbcRepositor
         }
 
         String sql =
-                "INSERT INTO candles_1s (time, symbol, open, high, low, close, volume) " +
+                "INSERT INTO candles_1s (time, symbol_id, open, high, low, close, volume) " +
                         "VALUES (to_timestamp(? / 1000.0), ?, ?, ?, ?, ?, ?) " +
-                        "ON CONFLICT (time, symbol) DO UPDATE SET " +
+                        "ON CONFLICT (time, symbol_id) DO UPDATE SET " +
                         "high = GREATEST(candles_1s.high, EXCLUDED.high), " +
                         "low = LEAST(candles_1s.low, EXCLUDED.low), " +
                         "close = EXCLUDED.close, " +
@@ -92,7 +235,39 @@ public class CandleCustomJdbcRepositoryImpl implements CandleCustomJdbcRepositor
         jdbcTemplate.batchUpdate(sql, candles, candles.size(),
                 (PreparedStatement ps, CandleEntity candle) -> {
                     ps.setLong(1, candle.getId().getTime());
-                    ps.setString(2, candle.getId().getSymbol());
+                    ps.setInt(2, candle.getId().getSymbolId());
+                    ps.setDouble(3, candle.getOpen());
+                    ps.setDouble(4, candle.getHigh());
+                    ps.setDouble(5, candle.getLow());
+                    ps.setDouble(6, candle.getClose());
+                    ps.setLong(7, candle.getVolume());
+                });
+    }
+
+    /**
+     * Batch write of complete candle state, used for late-tick corrections of already flushed candles.
+     */
+    @Override
+    @Transactional
+    public void batchReplace(List<CandleEntity> candles) {
+        if (candles.isEmpty()) {
+            return;
+        }
+
+        String sql =
+                "INSERT INTO candles_1s (time, symbol_id, open, high, low, close, volume) " +
+                        "VALUES (to_timestamp(? / 1000.0), ?, ?, ?, ?, ?, ?) " +
+                        "ON CONFLICT (time, symbol_id) DO UPDATE SET " +
+                        "open = EXCLUDED.open, " +
+                        "high = EXCLUDED.high, " +
+                        "low = EXCLUDED.low, " +
+                        "close = EXCLUDED.close, " +
+                        "volume = EXCLUDED.volume";
+
+        jdbcTemplate.batchUpdate(sql, candles, candles.size(),
+                (PreparedStatement ps, CandleEntity candle) -> {
+                    ps.setLong(1, candle.getId().getTime());
+                    ps.setInt(2, candle.getId().getSymbolId());
                     ps.setDouble(3, candle.getOpen());
                     ps.setDouble(4, candle.getHigh());
                     ps.setDouble(5, candle.getLow());
@@ -0,0 +1,126 @@
+package com.multibank.application.repository;
+
+import org.springframework.dao.QueryTimeoutException;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deadline and cancellation of the queries run for one request. While {@link #call(Supplier)} runs, storage reads
+ * on that thread check it before they start, run their statement with the remaining time as query timeout and can
+ * be cancelled mid-query by {@link #cancel()} from any thread, e.g. when the client disconnects.
+ * <p>
+ * Failures caused by either surface as {@link QueryTimeoutException} when the deadline passed and
+ * {@link CancellationException} when the request was cancelled.
+ */
+public final class QueryDeadline {
+
+    private static final ThreadLocal<QueryDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    // The statement being executed under this deadline, queries of one request run one after the other
+    private volatile Statement running;
+
+    private QueryDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static QueryDeadline after(long timeoutMs) {
+        return new QueryDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /**
+     * The deadline of the work running on this thread, null outside of {@link #call(Supplier)}
+     */
+    public static QueryDeadline current() {
+        return CURRENT.get();
+    }
+
+    public <T> T call(Supplier<T> work) {
+        QueryDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } catch (RuntimeException e) {
+            throw translate(e);
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Statement statement = running;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Already finished or closed, nothing left to stop
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Throws if the work should stop: cancelled or past the deadline
+     */
+    public void check() {
+        if (cancelled) {
+            throw new CancellationException("Query cancelled");
+        }
+        if (remainingNanos() <= 0) {
+            throw new QueryTimeoutException("Query deadline passed");
+        }
+    }
+
+    /**
+     * Puts {@code statement} under this deadline: the remaining time, rounded up to whole seconds, becomes its
+     * query timeout and {@link #cancel()} cancels it until {@link #release(Statement)}
+     */
+    public void apply(Statement statement) throws SQLException {
+        check();
+        statement.setQueryTimeout((int) Math.max(1, Math.ceilDiv(remainingNanos(), TimeUnit.SECONDS.toNanos(1))));
+        running = statement;
+        // A cancel between check() and now would have missed the statement
+        if (cancelled) {
+            statement.cancel();
+        }
+    }
+
+    public void release(Statement statement) {
+        if (running == statement) {
+            running = null;
+        }
+    }
+
+    /**
+     * The failure of a query under this deadline as seen by the caller: whatever the driver reported for a
+     * cancelled or timed out statement becomes the matching exception
+     */
+    public RuntimeException translate(RuntimeException e) {
+        if (e instanceof CancellationException || e instanceof QueryTimeoutException) {
+            return e;
+        }
+        if (cancelled) {
+            CancellationException cancellation = new CancellationException("Query cancelled");
+            cancellation.initCause(e);
+            return cancellation;
+        }
+        if (remainingNanos() <= 0) {
+            return new QueryTimeoutException("Query deadline passed", e);
+        }
+        return e;
+    }
+}
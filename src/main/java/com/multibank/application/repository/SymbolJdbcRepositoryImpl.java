@@ -0,0 +1,39 @@
+package com.multibank.application.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+@Profile("!embedded")
+public class SymbolJdbcRepositoryImpl implements SymbolRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, Integer> findAll() {
+        Map<String, Integer> symbols = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM symbols", rs -> {
+            symbols.put(rs.getString("name"), rs.getInt("id"));
+        });
+        return symbols;
+    }
+
+    @Override
+    public int insert(String symbol) {
+        // The id comes from the database, so every node of a cluster agrees on it. Looked up first, since
+        // a conflicting insert still uses up an identity value
+        List<Integer> existing = jdbcTemplate.queryForList("SELECT id FROM symbols WHERE name = ?", Integer.class, symbol);
+        if (!existing.isEmpty()) {
+            return existing.getFirst();
+        }
+        jdbcTemplate.update("INSERT INTO symbols (name) VALUES (?) ON CONFLICT (name) DO NOTHING", symbol);
+        return jdbcTemplate.queryForObject("SELECT id FROM symbols WHERE name = ?", Integer.class, symbol);
+    }
+}
@@ -0,0 +1,20 @@
+package com.multibank.application.repository;
+
+import java.util.Map;
+
+/**
+ * Persistent symbol dictionary backing the SymbolRegistry
+ */
+public interface SymbolRepository {
+
+    /**
+     * All registered symbols by name
+     */
+    Map<String, Integer> findAll();
+
+    /**
+     * Registers the symbol if it is new and returns its id. Safe to call concurrently for the same name,
+     * also from other nodes sharing the storage.
+     */
+    int insert(String symbol);
+}
@@ -0,0 +1,204 @@
+package com.multibank.application.repository.columnar;
+
+import com.multibank.application.model.CandleBatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * One symbol, one day, one interval: a memory-mapped file of fixed-width columns with one slot per bucket.
+ * The slot of a bucket is its offset from the start of the day divided by the interval, so the time column
+ * is implicit and a lookup is a direct index. A bitmap with one bit per slot acts as a sparse time index:
+ * scans skip 64 empty slots per zero word.
+ * <p>
+ * Layout: occupancy bitmap, then open, high, low, close, volume, first tick time and last tick time columns.
+ * The two time columns make merges order-independent, as with the open/close timestamps of the 1s builders.
+ */
+final class ColumnarCandleFile {
+
+    private static final int OPEN = 0;
+    private static final int HIGH = 1;
+    private static final int LOW = 2;
+    private static final int CLOSE = 3;
+    private static final int VOLUME = 4;
+    private static final int FIRST_TIME = 5;
+    private static final int LAST_TIME = 6;
+    private static final int COLUMNS = 7;
+
+    private final int slots;
+    private final long dayStartMs;
+    private final long slotMs;
+    private final int bitmapWords;
+    private final MappedByteBuffer buffer;
+    private final ReadWriteLock lock;
+
+    private ColumnarCandleFile(MappedByteBuffer buffer, ReadWriteLock lock, long dayStartMs, long intervalSeconds) {
+        this.buffer = buffer;
+        this.lock = lock;
+        this.dayStartMs = dayStartMs;
+        this.slotMs = intervalSeconds * 1000;
+        this.slots = (int) (86_400 / intervalSeconds);
+        this.bitmapWords = (slots + 63) / 64;
+    }
+
+    /**
+     * Maps the file at {@code path}. Every mapping of the same path must be given the same {@code lock}: the
+     * mappings share their pages, so merges through a mapping that was dropped while still in use and through a
+     * newer one of the same file have to exclude each other.
+     */
+    static ColumnarCandleFile open(Path path, ReadWriteLock lock, long dayStartMs, long intervalSeconds) {
+        int slots = (int) (86_400 / intervalSeconds);
+        long size = (long) ((slots + 63) / 64) * Long.BYTES + (long) COLUMNS * slots * Long.BYTES;
+
+        try {
+            Files.createDirectories(path.getParent());
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Mapping past the end grows the file sparsely; untouched slots take no disk space
+                return new ColumnarCandleFile(channel.map(FileChannel.MapMode.READ_WRITE, 0, size), lock,
+                        dayStartMs, intervalSeconds);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open columnar candle file " + path, e);
+        }
+    }
+
+    /**
+     * Merges a candle that started at {@code timeMs} into its bucket with the same rules as the SQL upsert:
+     * high/low widen, volume adds up, open comes from the earliest and close from the latest candle
+     */
+    void merge(long timeMs, double open, double high, double low, double close, long volume) {
+        int slot = (int) ((timeMs - dayStartMs) / slotMs);
+
+        lock.writeLock().lock();
+        try {
+            if (!isOccupied(slot)) {
+                put(OPEN, slot, open);
+                put(HIGH, slot, high);
+                put(LOW, slot, low);
+                put(CLOSE, slot, close);
+                putLong(VOLUME, slot, volume);
+                putLong(FIRST_TIME, slot, timeMs);
+                putLong(LAST_TIME, slot, timeMs);
+                markOccupied(slot);
+                return;
+            }
+
+            put(HIGH, slot, Math.max(get(HIGH, slot), high));
+            put(LOW, slot, Math.min(get(LOW, slot), low));
+            putLong(VOLUME, slot, getLong(VOLUME, slot) + volume);
+
+            if (timeMs < getLong(FIRST_TIME, slot)) {
+                putLong(FIRST_TIME, slot, timeMs);
+                put(OPEN, slot, open);
+            }
+            if (timeMs >= getLong(LAST_TIME, slot)) {
+                putLong(LAST_TIME, slot, timeMs);
+                put(CLOSE, slot, close);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Overwrites the bucket containing {@code timeMs}; first/last are the start times of the first and last
+     * 1s candle the values come from
+     */
+    void replace(long timeMs, double open, double high, double low, double close, long volume,
+                 long firstTimeMs, long lastTimeMs) {
+        int slot = (int) ((timeMs - dayStartMs) / slotMs);
+
+        lock.writeLock().lock();
+        try {
+            put(OPEN, slot, open);
+            put(HIGH, slot, high);
+            put(LOW, slot, low);
+            put(CLOSE, slot, close);
+            putLong(VOLUME, slot, volume);
+            putLong(FIRST_TIME, slot, firstTimeMs);
+            putLong(LAST_TIME, slot, lastTimeMs);
+            markOccupied(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the candles of all occupied buckets starting in [fromMs, toMs], in time order
+     */
+    void scan(long fromMs, long toMs, CandleBatch out) {
+        int firstSlot = (int) Math.max(0, Math.ceilDiv(fromMs - dayStartMs, slotMs));
+        int lastSlot = (int) Math.min(slots - 1, Math.floorDiv(toMs - dayStartMs, slotMs));
+        if (firstSlot > lastSlot) {
+            return;
+        }
+
+        lock.readLock().lock();
+        try {
+            int slot = firstSlot;
+            while (slot <= lastSlot) {
+                long word = buffer.getLong((slot >>> 6) * Long.BYTES) >>> (slot & 63);
+                if (word == 0) {
+                    slot = (slot | 63) + 1;
+                    continue;
+                }
+                slot += Long.numberOfTrailingZeros(word);
+                if (slot > lastSlot) {
+                    break;
+                }
+
+                out.add(
+                        dayStartMs + slot * slotMs,
+                        get(OPEN, slot),
+                        get(HIGH, slot),
+                        get(LOW, slot),
+                        get(CLOSE, slot),
+                        getLong(VOLUME, slot)
+                );
+                slot++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    private boolean isOccupied(int slot) {
+        return (buffer.getLong((slot >>> 6) * Long.BYTES) & (1L << (slot & 63))) != 0;
+    }
+
+    private void markOccupied(int slot) {
+        int index = (slot >>> 6) * Long.BYTES;
+        buffer.putLong(index, buffer.getLong(index) | (1L << (slot & 63)));
+    }
+
+    private int offset(int column, int slot) {
+        return (bitmapWords + column * slots + slot) * Long.BYTES;
+    }
+
+    private double get(int column, int slot) {
+        return buffer.getDouble(offset(column, slot));
+    }
+
+    private void put(int column, int slot, double value) {
+        buffer.putDouble(offset(column, slot), value);
+    }
+
+    private long getLong(int column, int slot) {
+        return buffer.getLong(offset(column, slot));
+    }
+
+    private void putLong(int column, int slot, long value) {
+        buffer.putLong(offset(column, slot), value);
+    }
+}
@@ -0,0 +1,169 @@
+package com.multibank.application.repository.columnar;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.CandleBatch;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.repository.CandleCustomJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded storage for deployments without a database server, selected with the "embedded" profile.
+ * Candles live in per-symbol, per-day memory-mapped columnar files, one per interval, under a directory named
+ * after the symbol id. Every 1s upsert is also merged into the 5s/1m/15m/1h files, so coarser tiers are always
+ * up to date and never need aggregating.
+ * <p>
+ * Time units mirror the JDBC implementation: 1s queries and upserted entities use epoch millis,
+ * aggregated queries use epoch seconds, and returned candle times are epoch millis.
+ */
+@Slf4j
+@Repository
+@Profile("embedded")
+public class ColumnarFileCandleRepository implements CandleCustomJdbcRepository {
+
+    private static final long DAY_MS = 86_400_000L;
+
+    // Locks by path hash that outlive the mappings: a file dropped from openFiles can still be in use by a merge
+    // while the same path is mapped again, and both mappings must take the same lock
+    private static final int LOCK_STRIPES = 256;
+
+    private final Path directory;
+    private final Map<Path, ColumnarCandleFile> openFiles;
+    private final ReadWriteLock[] locks = new ReadWriteLock[LOCK_STRIPES];
+
+    public ColumnarFileCandleRepository(ColumnarStorageProperties properties) {
+        this.directory = Path.of(properties.getDirectory());
+        this.openFiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, ColumnarCandleFile> eldest) {
+                if (size() > properties.getMaxOpenFiles()) {
+                    eldest.getValue().force();
+                    return true;
+                }
+                return false;
+            }
+        };
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        log.info("Using columnar candle storage in {}", directory.toAbsolutePath());
+    }
+
+    @Override
+    public CandleBatch find1sCandleBatch(int symbolId, Long from, Long to) {
+        return scan(CandleInterval.ONE_SECOND, symbolId, from, to);
+    }
+
+    @Override
+    public CandleBatch findCandleBatch(CandleInterval interval, int symbolId, Long from, Long to) {
+        return scan(interval, symbolId, from * 1000, to * 1000);
+    }
+
+    /**
+     * Every upsert is merged into all intervals right away, nothing is ever behind
+     */
+    @Override
+    public Long findMaterializedUntil(CandleInterval interval) {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void batchUpsert(List<CandleEntity> candles) {
+        for (CandleEntity candle : candles) {
+            long timeMs = candle.getId().getTime();
+            long day = Math.floorDiv(timeMs, DAY_MS);
+
+            for (CandleInterval interval : CandleInterval.values()) {
+                file(interval, candle.getId().getSymbolId(), day, true).merge(timeMs,
+                        candle.getOpen(), candle.getHigh(), candle.getLow(), candle.getClose(), candle.getVolume());
+            }
+        }
+    }
+
+    /**
+     * Overwrites the 1s candles and rebuilds the coarser buckets containing them from the 1s file, since the
+     * merged values cannot be taken apart again. Runs on the flush thread, like batchUpsert.
+     */
+    @Override
+    public void batchReplace(List<CandleEntity> candles) {
+        for (CandleEntity candle : candles) {
+            long timeMs = candle.getId().getTime();
+            int symbolId = candle.getId().getSymbolId();
+            long day = Math.floorDiv(timeMs, DAY_MS);
+
+            ColumnarCandleFile seconds = file(CandleInterval.ONE_SECOND, symbolId, day, true);
+            seconds.replace(timeMs, candle.getOpen(), candle.getHigh(), candle.getLow(), candle.getClose(),
+                    candle.getVolume(), timeMs, timeMs);
+
+            for (CandleInterval interval : CandleInterval.values()) {
+                if (interval == CandleInterval.ONE_SECOND) {
+                    continue;
+                }
+                long bucketMs = interval.getSeconds() * 1000;
+                long bucketStartMs = Math.floorDiv(timeMs, bucketMs) * bucketMs;
+
+                CandleBatch parts = new CandleBatch();
+                seconds.scan(bucketStartMs, bucketStartMs + bucketMs - 1, parts);
+
+                double high = Double.NEGATIVE_INFINITY;
+                double low = Double.POSITIVE_INFINITY;
+                long volume = 0;
+                for (int i = 0; i < parts.size(); i++) {
+                    high = Math.max(high, parts.high(i));
+                    low = Math.min(low, parts.low(i));
+                    volume += parts.volume(i);
+                }
+                int last = parts.size() - 1;
+
+                file(interval, symbolId, day, true).replace(timeMs, parts.open(0), high, low, parts.close(last), volume,
+                        parts.time(0), parts.time(last));
+            }
+        }
+    }
+
+    private CandleBatch scan(CandleInterval interval, int symbolId, long fromMs, long toMs) {
+        CandleBatch candles = new CandleBatch();
+
+        for (long day = Math.floorDiv(fromMs, DAY_MS); day <= Math.floorDiv(toMs, DAY_MS); day++) {
+            ColumnarCandleFile file = file(interval, symbolId, day, false);
+            if (file != null) {
+                file.scan(fromMs, toMs, candles);
+            }
+        }
+        return candles;
+    }
+
+    private ColumnarCandleFile file(CandleInterval interval, int symbolId, long day, boolean create) {
+        Path path = directory.resolve(Integer.toString(symbolId)).resolve(LocalDate.ofEpochDay(day).toString())
+                .resolve(interval.getLabel() + ".col");
+
+        synchronized (openFiles) {
+            ColumnarCandleFile file = openFiles.get(path);
+            if (file == null && (create || Files.exists(path))) {
+                ReadWriteLock lock = locks[Math.floorMod(path.hashCode(), LOCK_STRIPES)];
+                file = ColumnarCandleFile.open(path, lock, day * DAY_MS, interval.getSeconds());
+                openFiles.put(path, file);
+            }
+            return file;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (openFiles) {
+            openFiles.values().forEach(ColumnarCandleFile::force);
+            openFiles.clear();
+        }
+    }
+}
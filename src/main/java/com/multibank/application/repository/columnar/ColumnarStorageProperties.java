@@ -0,0 +1,16 @@
+package com.multibank.application.repository.columnar;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "columnar")
+public class ColumnarStorageProperties {
+
+    private String directory = "data/candles";
+
+    // Mapped files kept open; older ones are dropped least recently used first
+    private int maxOpenFiles = 1024;
+}
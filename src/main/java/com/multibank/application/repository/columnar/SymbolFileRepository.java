@@ -0,0 +1,97 @@
+package com.multibank.application.repository.columnar;
+
+import com.multibank.application.repository.SymbolRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Symbol dictionary of the embedded storage: symbols.txt next to the candle files, one name per line,
+ * the id being the line number. Lines are only ever appended, so ids never change.
+ * <p>
+ * Storage written before symbol ids keeps each symbol's files in a directory named after the symbol. Such
+ * directories are registered and renamed to their id on startup, so existing candles stay readable.
+ */
+@Slf4j
+@Repository
+@Profile("embedded")
+public class SymbolFileRepository implements SymbolRepository {
+
+    // Directory names of storage written before symbol ids
+    private static final Pattern SYMBOL_DIRECTORY = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final Pattern ID_DIRECTORY = Pattern.compile("[0-9]+");
+
+    private final Path file;
+    private final Map<String, Integer> symbols = new HashMap<>();
+
+    public SymbolFileRepository(ColumnarStorageProperties properties) {
+        this.file = Path.of(properties.getDirectory()).resolve("symbols.txt");
+        try {
+            if (Files.exists(file)) {
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                for (int i = 0; i < lines.size(); i++) {
+                    symbols.put(lines.get(i), i + 1);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read symbol dictionary " + file, e);
+        }
+        renameSymbolDirectories(file.getParent());
+    }
+
+    private void renameSymbolDirectories(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            List<Path> named = entries.filter(Files::isDirectory)
+                    .filter(path -> SYMBOL_DIRECTORY.matcher(path.getFileName().toString()).matches())
+                    .filter(path -> !ID_DIRECTORY.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+            for (Path path : named) {
+                int id = insert(path.getFileName().toString());
+                Files.move(path, directory.resolve(Integer.toString(id)));
+                log.info("Moved candles of {} to symbol id {}", path.getFileName(), id);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot move symbol directories in " + directory + " to symbol ids", e);
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Integer> findAll() {
+        return Map.copyOf(symbols);
+    }
+
+    @Override
+    public synchronized int insert(String symbol) {
+        Integer existing = symbols.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = symbols.size() + 1;
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, symbol + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot register symbol " + symbol, e);
+        }
+        symbols.put(symbol, id);
+        return id;
+    }
+}
@@ -0,0 +1,45 @@
+package com.multibank.application.service;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.Candle;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Observes the aggregation pipeline. Callbacks run on the aggregation threads and must be cheap.
+ */
+public interface AggregationListener {
+
+    /**
+     * Called for every tick after it has been added to its open candle
+     */
+    default void onTick(BidAskEvent event) {
+    }
+
+    /**
+     * Called when a 1s candle receives its first tick. The supplier returns the current state of the candle
+     * while it keeps aggregating ticks and can be called from any thread.
+     */
+    default void onCandleOpened(String symbol, long startTime, Supplier<Candle> formingCandle) {
+    }
+
+    /**
+     * Called when a 1s candle stops accepting regular ticks and is queued for flushing
+     */
+    default void onCandleClosed(String symbol, Candle candle) {
+    }
+
+    /**
+     * Called after closed 1s candles have been written to storage and became visible to queries
+     */
+    default void onCandlesFlushed(List<CandleEntity> candles) {
+    }
+
+    /**
+     * Called after already flushed 1s candles have been overwritten because late ticks changed them
+     */
+    default void onCandlesCorrected(List<CandleEntity> candles) {
+    }
+}
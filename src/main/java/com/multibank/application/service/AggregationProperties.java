@@ -0,0 +1,52 @@
+package com.multibank.application.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Startup values of the aggregation parameters; all of them can be changed at runtime afterwards,
+ * see {@link AggregationTuning}
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "aggregation")
+public class AggregationProperties {
+
+    // Threads aggregating submitted ticks
+    private int eventThreads = 8;
+
+    // Ticks waiting for an event thread. When it is full the submitting thread aggregates the tick itself, so
+    // a producer that outpaces the service is slowed down instead of filling the heap. Fixed at startup
+    private int eventQueueCapacity = 65_536;
+
+    // Threads running the close and flush tasks
+    private int schedulerThreads = 2;
+
+    // Minimum time a 1s candle stays open for ticks of its second
+    private int candleCloseDelayMs = 100;
+
+    private int closeCheckIntervalMs = 50;
+
+    // Upper bound on how long a closed candle waits for its flush
+    private int maxFlushDelayMs = 150;
+
+    private int flushCheckIntervalMs = 10;
+
+    // Larger intervals reaching into this many recent seconds are aggregated from 1s candles
+    private int realtimeWindowSeconds = 120;
+
+    private long maxTickLatenessMs = 5000;
+
+    // How long a continuous aggregate's materialization watermark is reused before it is read again
+    private long watermarkRefreshMs = 5000;
+
+    // Exposes GET/PUT /admin/aggregation for changing the values above at runtime. The endpoint has no
+    // authentication of its own, so only enable it where the port is not reachable by clients
+    private boolean tuningEndpointEnabled = false;
+
+    public AggregationTuning toTuning() {
+        return new AggregationTuning(eventThreads, schedulerThreads, candleCloseDelayMs, closeCheckIntervalMs,
+                maxFlushDelayMs, flushCheckIntervalMs, realtimeWindowSeconds, maxTickLatenessMs);
+    }
+}
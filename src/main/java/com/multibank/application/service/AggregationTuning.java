@@ -0,0 +1,40 @@
+package com.multibank.application.service;
+
+/**
+ * The aggregation parameters in effect, replaced as a whole when they are changed at runtime. Values are bounded
+ * so that a mistyped change cannot start thousands of threads or make the close/flush tasks spin.
+ */
+public record AggregationTuning(
+        int eventThreads,
+        int schedulerThreads,
+        int candleCloseDelayMs,
+        int closeCheckIntervalMs,
+        int maxFlushDelayMs,
+        int flushCheckIntervalMs,
+        int realtimeWindowSeconds,
+        long maxTickLatenessMs) {
+
+    public static final int MAX_EVENT_THREADS = 256;
+    public static final int MAX_SCHEDULER_THREADS = 32;
+    public static final int MIN_CHECK_INTERVAL_MS = 5;
+    public static final int MAX_DELAY_MS = 60_000;
+    public static final int MAX_REALTIME_WINDOW_SECONDS = 86_400;
+    public static final long MAX_TICK_LATENESS_MS = 3_600_000;
+
+    public AggregationTuning {
+        requireBetween("eventThreads", eventThreads, 1, MAX_EVENT_THREADS);
+        requireBetween("schedulerThreads", schedulerThreads, 1, MAX_SCHEDULER_THREADS);
+        requireBetween("closeCheckIntervalMs", closeCheckIntervalMs, MIN_CHECK_INTERVAL_MS, MAX_DELAY_MS);
+        requireBetween("flushCheckIntervalMs", flushCheckIntervalMs, MIN_CHECK_INTERVAL_MS, MAX_DELAY_MS);
+        requireBetween("candleCloseDelayMs", candleCloseDelayMs, 0, MAX_DELAY_MS);
+        requireBetween("maxFlushDelayMs", maxFlushDelayMs, 0, MAX_DELAY_MS);
+        requireBetween("realtimeWindowSeconds", realtimeWindowSeconds, 0, MAX_REALTIME_WINDOW_SECONDS);
+        requireBetween("maxTickLatenessMs", maxTickLatenessMs, 0, MAX_TICK_LATENESS_MS);
+    }
+
+    private static void requireBetween(String name, long value, long min, long max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ": " + value);
+        }
+    }
+}
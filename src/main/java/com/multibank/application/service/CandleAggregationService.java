@@ -2,14 +2,56 @@ package com.multibank.application.service;
 
 import com.multibank.application.model.BidAskEvent;
 import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
 import com.multibank.application.model.CandleInterval;
+import com.multibank.application.model.OpenCandleState;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface CandleAggregationService {
     void processEvent(BidAskEvent event);
 
-    List<Candle> getHistoricalCandles(String symbol, CandleInterval interval, long from, long to);
+    /**
+     * Aggregates the event on the calling thread, for consumers that track their own progress (e.g. a log tailer)
+     */
+    void processEventSync(BidAskEvent event);
+
+    CandleBatch getCandleBatch(String symbol, CandleInterval interval, long from, long to);
+
+    /**
+     * Same as {@link #getCandleBatch(String, CandleInterval, long, long)} but never returns more than
+     * {@code maxPoints} candles. A coarser interval is used when the requested one would exceed the limit,
+     * and adjacent candles of the coarsest interval are merged when even that is not enough.
+     */
+    CandleBatch getCandleBatch(String symbol, CandleInterval interval, long from, long to, int maxPoints);
+
+    default List<Candle> getHistoricalCandles(String symbol, CandleInterval interval, long from, long to) {
+        return getCandleBatch(symbol, interval, from, to).toList();
+    }
+
+    default List<Candle> getHistoricalCandles(String symbol, CandleInterval interval, long from, long to, int maxPoints) {
+        return getCandleBatch(symbol, interval, from, to, maxPoints).toList();
+    }
+
+    /**
+     * Removes the open candles of all symbols matching {@code symbolFilter} and returns their state,
+     * e.g. for handing them over to the node that owns those symbols after a rebalance.
+     */
+    List<OpenCandleState> exportOpenCandles(Predicate<String> symbolFilter);
+
+    /**
+     * Merges open candle state received from another node into the local open candle buffer
+     */
+    void importOpenCandles(List<OpenCandleState> states);
+
+    AggregationTuning getTuning();
+
+    /**
+     * Applies new aggregation parameters to the running service: executors are resized and the close and flush
+     * tasks rescheduled in place, buffered candles are kept
+     */
+    void retune(AggregationTuning tuning);
 
     void shutdown();
 }
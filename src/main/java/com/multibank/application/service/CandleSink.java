@@ -0,0 +1,51 @@
+package com.multibank.application.service;
+
+import com.multibank.application.entity.CandleEntity;
+
+import java.util.List;
+
+/**
+ * Destination for closed 1s candles besides storage, e.g. a file archive, a cache or a push stream. Every sink
+ * bean gets its own bounded queue and worker thread, so a slow or failing sink only falls behind itself and
+ * never holds up the flush or the other sinks. Candles are handed over in the order they were flushed, in
+ * batches of up to {@link #batchSize()}.
+ */
+public interface CandleSink {
+
+    /**
+     * Name used in the worker thread name and as the sink tag of the candle.sink.* metrics
+     */
+    String name();
+
+    /**
+     * Called on the sink's worker thread with newly closed candles
+     */
+    void write(List<CandleEntity> candles) throws Exception;
+
+    /**
+     * Called on the sink's worker thread with candles that were written before and changed by late ticks.
+     * They carry their complete state; by default they are passed to {@link #write(List)} like new ones.
+     */
+    default void replace(List<CandleEntity> candles) throws Exception {
+        write(candles);
+    }
+
+    default int batchSize() {
+        return 1000;
+    }
+
+    /**
+     * Candles queued at most before the sink applies backpressure
+     */
+    default int queueCapacity() {
+        return 100_000;
+    }
+
+    /**
+     * What happens to candles arriving while the queue is full: dropped and counted by default, so the sink
+     * cannot delay storage, or waited for, making the flush as slow as this sink
+     */
+    default boolean blockWhenFull() {
+        return false;
+    }
+}
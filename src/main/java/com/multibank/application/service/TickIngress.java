@@ -0,0 +1,10 @@
+package com.multibank.application.service;
+
+import com.multibank.application.model.BidAskEvent;
+
+/**
+ * Entry point for feed handlers. Decouples market-data capture from aggregation.
+ */
+public interface TickIngress {
+    void publish(BidAskEvent event);
+}
@@ -0,0 +1,51 @@
+package com.multibank.application.service.impl;
+
+/**
+ * Decides when closed candles are flushed: as soon as the buffer reaches the target batch size or the oldest
+ * closed candle has waited maxFlushDelayMs, whichever comes first. The target batch size adapts to the observed
+ * upsert latency (AIMD): it grows while size-triggered flushes stay within the latency target, so round trips are
+ * amortised under load, and shrinks quickly when a flush takes too long, so one big transaction cannot hold up
+ * visibility of everything behind it.
+ */
+class AdaptiveFlushPolicy {
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private volatile long maxFlushDelayMs;
+    private final long targetFlushLatencyMs;
+
+    private volatile int targetBatchSize;
+
+    AdaptiveFlushPolicy(int minBatchSize, int maxBatchSize, long maxFlushDelayMs, long targetFlushLatencyMs) {
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxFlushDelayMs = maxFlushDelayMs;
+        this.targetFlushLatencyMs = targetFlushLatencyMs;
+        this.targetBatchSize = minBatchSize;
+    }
+
+    boolean shouldFlush(int bufferedCandles, long oldestClosedAgeMs) {
+        return bufferedCandles >= targetBatchSize
+                || (bufferedCandles > 0 && oldestClosedAgeMs >= maxFlushDelayMs);
+    }
+
+    void onFlushCompleted(int batchSize, long latencyMs) {
+        int target = targetBatchSize;
+
+        if (latencyMs > targetFlushLatencyMs) {
+            // Multiplicative decrease, based on what was actually sent
+            targetBatchSize = Math.max(minBatchSize, (int) (Math.min(target, batchSize) * 0.7));
+        } else if (batchSize >= target) {
+            // Additive increase, only when the batch size was the limiting factor
+            targetBatchSize = Math.min(maxBatchSize, target + Math.max(1, target / 10));
+        }
+    }
+
+    void setMaxFlushDelayMs(long maxFlushDelayMs) {
+        this.maxFlushDelayMs = maxFlushDelayMs;
+    }
+
+    int getTargetBatchSize() {
+        return targetBatchSize;
+    }
+}
@@ -0,0 +1,34 @@
+package com.multibank.application.service.impl;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the periodic close and flush tasks of the aggregation service, with delays in milliseconds of the
+ * service's clock. {@link #threadPool(int)} is the real one; a simulation can run the tasks in virtual time
+ * together with a matching clock instead.
+ */
+public interface AggregationScheduler {
+
+    static AggregationScheduler threadPool(int threads) {
+        return new ThreadPoolAggregationScheduler(threads);
+    }
+
+    Future<?> scheduleAtFixedRate(Runnable task, long initialDelayMs, long periodMs);
+
+    Future<?> scheduleWithFixedDelay(Runnable task, long initialDelayMs, long delayMs);
+
+    void setThreads(int threads);
+
+    int threads();
+
+    int activeThreads();
+
+    int queuedTasks();
+
+    void shutdown();
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+    void shutdownNow();
+}
@@ -1,130 +1,328 @@
 package com.multibank.application.service.impl;
 
 import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.jfr.CandleCloseEvent;
+import com.multibank.application.jfr.ExecutorSaturationEvent;
+import com.multibank.application.jfr.FlushBatchEvent;
+import com.multibank.application.jfr.HistoryQueryEvent;
 import com.multibank.application.model.BidAskEvent;
 import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
 import com.multibank.application.model.CandleInterval;
+import com.multibank.application.model.OpenCandleState;
 import com.multibank.application.repository.CandleCustomJdbcRepository;
+import com.multibank.application.service.AggregationListener;
+import com.multibank.application.service.AggregationProperties;
+import com.multibank.application.service.AggregationTuning;
 import com.multibank.application.service.CandleAggregationService;
+import com.multibank.application.symbol.SymbolRegistry;
 import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
 public class CandleAggregationServiceImpl implements CandleAggregationService {
 
+    // Candle buffers are keyed by symbol id and start time packed into one long, see key()
+    private static final long TIME_MASK = (1L << 48) - 1;
+
     private final CandleCustomJdbcRepository repository;
 
+    private final SymbolRegistry symbols;
+
+    private final List<AggregationListener> listeners;
+
+    private final CandleSinkDispatcher sinks;
+
     // Open candle buffer - keeps candles that are still accumulating ticks
-    private final Map<String, CandleBuilder> openCandleBuffer;
+    private final Map<Long, CandleBuilder> openCandleBuffer;
 
     // Closed candle buffer - ready for batch upsert
-    private final Map<String, CandleBuilder> closedCandleBuffer;
+    private final Map<Long, CandleBuilder> closedCandleBuffer;
+
+    // Closed candles still accepting late ticks, until they fall behind the symbol's watermark by maxTickLatenessMs
+    private final Map<Long, CandleBuilder> recentlyClosed = new ConcurrentHashMap<>();
+
+    // Flushed candles changed by late ticks, written back as one full replacement per candle
+    private final Map<Long, CandleBuilder> correctionBuffer = new ConcurrentHashMap<>();
+
+    // Latest event timestamp seen per symbol id
+    private final AtomicLongArray watermarks = new AtomicLongArray(SymbolRegistry.MAX_ID + 1);
+
+    private final AtomicLong lateTicksMerged = new AtomicLong();
+    private final AtomicLong lateTicksDropped = new AtomicLong();
+
+    // When the oldest candle in closedCandleBuffer was closed, 0 while it is empty
+    private final AtomicLong oldestClosedAtMs = new AtomicLong();
+
+    private final Clock clock;
+    private final AggregationScheduler scheduler;
+    private final ThreadPoolExecutor eventProcessor;
+    private final Runnable executorSampler = this::emitExecutorSaturation;
+
+    // Replaced as a whole by retune(), every reader sees one consistent set of parameters
+    private volatile AggregationTuning tuning;
 
-    private final ScheduledExecutorService scheduler;
-    private final ExecutorService eventProcessor;
+    private final AdaptiveFlushPolicy flushPolicy;
 
-    private int flushIntervalMs = 150;
+    // Rescheduling can briefly overlap a run of the old task with the new one, these keep them apart
+    private final Object closeLock = new Object();
+    private final Object flushLock = new Object();
 
-    private int candleCloseDelayMs = 100;
+    // Last materialization watermark read per interval, see materializedUntil()
+    private final Map<CandleInterval, Watermark> materializationWatermarks = new ConcurrentHashMap<>();
+    private final long watermarkRefreshMs;
 
-    private int realtimeWindowSeconds = 120;
+    private Future<?> closeTask;
+    private Future<?> flushTask;
 
     public CandleAggregationServiceImpl(CandleCustomJdbcRepository repository) {
+        this(repository, SymbolRegistry.inMemory(), new AggregationProperties(), List.of());
+    }
+
+    public CandleAggregationServiceImpl(CandleCustomJdbcRepository repository, SymbolRegistry symbols,
+                                        AggregationProperties properties, List<AggregationListener> listeners) {
+        this(repository, symbols, properties, listeners, CandleSinkDispatcher.none());
+    }
+
+    @Autowired
+    public CandleAggregationServiceImpl(CandleCustomJdbcRepository repository, SymbolRegistry symbols,
+                                        AggregationProperties properties, List<AggregationListener> listeners,
+                                        CandleSinkDispatcher sinks) {
+        this(repository, symbols, properties, listeners, sinks, Clock.systemUTC(),
+                AggregationScheduler.threadPool(properties.getSchedulerThreads()));
+    }
+
+    /**
+     * With the clock and scheduler the service uses for all its timing, e.g. to run it in simulated time
+     */
+    public CandleAggregationServiceImpl(CandleCustomJdbcRepository repository, SymbolRegistry symbols,
+                                        AggregationProperties properties, List<AggregationListener> listeners,
+                                        CandleSinkDispatcher sinks, Clock clock, AggregationScheduler scheduler) {
         this.repository = repository;
+        this.symbols = symbols;
+        this.listeners = List.copyOf(listeners);
+        this.sinks = sinks;
         this.openCandleBuffer = new ConcurrentHashMap<>();
         this.closedCandleBuffer = new ConcurrentHashMap<>();
-        this.scheduler = Executors.newScheduledThreadPool(2);
-        this.eventProcessor = Executors.newFixedThreadPool(8);
-
-        startPeriodicTasks();
+        this.tuning = properties.toTuning();
+        this.watermarkRefreshMs = properties.getWatermarkRefreshMs();
+        this.flushPolicy = new AdaptiveFlushPolicy(50, 20_000, tuning.maxFlushDelayMs(), 50);
+        this.clock = clock;
+        this.scheduler = scheduler;
+        sinks.useClock(clock);
+        this.eventProcessor = new ThreadPoolExecutor(tuning.eventThreads(), tuning.eventThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(properties.getEventQueueCapacity()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        scheduleCloseTask();
+        scheduleFlushTask();
+        FlightRecorder.addPeriodicEvent(ExecutorSaturationEvent.class, executorSampler);
+        if (CandleKernels.isVectorized()) {
+            log.info("Using vector aggregation kernels");
+        } else {
+            log.warn("Using scalar aggregation kernels: start the JVM with --add-modules jdk.incubator.vector "
+                    + "(e.g. in JDK_JAVA_OPTIONS) for the vector ones, unless -Dcandle.kernels=scalar is intended");
+        }
     }
 
     @Override
     public void processEvent(BidAskEvent event) {
-        eventProcessor.submit(() -> {
-            try {
-                double price = event.midPrice();
-                long eventTimestamp = event.timestamp();
-                long alignedTime = CandleInterval.ONE_SECOND.alignTimestamp(eventTimestamp);
-                String key = buildKey(event.symbol(), alignedTime);
-
-                // Add price to open candle buffer with timestamp for order-independence
-                openCandleBuffer.computeIfAbsent(key, k ->
-                        new CandleBuilder(event.symbol(), alignedTime, System.currentTimeMillis())
-                ).addPrice(price, eventTimestamp);
+        eventProcessor.submit(() -> processEventSync(event));
+    }
 
-            } catch (Exception e) {
-                log.error("Error processing event: {}", event, e);
+    @Override
+    public void processEventSync(BidAskEvent event) {
+        try {
+            double price = event.midPrice();
+            long eventTimestamp = event.timestamp();
+            long alignedTime = CandleInterval.ONE_SECOND.alignTimestamp(eventTimestamp);
+            int symbolId = symbols.register(event.symbol());
+            long key = key(symbolId, alignedTime);
+            long watermark = advanceWatermark(symbolId, eventTimestamp);
+
+            TickOutcome outcome;
+            do {
+                CandleBuilder builder = openCandleBuffer.get(key);
+                if (builder == null) {
+                    // Candle already closed: merge into it while it is still in the reconciliation window
+                    builder = recentlyClosed.get(key);
+                    if (builder != null) {
+                        lateTicksMerged.incrementAndGet();
+                    } else if (watermark - eventTimestamp > tuning.maxTickLatenessMs()) {
+                        // Only live ticks are bounded; replays of the tick log are rebuilt by TickLogReplay
+                        lateTicksDropped.incrementAndGet();
+                        log.debug("Dropped tick {}ms behind the watermark: {}", watermark - eventTimestamp, event);
+                        return;
+                    } else {
+                        builder = openCandle(key, symbolId, event.symbol(), alignedTime, clock.millis());
+                    }
+                }
+
+                // Add price with timestamp for order-independence
+                outcome = builder.addPrice(price, eventTimestamp);
+                if (outcome == TickOutcome.LATE) {
+                    // Arrived after the candle was flushed
+                    correctionBuffer.put(key, builder);
+                }
+                // An exported candle left the open buffer, the next lookup finds or opens its successor
+            } while (outcome == TickOutcome.EXPORTED);
+
+            for (AggregationListener listener : listeners) {
+                listener.onTick(event);
             }
-        });
+
+        } catch (Exception e) {
+            log.error("Error processing event: {}", event, e);
+        }
     }
 
     @Override
-    public List<Candle> getHistoricalCandles(String symbol, CandleInterval interval, long from, long to) {
-        long now = System.currentTimeMillis() / 1000;
-        long realtimeThreshold = now - realtimeWindowSeconds;
+    public CandleBatch getCandleBatch(String symbol, CandleInterval interval, long from, long to) {
+        // Symbols that were never ingested have no candles, no need to ask storage
+        int symbolId = symbols.requireId(symbol);
+
+        HistoryQueryEvent event = new HistoryQueryEvent();
+        event.begin();
+
+        CandleBatch candles = routeHistoricalQuery(symbolId, interval, from, to, event);
+
+        if (event.shouldCommit()) {
+            event.symbol = symbol;
+            event.interval = interval.getLabel();
+            event.from = from;
+            event.to = to;
+            event.candles = candles.size();
+            event.commit();
+        }
+        return candles;
+    }
 
+    private CandleBatch routeHistoricalQuery(int symbolId, CandleInterval interval, long from, long to,
+                                             HistoryQueryEvent event) {
         if (interval == CandleInterval.ONE_SECOND) {
             // For 1s candles, always query directly from database
-            return query1sCandles(symbol, from, to);
+            event.path = "1s";
+            return query1sCandles(symbolId, from, to);
         }
 
+        // Split where the view stops being materialized, or earlier where its buckets can still be corrected.
+        // Without a watermark fall back to a fixed window, where the bucket at the threshold is read from both
+        // sides and taken from the realtime one
+        Long watermark = materializedUntil(interval);
+        long realtimeThreshold;
+        if (watermark == null) {
+            realtimeThreshold = clock.millis() / 1000 - tuning.realtimeWindowSeconds();
+        } else if (watermark == Long.MAX_VALUE) {
+            // Storage that is never behind applies corrections to its coarser tiers itself
+            realtimeThreshold = watermark;
+        } else {
+            realtimeThreshold = Math.min(watermark, settledUntil(interval));
+        }
+        long historicalTo = watermark != null ? realtimeThreshold - 1 : realtimeThreshold;
+        event.split = realtimeThreshold;
+
         // For larger intervals, use hybrid approach
         if (to < realtimeThreshold) {
             // Fully historical
-            return queryAggregatedCandles(symbol, interval, from, to);
+            event.path = "historical";
+            return queryAggregatedCandles(symbolId, interval, from, to);
         }
 
         if (from >= realtimeThreshold) {
             // Fully realtime - aggregate from 1s candles
-            return aggregateFrom1sCandles(symbol, interval, from, to);
+            event.path = "realtime";
+            return aggregateFrom1sCandles(symbolId, interval, from, to);
         }
 
         // Mixed: historical + realtime
-        List<Candle> historical = queryAggregatedCandles(symbol, interval, from, realtimeThreshold);
-        List<Candle> realtime = aggregateFrom1sCandles(symbol, interval, realtimeThreshold, to);
+        event.path = "mixed";
+        CandleBatch historical = queryAggregatedCandles(symbolId, interval, from, historicalTo);
+        CandleBatch realtime = aggregateFrom1sCandles(symbolId, interval, realtimeThreshold, to);
 
-        // Merge and return. I use a treemap with timestamp as key to sort the results just in case
-        // and to handle possible duplicates
-        Map<Long, Candle> candleMap = new TreeMap<>();
+        // Both are in time order; a bucket in both is taken from the realtime side
+        return CandleBatch.mergeByTime(historical, realtime);
+    }
 
-        for (Candle c : historical) {
-            candleMap.put(c.time(), c);
+    /**
+     * Start of the first bucket that late ticks can still change: a tick is accepted up to maxTickLatenessMs
+     * behind its symbol's watermark and its correction written within maxFlushDelayMs, and a view refreshed before
+     * that holds the bucket without it.
+     */
+    private long settledUntil(CandleInterval interval) {
+        long settledMs = clock.millis() - tuning.maxTickLatenessMs() - tuning.maxFlushDelayMs();
+        return interval.alignTimestamp(Math.floorDiv(settledMs, 1000));
+    }
+
+    /**
+     * Materialization watermark of the interval's view, re-read from storage at most every watermarkRefreshMs.
+     * Between reads it can only have moved forward, so a cached value only means aggregating a few more 1s
+     * candles than necessary, never reading buckets that are not materialized yet.
+     */
+    private Long materializedUntil(CandleInterval interval) {
+        long nowMs = clock.millis();
+        Watermark cached = materializationWatermarks.get(interval);
+        if (cached == null || nowMs - cached.readAtMs() >= watermarkRefreshMs) {
+            cached = new Watermark(repository.findMaterializedUntil(interval), nowMs);
+            materializationWatermarks.put(interval, cached);
         }
+        return cached.materializedUntil();
+    }
 
-        for (Candle c : realtime) {
-            candleMap.put(c.time(), c);
+    @Override
+    public CandleBatch getCandleBatch(String symbol, CandleInterval interval, long from, long to, int maxPoints) {
+        if (maxPoints <= 0) {
+            throw new IllegalArgumentException("maxPoints must be positive: " + maxPoints);
         }
 
-        return new ArrayList<>(candleMap.values());
+        // Pick the finest tier that fits, so DB rows read scale with maxPoints instead of the range length
+        CandleInterval tier = CandleInterval.smallestFitting(interval, from, to, maxPoints);
+        CandleBatch candles = getCandleBatch(symbol, tier, from, to);
+
+        if (candles.size() <= maxPoints) {
+            return candles;
+        }
+
+        // Even the coarsest tier has too many buckets - merge adjacent candles in groups of k buckets
+        long k = Math.ceilDiv(tier.bucketCount(from, to), maxPoints);
+        long groupSeconds = tier.getSeconds() * k;
+        while (to / groupSeconds - from / groupSeconds + 1 > maxPoints) {
+            groupSeconds += tier.getSeconds();
+        }
+
+        return aggregateInMemory(candles, groupSeconds);
     }
 
     /**
      * Query 1s candles directly from database (optimized with indexes)
      */
-    private List<Candle> query1sCandles(String symbol, long from, long to) {
-        List<Candle> entities = repository.find1sCandles(symbol, from, to);
-        return entities;
+    private CandleBatch query1sCandles(int symbolId, long from, long to) {
+        return repository.find1sCandleBatch(symbolId, from, to);
     }
 
     /**
      * Query pre-aggregated candles using TimescaleDB time_bucket (fast for historical)
      */
-    private List<Candle> queryAggregatedCandles(String symbol, CandleInterval interval, long from, long to) {
-        return repository.findCandles(interval, symbol, from, to);
+    private CandleBatch queryAggregatedCandles(int symbolId, CandleInterval interval, long from, long to) {
+        return repository.findCandleBatch(interval, symbolId, from, to);
     }
 
     /**
      * Aggregate from raw 1s candles (accurate for recent data)
      * Queries database, not in-memory cache (simpler, stateless)
      */
-    private List<Candle> aggregateFrom1sCandles(String symbol, CandleInterval interval, long from, long to) {
-        List<Candle> raw1sCandles = repository.find1sCandles(symbol, from, to);
+    private CandleBatch aggregateFrom1sCandles(int symbolId, CandleInterval interval, long from, long to) {
+        CandleBatch raw1sCandles = repository.find1sCandleBatch(symbolId, from, to);
 
         return aggregateInMemory(raw1sCandles, interval);
     }
@@ -132,40 +330,138 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
     /**
      * In-memory aggregation of 1s candles to larger intervals
      */
-    private List<Candle> aggregateInMemory(List<Candle> raw1sCandles, CandleInterval interval) {
-        Map<Long, CandleAggregator> aggregators = new LinkedHashMap<>();
+    private CandleBatch aggregateInMemory(CandleBatch raw1sCandles, CandleInterval interval) {
+        return aggregateInMemory(raw1sCandles, interval.getSeconds());
+    }
+
+    /**
+     * Merges candles into buckets of {@code bucketSeconds}, in time order
+     */
+    private CandleBatch aggregateInMemory(CandleBatch candles, long bucketSeconds) {
+        if (ParallelCandleAggregation.isTimeOrdered(candles)) {
+            return candles.size() >= ParallelCandleAggregation.PARALLEL_THRESHOLD
+                    ? ParallelCandleAggregation.aggregate(candles, bucketSeconds, ForkJoinPool.commonPool())
+                    : ParallelCandleAggregation.aggregateSequential(candles, bucketSeconds);
+        }
+
+        Map<Long, CandleAggregator> aggregators = new TreeMap<>();
 
-        for (Candle candle : raw1sCandles) {
-            long bucketTime = interval.alignTimestamp(candle.time());
+        for (int i = 0; i < candles.size(); i++) {
+            long bucketTime = (candles.time(i) / bucketSeconds) * bucketSeconds;
 
             aggregators.computeIfAbsent(bucketTime, t -> new CandleAggregator())
-                    .add(candle.open(), candle.high(), candle.low(),
-                            candle.close(), candle.volume());
+                    .add(candles.open(i), candles.high(i), candles.low(i),
+                            candles.close(i), candles.volume(i));
         }
 
-        return aggregators.entrySet().stream()
-                .map(e -> e.getValue().build(e.getKey()))
-                .toList();
+        CandleBatch aggregated = new CandleBatch(aggregators.size());
+        aggregators.forEach((bucketTime, aggregator) -> aggregator.addTo(aggregated, bucketTime));
+        return aggregated;
+    }
+
+    private CandleBuilder openCandle(long key, int symbolId, String symbol, long startTime, long nowMs) {
+        CandleBuilder created = new CandleBuilder(symbolId, symbol, startTime, nowMs);
+        CandleBuilder existing = openCandleBuffer.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        for (AggregationListener listener : listeners) {
+            listener.onCandleOpened(symbol, startTime, created::build);
+        }
+        return created;
+    }
+
+    private long advanceWatermark(int symbolId, long eventTimestamp) {
+        long current = watermarks.get(symbolId);
+        return current >= eventTimestamp ? current : watermarks.accumulateAndGet(symbolId, eventTimestamp, Math::max);
+    }
+
+    @Override
+    public AggregationTuning getTuning() {
+        return tuning;
     }
 
-    private void startPeriodicTasks() {
-        // Task 1: Move open candles to closed buffer after candleCloseDelayMs
-        scheduler.scheduleAtFixedRate(() -> {
+    @Override
+    public synchronized void retune(AggregationTuning updated) {
+        AggregationTuning previous = tuning;
+        tuning = updated;
+
+        resize(eventProcessor, updated.eventThreads());
+        scheduler.setThreads(updated.schedulerThreads());
+        flushPolicy.setMaxFlushDelayMs(updated.maxFlushDelayMs());
+
+        // The buffers are untouched, the new tasks pick up where the cancelled ones stopped
+        if (updated.candleCloseDelayMs() != previous.candleCloseDelayMs()
+                || updated.closeCheckIntervalMs() != previous.closeCheckIntervalMs()) {
+            closeTask.cancel(false);
+            scheduleCloseTask();
+        }
+        if (updated.flushCheckIntervalMs() != previous.flushCheckIntervalMs()) {
+            flushTask.cancel(false);
+            scheduleFlushTask();
+        }
+
+        log.info("Aggregation retuned from {} to {}", previous, updated);
+    }
+
+    private static void resize(ThreadPoolExecutor executor, int threads) {
+        // The core size may never exceed the maximum, so the order depends on the direction
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Move open candles to the closed buffer once they are candleCloseDelayMs old
+     */
+    private void scheduleCloseTask() {
+        AggregationTuning current = tuning;
+        closeTask = scheduler.scheduleAtFixedRate(() -> {
             try {
-                closeMaturedCandles();
+                synchronized (closeLock) {
+                    closeMaturedCandles();
+                }
             } catch (Exception e) {
                 log.error("Error closing matured candles", e);
             }
-        }, candleCloseDelayMs, 50, TimeUnit.MILLISECONDS);
+        }, current.candleCloseDelayMs(), current.closeCheckIntervalMs());
+    }
 
-        // Task 2: Batch upsert closed candles every flushIntervalMs
-        scheduler.scheduleAtFixedRate(() -> {
+    /**
+     * Batch upsert closed candles when the batch is big enough or the oldest one is due
+     */
+    private void scheduleFlushTask() {
+        AggregationTuning current = tuning;
+        flushTask = scheduler.scheduleWithFixedDelay(() -> {
             try {
-                batchUpsertClosedCandles();
+                synchronized (flushLock) {
+                    flushIfDue();
+                }
             } catch (Exception e) {
                 log.error("Error batch upserting candles", e);
             }
-        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }, current.flushCheckIntervalMs(), current.flushCheckIntervalMs());
+    }
+
+    /**
+     * Flush in batches of the adaptive target size for as long as the policy asks for it
+     */
+    private void flushIfDue() {
+        while (true) {
+            long oldest = oldestClosedAtMs.get();
+            long oldestAgeMs = oldest == 0 ? 0 : clock.millis() - oldest;
+
+            if (!flushPolicy.shouldFlush(closedCandleBuffer.size(), oldestAgeMs)) {
+                break;
+            }
+            batchUpsertClosedCandles(flushPolicy.getTargetBatchSize());
+        }
+        flushCorrections();
     }
 
     /**
@@ -173,8 +469,9 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
      * This keeps the candle open for 100-200ms to accumulate all ticks from that second.
      */
     private void closeMaturedCandles() {
-        long currentTimeMs = System.currentTimeMillis();
-        List<String> keysToClose = new ArrayList<>();
+        long currentTimeMs = clock.millis();
+        long candleCloseDelayMs = tuning.candleCloseDelayMs();
+        List<Long> keysToClose = new ArrayList<>();
 
         openCandleBuffer.forEach((key, builder) -> {
             long candleAgeMs = currentTimeMs - builder.getCreatedAtMs();
@@ -188,65 +485,227 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
             }
         });
 
-        // Move to closed buffer
-        for (String key : keysToClose) {
-            CandleBuilder builder = openCandleBuffer.remove(key);
+        // Move to closed buffer. Published as recently closed before leaving the open buffer,
+        // so a concurrent tick always finds the candle in one of them
+        for (Long key : keysToClose) {
+            CandleBuilder builder = openCandleBuffer.get(key);
             if (builder != null) {
+                recentlyClosed.put(key, builder);
                 closedCandleBuffer.put(key, builder);
+                openCandleBuffer.remove(key, builder);
+
+                CandleCloseEvent closeEvent = new CandleCloseEvent();
+                if (closeEvent.shouldCommit()) {
+                    closeEvent.symbol = builder.getSymbol();
+                    closeEvent.bucket = builder.getStartTime();
+                    closeEvent.ticks = builder.build().volume();
+                    closeEvent.lag = currentTimeMs - builder.getStartTime() - 1000;
+                    closeEvent.commit();
+                }
+
+                if (!listeners.isEmpty()) {
+                    Candle candle = builder.build();
+                    for (AggregationListener listener : listeners) {
+                        listener.onCandleClosed(builder.getSymbol(), candle);
+                    }
+                }
+                oldestClosedAtMs.compareAndSet(0, currentTimeMs);
                 log.debug("Closed candle: {} {} after {}ms",
                         builder.getSymbol(), builder.getStartTime(),
-                        System.currentTimeMillis() - builder.getCreatedAtMs());
+                        clock.millis() - builder.getCreatedAtMs());
             }
         }
+
+        evictReconciledCandles();
     }
 
     /**
-     * Batch upsert all closed candles to database.
+     * Forget flushed candles that no tick within the lateness bound can reach any more. Uses the drop check of
+     * processEventSync against the last millisecond of the candle: a tick that check still accepts must find its
+     * flushed candle here, otherwise it opens a new one whose additive upsert counts the candle twice.
+     */
+    private void evictReconciledCandles() {
+        long maxTickLatenessMs = tuning.maxTickLatenessMs();
+        long lastMsOfCandle = CandleInterval.ONE_SECOND.getSeconds() * 1000 - 1;
+        recentlyClosed.forEach((key, builder) -> {
+            long candleEnd = builder.getStartTime() + lastMsOfCandle;
+            if (builder.isFlushed()
+                    && watermarks.get(builder.getSymbolId()) - candleEnd > maxTickLatenessMs) {
+                recentlyClosed.remove(key, builder);
+            }
+        });
+    }
+
+    /**
+     * Batch upsert up to maxCandles closed candles to database.
      * Uses PostgreSQL ON CONFLICT for efficient upserts.
      */
-    private void batchUpsertClosedCandles() {
+    private void batchUpsertClosedCandles(int maxCandles) {
         if (closedCandleBuffer.isEmpty()) {
             return;
         }
 
-        // Snapshot and clear the closed buffer
-        Map<String, CandleBuilder> snapshot = new HashMap<>(closedCandleBuffer);
-        closedCandleBuffer.clear();
+        // Drain entry by entry, so candles closed meanwhile are either in this batch or stay for the next one
+        oldestClosedAtMs.set(0);
+        List<CandleBuilder> batch = new ArrayList<>(Math.min(maxCandles, closedCandleBuffer.size()));
+        for (Long key : closedCandleBuffer.keySet()) {
+            if (batch.size() >= maxCandles) {
+                // Whatever stays behind is due again right away
+                oldestClosedAtMs.compareAndSet(0, 1);
+                break;
+            }
+            CandleBuilder builder = closedCandleBuffer.remove(key);
+            if (builder != null) {
+                batch.add(builder);
+            }
+        }
 
         // Build entities for batch upsert
-        List<CandleEntity> entities = snapshot.values().stream()
-                .map(builder -> {
-                    Candle candle = builder.build();
-                    return new CandleEntity(
-                            new CandleEntity.CandleId(candle.time(), builder.getSymbol()),
-                            candle.open(),
-                            candle.high(),
-                            candle.low(),
-                            candle.close(),
-                            candle.volume()
-                    );
-                })
+        List<CandleEntity> entities = batch.stream()
+                .map(CandleAggregationServiceImpl::toFlushedEntity)
                 .toList();
 
+        // Sinks get the candles whether or not the upsert succeeds, a database outage must not stall them
+        sinks.publish(entities);
+
         // Batch upsert to database
-        long startTime = System.currentTimeMillis();
+        FlushBatchEvent flushEvent = new FlushBatchEvent();
+        int targetBatchSize = flushPolicy.getTargetBatchSize();
+        flushEvent.begin();
+        boolean success = false;
+        long startTime = clock.millis();
         try {
             repository.batchUpsert(entities);
-            long duration = System.currentTimeMillis() - startTime;
+            long duration = clock.millis() - startTime;
+            flushPolicy.onFlushCompleted(entities.size(), duration);
+            success = true;
 
             log.info("Batch upserted {} candles in {}ms (avg: {}ms/candle)",
                     entities.size(), duration,
                     entities.isEmpty() ? 0 : String.format("%.2f", (double)duration / entities.size()));
 
+            for (AggregationListener listener : listeners) {
+                listener.onCandlesFlushed(entities);
+            }
+
         } catch (Exception e) {
             log.error("Failed to batch upsert {} candles", entities.size(), e);
+        } finally {
+            commit(flushEvent, "upsert", entities.size(), targetBatchSize, success);
+        }
+    }
+
+    /**
+     * Write back candles that received late ticks after their flush. Each one is sent with its full state,
+     * so any number of late ticks costs a single row update and open/close are taken from the right ticks.
+     */
+    private void flushCorrections() {
+        if (correctionBuffer.isEmpty()) {
+            return;
+        }
+
+        List<CandleEntity> corrections = new ArrayList<>();
+        for (Long key : correctionBuffer.keySet()) {
+            CandleBuilder builder = correctionBuffer.remove(key);
+            if (builder != null) {
+                corrections.add(toFlushedEntity(builder));
+            }
+        }
+
+        sinks.publishCorrections(corrections);
+
+        FlushBatchEvent flushEvent = new FlushBatchEvent();
+        flushEvent.begin();
+        boolean success = false;
+        try {
+            repository.batchReplace(corrections);
+            success = true;
+
+            log.info("Corrected {} candles with late ticks ({} merged, {} dropped beyond {}ms so far)",
+                    corrections.size(), lateTicksMerged.get(), lateTicksDropped.get(), tuning.maxTickLatenessMs());
+
+            for (AggregationListener listener : listeners) {
+                listener.onCandlesCorrected(corrections);
+            }
+        } catch (Exception e) {
+            log.error("Failed to correct {} candles", corrections.size(), e);
+        } finally {
+            commit(flushEvent, "correction", corrections.size(), 0, success);
+        }
+    }
+
+    private static void commit(FlushBatchEvent event, String kind, int size, int targetBatchSize, boolean success) {
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.size = size;
+            event.targetBatchSize = targetBatchSize;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    private void emitExecutorSaturation() {
+        emitExecutorSaturation("eventProcessor", eventProcessor.getQueue().size(), eventProcessor.getActiveCount(),
+                eventProcessor.getPoolSize());
+        emitExecutorSaturation("scheduler", scheduler.queuedTasks(), scheduler.activeThreads(), scheduler.threads());
+    }
+
+    private static void emitExecutorSaturation(String name, int queued, int active, int poolSize) {
+        ExecutorSaturationEvent event = new ExecutorSaturationEvent();
+        event.executor = name;
+        event.queued = queued;
+        event.active = active;
+        event.poolSize = poolSize;
+        event.commit();
+    }
+
+    private static CandleEntity toFlushedEntity(CandleBuilder builder) {
+        Candle candle = builder.buildForFlush();
+        return new CandleEntity(
+                new CandleEntity.CandleId(candle.time(), builder.getSymbolId()),
+                candle.open(),
+                candle.high(),
+                candle.low(),
+                candle.close(),
+                candle.volume()
+        );
+    }
+
+    @Override
+    public List<OpenCandleState> exportOpenCandles(Predicate<String> symbolFilter) {
+        List<OpenCandleState> exported = new ArrayList<>();
+
+        // Under the close lock, so a candle is either closed here or exported, never both
+        synchronized (closeLock) {
+            openCandleBuffer.forEach((key, builder) -> {
+                if (symbolFilter.test(builder.getSymbol()) && openCandleBuffer.remove(key, builder)) {
+                    exported.add(builder.export());
+                }
+            });
         }
+
+        log.info("Exported {} open candles", exported.size());
+        return exported;
+    }
+
+    @Override
+    public void importOpenCandles(List<OpenCandleState> states) {
+        long now = clock.millis();
+
+        for (OpenCandleState state : states) {
+            int symbolId = symbols.register(state.symbol());
+            openCandle(key(symbolId, state.startTime()), symbolId, state.symbol(), state.startTime(), now)
+                    .merge(state);
+        }
+
+        log.info("Imported {} open candles", states.size());
     }
 
     @PreDestroy
     @Override
     public void shutdown() {
         log.info("Shutting down service");
+        FlightRecorder.removePeriodicEvent(executorSampler);
         scheduler.shutdown();
         eventProcessor.shutdown();
 
@@ -260,15 +719,16 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
 
             // Final flush of all pending candles
             closeMaturedCandles();
-            batchUpsertClosedCandles();
+            batchUpsertClosedCandles(Integer.MAX_VALUE);
+            flushCorrections();
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
 
-    private String buildKey(String symbol, long time) {
-        return symbol + ":" + time;
+    private static long key(int symbolId, long time) {
+        return ((long) symbolId << 48) | (time & TIME_MASK);
     }
 
     /**
@@ -277,6 +737,7 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
      * Aggregates ticks into a candle
      */
     private static class CandleBuilder {
+        private final int symbolId;
         private final String symbol;
         private final long startTime;
         private final long createdAtMs;
@@ -291,8 +752,11 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
         private double close;
         private long volume;
         private boolean initialized;
+        private boolean flushed;
+        private boolean exported;
 
-        CandleBuilder(String symbol, long startTime, long createdAtMs) {
+        CandleBuilder(int symbolId, String symbol, long startTime, long createdAtMs) {
+            this.symbolId = symbolId;
             this.symbol = symbol;
             this.startTime = startTime;
             this.createdAtMs = createdAtMs;
@@ -306,8 +770,14 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
          * - Open: price with earliest timestamp
          * - Close: price with latest timestamp
          * - High/Low: min/max regardless of order
+         *
+         * @return LATE if the candle had already been flushed, so storage needs a correction, EXPORTED if the
+         * candle was handed over and the tick was not added
          */
-        synchronized void addPrice(double price, long eventTimestamp) {
+        synchronized TickOutcome addPrice(double price, long eventTimestamp) {
+            if (exported) {
+                return TickOutcome.EXPORTED;
+            }
             if (!initialized) {
                 high = price;
                 low = price;
@@ -327,12 +797,66 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
                 closeTimestamp = eventTimestamp;
                 close = price;
             }
+            return flushed ? TickOutcome.LATE : TickOutcome.ADDED;
+        }
+
+        /**
+         * Merge the state of the same candle aggregated elsewhere, applying the same open/close rules as addPrice
+         */
+        synchronized void merge(OpenCandleState state) {
+            if (state.volume() == 0) {
+                return;
+            }
+            if (!initialized) {
+                high = state.high();
+                low = state.low();
+                initialized = true;
+            } else {
+                high = Math.max(high, state.high());
+                low = Math.min(low, state.low());
+            }
+            volume += state.volume();
+
+            if (state.openTimestamp() < openTimestamp) {
+                openTimestamp = state.openTimestamp();
+                open = state.open();
+            }
+
+            if (state.closeTimestamp() > closeTimestamp) {
+                closeTimestamp = state.closeTimestamp();
+                close = state.close();
+            }
+        }
+
+        /**
+         * State for the new owner of the symbol. Ticks offered afterwards are refused, so none is applied to
+         * a candle that already left
+         */
+        synchronized OpenCandleState export() {
+            exported = true;
+            return new OpenCandleState(symbol, startTime, open, openTimestamp, high, low, close, closeTimestamp, volume);
         }
 
         synchronized Candle build() {
             return new Candle(startTime, open, high, low, close, volume);
         }
 
+        /**
+         * Build the candle for writing to storage; ticks added afterwards are reported by addPrice
+         */
+        synchronized Candle buildForFlush() {
+            flushed = true;
+            return build();
+        }
+
+        synchronized boolean isFlushed() {
+            return flushed;
+        }
+
+        int getSymbolId() {
+            return symbolId;
+        }
+
         String getSymbol() {
             return symbol;
         }
@@ -346,6 +870,20 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
         }
     }
 
+    private record Watermark(Long materializedUntil, long readAtMs) {
+    }
+
+    /**
+     * What became of a tick offered to a candle
+     */
+    private enum TickOutcome {
+        ADDED,
+        // The candle was already flushed, storage needs a correction
+        LATE,
+        // The candle was exported for handover, the tick has to go to whatever replaced it
+        EXPORTED
+    }
+
     // Aggregates 1s candles into larger interval candles
     private static class CandleAggregator {
         private double open = 0;
@@ -366,8 +904,8 @@ public class CandleAggregationServiceImpl implements CandleAggregationService {
             volume += v;
         }
 
-        Candle build(long time) {
-            return new Candle(time, open, high, low, close, volume);
+        void addTo(CandleBatch batch, long time) {
+            batch.add(time, open, high, low, close, volume);
         }
     }
 }
@@ -0,0 +1,55 @@
+package com.multibank.application.service.impl;
+
+/**
+ * Min/max/sum reductions over a range of a candle column, the inner loops of bucket aggregation once candles are
+ * held as primitive arrays. They run on the incubating Vector API when jdk.incubator.vector is in the module graph
+ * (--add-modules jdk.incubator.vector, set up by the build for bootRun and tests) and fall back to plain loops otherwise, or when started
+ * with -Dcandle.kernels=scalar. Both give identical results.
+ * <p>
+ * Empty ranges reduce to negative infinity (max), positive infinity (min) and 0 (sum).
+ */
+public final class CandleKernels {
+
+    private static final boolean VECTORIZED = !"scalar".equals(System.getProperty("candle.kernels"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private CandleKernels() {
+    }
+
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    public static double max(double[] values, int from, int to) {
+        if (VECTORIZED) {
+            return VectorCandleKernels.max(values, from, to);
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    public static double min(double[] values, int from, int to) {
+        if (VECTORIZED) {
+            return VectorCandleKernels.min(values, from, to);
+        }
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    public static long sum(long[] values, int from, int to) {
+        if (VECTORIZED) {
+            return VectorCandleKernels.sum(values, from, to);
+        }
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,211 @@
+package com.multibank.application.service.impl;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.service.CandleSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans closed candles out to the registered {@link CandleSink}s. Publishing only enqueues, each sink is drained
+ * by its own worker thread. Per sink, tagged with its name: candle.sink.queued (candles waiting),
+ * candle.sink.lag (age of the oldest waiting candle), candle.sink.written, candle.sink.dropped and
+ * candle.sink.failed (candles) and candle.sink.write (time per batch).
+ */
+@Slf4j
+@Component
+public class CandleSinkDispatcher {
+
+    private final List<SinkWorker> workers = new ArrayList<>();
+
+    // The publishing service's, so the lag is measured in the time the candles are closed and flushed in
+    private volatile Clock clock = Clock.systemUTC();
+
+    public CandleSinkDispatcher(List<CandleSink> sinks, MeterRegistry meterRegistry) {
+        for (CandleSink sink : sinks) {
+            SinkWorker worker = new SinkWorker(sink, meterRegistry);
+            workers.add(worker);
+            worker.thread.start();
+            log.info("Publishing closed candles to sink {} (batch size {}, queue capacity {}, {} when full)",
+                    sink.name(), sink.batchSize(), sink.queueCapacity(), sink.blockWhenFull() ? "block" : "drop");
+        }
+    }
+
+    /**
+     * Without sinks, publishing does nothing
+     */
+    public static CandleSinkDispatcher none() {
+        return new CandleSinkDispatcher(List.of(), null);
+    }
+
+    /**
+     * Called by the aggregation service with the clock it runs on
+     */
+    void useClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void publish(List<CandleEntity> candles) {
+        enqueue(candles, false);
+    }
+
+    public void publishCorrections(List<CandleEntity> candles) {
+        enqueue(candles, true);
+    }
+
+    private void enqueue(List<CandleEntity> candles, boolean correction) {
+        if (workers.isEmpty() || candles.isEmpty()) {
+            return;
+        }
+        long nowMs = clock.millis();
+        for (SinkWorker worker : workers) {
+            worker.enqueue(candles, correction, nowMs);
+        }
+    }
+
+    /**
+     * Gives the workers up to five seconds to drain their queues
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (SinkWorker worker : workers) {
+            worker.running = false;
+        }
+        for (SinkWorker worker : workers) {
+            try {
+                worker.thread.join(5_000);
+                if (worker.thread.isAlive()) {
+                    worker.thread.interrupt();
+                    log.warn("Sink {} did not drain in time, {} candles left", worker.sink.name(), worker.queue.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record Entry(CandleEntity candle, boolean correction, long enqueuedAtMs) {
+    }
+
+    private final class SinkWorker {
+
+        private final CandleSink sink;
+        private final BlockingQueue<Entry> queue;
+        private final Thread thread;
+        private final Counter written;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Timer writeTimer;
+
+        private volatile boolean running = true;
+
+        SinkWorker(CandleSink sink, MeterRegistry meterRegistry) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(sink.queueCapacity());
+            this.thread = Thread.ofPlatform().name("candle-sink-" + sink.name()).daemon().unstarted(this::run);
+
+            Gauge.builder("candle.sink.queued", queue, BlockingQueue::size)
+                    .description("Closed candles waiting for the sink")
+                    .tag("sink", sink.name())
+                    .register(meterRegistry);
+            Gauge.builder("candle.sink.lag", this, SinkWorker::lagMs)
+                    .description("Time the oldest waiting candle has been queued")
+                    .baseUnit("milliseconds")
+                    .tag("sink", sink.name())
+                    .register(meterRegistry);
+            this.written = counter("candle.sink.written", "Candles handed to the sink", meterRegistry);
+            this.dropped = counter("candle.sink.dropped", "Candles dropped because the queue was full or publishing was interrupted", meterRegistry);
+            this.failed = counter("candle.sink.failed", "Candles in batches the sink failed on", meterRegistry);
+            this.writeTimer = Timer.builder("candle.sink.write")
+                    .description("Time the sink took per batch")
+                    .tag("sink", sink.name())
+                    .register(meterRegistry);
+        }
+
+        private Counter counter(String name, String description, MeterRegistry meterRegistry) {
+            return Counter.builder(name).description(description).tag("sink", sink.name()).register(meterRegistry);
+        }
+
+        void enqueue(List<CandleEntity> candles, boolean correction, long nowMs) {
+            for (int i = 0; i < candles.size(); i++) {
+                Entry entry = new Entry(candles.get(i), correction, nowMs);
+                if (sink.blockWhenFull()) {
+                    try {
+                        queue.put(entry);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        // The rest of the batch never reaches the sink
+                        dropped.increment(candles.size() - i);
+                        return;
+                    }
+                } else if (!queue.offer(entry)) {
+                    dropped.increment();
+                }
+            }
+        }
+
+        double lagMs() {
+            Entry oldest = queue.peek();
+            return oldest == null ? 0 : clock.millis() - oldest.enqueuedAtMs();
+        }
+
+        private void run() {
+            List<Entry> batch = new ArrayList<>(sink.batchSize());
+            while (running || !queue.isEmpty()) {
+                try {
+                    Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, sink.batchSize() - 1);
+                    write(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        /**
+         * New candles go first: a correction is only ever queued after the candle it corrects
+         */
+        private void write(List<Entry> batch) {
+            List<CandleEntity> candles = new ArrayList<>(batch.size());
+            List<CandleEntity> corrections = new ArrayList<>();
+            for (Entry entry : batch) {
+                (entry.correction() ? corrections : candles).add(entry.candle());
+            }
+
+            long start = System.nanoTime();
+            try {
+                if (!candles.isEmpty()) {
+                    sink.write(candles);
+                }
+                if (!corrections.isEmpty()) {
+                    sink.replace(corrections);
+                }
+                written.increment(batch.size());
+            } catch (Exception e) {
+                failed.increment(batch.size());
+                log.error("Sink {} failed on {} candles", sink.name(), batch.size(), e);
+            } finally {
+                writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.multibank.application.service.impl;
+
+import com.multibank.application.cluster.SymbolPartitioner;
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.service.CandleAggregationService;
+import com.multibank.application.service.TickIngress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands ticks straight to the aggregation service. Used when the tick log is disabled.
+ * In cluster mode ticks of symbols owned by another node are dropped here, whatever feed they come from.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ticklog", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class DirectTickIngress implements TickIngress {
+
+    private final CandleAggregationService candleAggregationService;
+    private final SymbolPartitioner symbolPartitioner;
+
+    @Override
+    public void publish(BidAskEvent event) {
+        if (symbolPartitioner.isLocal(event.symbol())) {
+            candleAggregationService.processEvent(event);
+        }
+    }
+}
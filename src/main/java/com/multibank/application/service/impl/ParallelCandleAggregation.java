@@ -0,0 +1,137 @@
+package com.multibank.application.service.impl;
+
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join aggregation of time-ordered candles into buckets. The input is split only on bucket boundaries, so
+ * every bucket is reduced by exactly one task and the segment results are simply concatenated in order.
+ * Every bucket is a contiguous range of the input columns and is reduced with the {@link CandleKernels}.
+ */
+public final class ParallelCandleAggregation {
+
+    // Below this many input candles a single thread is faster than forking
+    static final int PARALLEL_THRESHOLD = 50_000;
+
+    private static final int LEAF_SIZE = 8_192;
+
+    private ParallelCandleAggregation() {
+    }
+
+    static boolean isTimeOrdered(CandleBatch candles) {
+        for (int i = 1; i < candles.size(); i++) {
+            if (candles.time(i) < candles.time(i - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same result as the sequential aggregation for time-ordered input: open of the first and close of the last
+     * candle per bucket, high/low extremes and the volume sum
+     */
+    public static CandleBatch aggregate(CandleBatch candles, long bucketSeconds, ForkJoinPool pool) {
+        if (candles.isEmpty()) {
+            return CandleBatch.empty();
+        }
+        CandleBatch[] segments = pool.invoke(new AggregateTask(candles, bucketSeconds, 0, candles.size()));
+
+        int total = 0;
+        for (CandleBatch segment : segments) {
+            total += segment.size();
+        }
+
+        CandleBatch result = new CandleBatch(total);
+        for (CandleBatch segment : segments) {
+            result.addAll(segment);
+        }
+        return result;
+    }
+
+    public static List<Candle> aggregate(List<Candle> candles, long bucketSeconds, ForkJoinPool pool) {
+        return aggregate(CandleBatch.of(candles), bucketSeconds, pool).toList();
+    }
+
+    /**
+     * The same reduction on the calling thread, for time-ordered input below the parallel threshold
+     */
+    static CandleBatch aggregateSequential(CandleBatch candles, long bucketSeconds) {
+        return reduce(candles, bucketSeconds, 0, candles.size());
+    }
+
+    private static CandleBatch reduce(CandleBatch candles, long bucketSeconds, int from, int to) {
+        if (from == to) {
+            return CandleBatch.empty();
+        }
+        // Bucket count is unknown up front; the input length bounds it
+        long buckets = candles.time(to - 1) / bucketSeconds - candles.time(from) / bucketSeconds + 1;
+        CandleBatch segment = new CandleBatch((int) Math.min(to - from, buckets));
+
+        for (int start = from; start < to; ) {
+            long bucket = candles.time(start) / bucketSeconds;
+            int end = start + 1;
+            while (end < to && candles.time(end) / bucketSeconds == bucket) {
+                end++;
+            }
+            segment.add(bucket * bucketSeconds,
+                    candles.open(start),
+                    Math.max(Double.MIN_VALUE, CandleKernels.max(candles.highs(), start, end)),
+                    CandleKernels.min(candles.lows(), start, end),
+                    candles.close(end - 1),
+                    CandleKernels.sum(candles.volumes(), start, end));
+            start = end;
+        }
+        return segment;
+    }
+
+    private static final class AggregateTask extends RecursiveTask<CandleBatch[]> {
+
+        private final CandleBatch candles;
+        private final long bucketSeconds;
+        private final int from;
+        private final int to;
+
+        AggregateTask(CandleBatch candles, long bucketSeconds, int from, int to) {
+            this.candles = candles;
+            this.bucketSeconds = bucketSeconds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CandleBatch[] compute() {
+            if (to - from <= LEAF_SIZE) {
+                return new CandleBatch[]{reduce(candles, bucketSeconds, from, to)};
+            }
+
+            // Move the split point forward to the start of the next bucket
+            int split = (from + to) >>> 1;
+            long bucket = bucketOf(split - 1);
+            while (split < to && bucketOf(split) == bucket) {
+                split++;
+            }
+            if (split == to) {
+                return new CandleBatch[]{reduce(candles, bucketSeconds, from, to)};
+            }
+
+            AggregateTask left = new AggregateTask(candles, bucketSeconds, from, split);
+            left.fork();
+            CandleBatch[] right = new AggregateTask(candles, bucketSeconds, split, to).compute();
+            CandleBatch[] leftResult = left.join();
+
+            CandleBatch[] joined = new CandleBatch[leftResult.length + right.length];
+            System.arraycopy(leftResult, 0, joined, 0, leftResult.length);
+            System.arraycopy(right, 0, joined, leftResult.length, right.length);
+            return joined;
+        }
+
+        private long bucketOf(int index) {
+            return candles.time(index) / bucketSeconds;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.multibank.application.service.impl;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+final class ThreadPoolAggregationScheduler implements AggregationScheduler {
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    ThreadPoolAggregationScheduler(int threads) {
+        this.executor = new ScheduledThreadPoolExecutor(threads);
+    }
+
+    @Override
+    public Future<?> scheduleAtFixedRate(Runnable task, long initialDelayMs, long periodMs) {
+        return executor.scheduleAtFixedRate(task, initialDelayMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Future<?> scheduleWithFixedDelay(Runnable task, long initialDelayMs, long delayMs) {
+        return executor.scheduleWithFixedDelay(task, initialDelayMs, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setThreads(int threads) {
+        executor.setCorePoolSize(threads);
+    }
+
+    @Override
+    public int threads() {
+        return executor.getPoolSize();
+    }
+
+    @Override
+    public int activeThreads() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int queuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+}
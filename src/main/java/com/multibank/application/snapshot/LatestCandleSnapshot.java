@@ -0,0 +1,209 @@
+package com.multibank.application.snapshot;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.Candle;
+import com.multibank.application.service.AggregationListener;
+import com.multibank.application.symbol.SymbolRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Latest price, forming 1s candle and last closed 1s candle of every symbol, kept up to date from the
+ * aggregation path under a short per-symbol lock, so out-of-order ticks and candles never replace newer ones.
+ * Readers get one pre-serialized JSON document for all symbols, rebuilt at most every snapshot.refresh-ms,
+ * so a watchlist refresh is a memory read instead of a query per symbol.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "snapshot", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LatestCandleSnapshot implements AggregationListener {
+
+    private final SnapshotProperties properties;
+    private final SymbolRegistry symbolRegistry;
+
+    // Sorted, so the document lists symbols in a stable order
+    private final Map<String, SymbolState> symbols = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock renderLock = new ReentrantLock();
+    private volatile Rendered rendered = new Rendered(0, new byte[0]);
+
+    @Override
+    public void onTick(BidAskEvent event) {
+        SymbolState state = state(event.symbol());
+        synchronized (state) {
+            // Ticks of several aggregation threads arrive out of order, keep the newest
+            if (event.timestamp() >= state.lastTickTime) {
+                state.lastPrice = event.midPrice();
+                state.lastTickTime = event.timestamp();
+            }
+        }
+    }
+
+    @Override
+    public void onCandleOpened(String symbol, long startTime, Supplier<Candle> formingCandle) {
+        SymbolState state = state(symbol);
+        synchronized (state) {
+            // Ticks may open an older second after a newer one, keep the newest
+            if (startTime >= state.formingStartTime) {
+                state.formingStartTime = startTime;
+                state.forming = formingCandle;
+            }
+        }
+    }
+
+    @Override
+    public void onCandleClosed(String symbol, Candle candle) {
+        SymbolState state = state(symbol);
+        synchronized (state) {
+            Candle lastClosed = state.lastClosed;
+            if (lastClosed == null || candle.time() >= lastClosed.time()) {
+                state.lastClosed = candle;
+            }
+        }
+    }
+
+    @Override
+    public void onCandlesCorrected(List<CandleEntity> candles) {
+        for (CandleEntity entity : candles) {
+            SymbolState state = symbols.get(symbolRegistry.nameOf(entity.getId().getSymbolId()));
+            if (state == null) {
+                continue;
+            }
+            synchronized (state) {
+                Candle lastClosed = state.lastClosed;
+                if (lastClosed != null && lastClosed.time() == entity.getId().getTime()) {
+                    state.lastClosed = new Candle(lastClosed.time(), entity.getOpen(), entity.getHigh(),
+                            entity.getLow(), entity.getClose(), entity.getVolume());
+                }
+            }
+        }
+    }
+
+    /**
+     * The serialized snapshot of all symbols, at most refreshMs old. Only one caller rebuilds an expired
+     * document; the others keep getting the previous one meanwhile.
+     */
+    public byte[] render() {
+        Rendered current = rendered;
+        long now = System.currentTimeMillis();
+        if (now - current.generatedAtMs() < properties.getRefreshMs()) {
+            return current.json();
+        }
+
+        if (!renderLock.tryLock()) {
+            return current.json().length > 0 ? current.json() : waitForRender();
+        }
+        try {
+            current = rendered;
+            if (now - current.generatedAtMs() >= properties.getRefreshMs()) {
+                current = new Rendered(now, serialize(now));
+                rendered = current;
+            }
+            return current.json();
+        } finally {
+            renderLock.unlock();
+        }
+    }
+
+    private byte[] waitForRender() {
+        renderLock.lock();
+        try {
+            return rendered.json();
+        } finally {
+            renderLock.unlock();
+        }
+    }
+
+    private byte[] serialize(long now) {
+        StringBuilder json = new StringBuilder(64 + symbols.size() * 256);
+        json.append("{\"s\":\"ok\",\"time\":").append(now).append(",\"symbols\":{");
+
+        boolean first = true;
+        for (Map.Entry<String, SymbolState> entry : symbols.entrySet()) {
+            SymbolState state = entry.getValue();
+            double lastPrice;
+            long lastTickTime;
+            synchronized (state) {
+                lastPrice = state.lastPrice;
+                lastTickTime = state.lastTickTime;
+            }
+            Supplier<Candle> forming = state.forming;
+            Candle lastClosed = state.lastClosed;
+            Candle formingCandle = forming == null ? null : forming.get();
+            if (formingCandle != null && lastClosed != null && formingCandle.time() <= lastClosed.time()) {
+                // The newest candle has been closed and nothing newer opened yet
+                formingCandle = null;
+            }
+
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+
+            appendString(json, entry.getKey());
+            json.append(":{\"price\":").append(lastPrice)
+                    .append(",\"priceTime\":").append(lastTickTime)
+                    .append(",\"forming\":");
+            appendCandle(json, formingCandle);
+            json.append(",\"lastClosed\":");
+            appendCandle(json, lastClosed);
+            json.append('}');
+        }
+
+        return json.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendCandle(StringBuilder json, Candle candle) {
+        if (candle == null) {
+            json.append("null");
+            return;
+        }
+        json.append("{\"t\":").append(candle.time())
+                .append(",\"o\":").append(candle.open())
+                .append(",\"h\":").append(candle.high())
+                .append(",\"l\":").append(candle.low())
+                .append(",\"c\":").append(candle.close())
+                .append(",\"v\":").append(candle.volume())
+                .append('}');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private SymbolState state(String symbol) {
+        SymbolState state = symbols.get(symbol);
+        return state != null ? state : symbols.computeIfAbsent(symbol, s -> new SymbolState());
+    }
+
+    private static final class SymbolState {
+        double lastPrice;
+        long lastTickTime;
+        volatile Supplier<Candle> forming;
+        volatile Candle lastClosed;
+        long formingStartTime = Long.MIN_VALUE;
+    }
+
+    private record Rendered(long generatedAtMs, byte[] json) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.multibank.application.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "snapshot", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SnapshotController {
+
+    private final LatestCandleSnapshot latestCandleSnapshot;
+
+    /**
+     * Last price, forming 1s candle and last closed 1s candle of every symbol in one response
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<byte[]> snapshot() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(latestCandleSnapshot.render());
+    }
+}
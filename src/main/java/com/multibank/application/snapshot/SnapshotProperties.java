@@ -0,0 +1,16 @@
+package com.multibank.application.snapshot;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = true;
+
+    // The serialized response is rebuilt at most this often, all requests in between get the same bytes
+    private long refreshMs = 250;
+}
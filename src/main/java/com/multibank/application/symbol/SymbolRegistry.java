@@ -0,0 +1,137 @@
+package com.multibank.application.symbol;
+
+import com.multibank.application.repository.SymbolRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compact integer ids for symbols. A symbol gets its id the first time it is ingested; from then on the id keys
+ * the in-memory aggregation state and is what storage keeps instead of the symbol string. Lookups never touch
+ * storage, so a query for a symbol that was never ingested can be rejected right away.
+ */
+@Slf4j
+@Component
+public class SymbolRegistry {
+
+    public static final int UNKNOWN = -1;
+
+    // Ids are stored as SMALLINT
+    public static final int MAX_ID = Short.MAX_VALUE;
+
+    // Same length limit as the name column; also keeps names usable as file and line content
+    private static final Pattern VALID_SYMBOL = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]{0,19}");
+
+    private final SymbolRepository repository;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // id -> name, index 0 unused
+    private volatile String[] names = new String[64];
+
+    public SymbolRegistry(SymbolRepository repository) {
+        this.repository = repository;
+        repository.findAll().forEach(this::add);
+        log.info("Loaded {} symbols", ids.size());
+    }
+
+    /**
+     * A registry that keeps its dictionary in memory only, for tests and tools
+     */
+    public static SymbolRegistry inMemory() {
+        return new SymbolRegistry(new SymbolRepository() {
+            private final Map<String, Integer> symbols = new HashMap<>();
+
+            @Override
+            public synchronized Map<String, Integer> findAll() {
+                return Map.copyOf(symbols);
+            }
+
+            @Override
+            public synchronized int insert(String symbol) {
+                return symbols.computeIfAbsent(symbol, s -> symbols.size() + 1);
+            }
+        });
+    }
+
+    /**
+     * The id of the symbol, registering it on first sight
+     */
+    public int register(String symbol) {
+        Integer id = symbol == null ? null : ids.get(symbol);
+        return id != null ? id : registerNew(symbol);
+    }
+
+    /**
+     * The id of the symbol, or UNKNOWN if it has never been registered
+     */
+    public int idOf(String symbol) {
+        Integer id = symbol == null ? null : ids.get(symbol);
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * The id of a registered symbol
+     *
+     * @throws IllegalArgumentException if the symbol has never been registered
+     */
+    public int requireId(String symbol) {
+        int id = idOf(symbol);
+        if (id == UNKNOWN) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+        return id;
+    }
+
+    public String nameOf(int id) {
+        String[] current = names;
+        String name = id > 0 && id < current.length ? current[id] : null;
+        if (name == null) {
+            throw new IllegalArgumentException("Unknown symbol id: " + id);
+        }
+        return name;
+    }
+
+    /**
+     * All registered symbols, sorted by name
+     */
+    public List<String> names() {
+        return ids.keySet().stream().sorted().toList();
+    }
+
+    private synchronized int registerNew(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        if (symbol == null || !VALID_SYMBOL.matcher(symbol).matches()) {
+            throw new IllegalArgumentException("Invalid symbol: " + symbol);
+        }
+
+        int id = repository.insert(symbol);
+        add(symbol, id);
+        log.info("Registered symbol {} with id {}", symbol, id);
+        return id;
+    }
+
+    private synchronized void add(String symbol, int id) {
+        if (id <= 0 || id > MAX_ID) {
+            throw new IllegalStateException("Symbol id out of range: " + symbol + " = " + id);
+        }
+
+        String[] current = names;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.min(MAX_ID + 1, Math.max(id + 1, current.length * 2)));
+        }
+        current[id] = symbol;
+        // Name first, so whoever finds the id can resolve it
+        names = current;
+        ids.put(symbol, id);
+    }
+}
@@ -0,0 +1,240 @@
+package com.multibank.application.ticklog;
+
+import com.multibank.application.model.BidAskEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only tick log stored in memory-mapped segment files of fixed-size binary records.
+ * Every tick gets a global sequence number; any number of writers can append concurrently and readers
+ * address records by sequence, so each consumer keeps its own cursor and can replay from any offset.
+ * <p>
+ * Record layout (64 bytes): status int (written last, with release semantics, so a reader that sees it
+ * also sees the payload), timestamp long, bid double, ask double, symbol length byte, symbol UTF-8 bytes.
+ */
+@Slf4j
+public class MappedTickLog implements AutoCloseable {
+
+    static final int RECORD_SIZE = 64;
+    static final int MAX_SYMBOL_BYTES = RECORD_SIZE - 29;
+
+    private static final int STATUS_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 4;
+    private static final int BID_OFFSET = 12;
+    private static final int ASK_OFFSET = 20;
+    private static final int SYMBOL_LENGTH_OFFSET = 28;
+    private static final int SYMBOL_OFFSET = 29;
+
+    private static final int COMMITTED = 1;
+
+    private static final VarHandle STATUS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequence;
+    private volatile long firstSequence;
+
+    public MappedTickLog(Path directory, int recordsPerSegment) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create tick log directory " + directory, e);
+        }
+
+        this.firstSequence = existingSegments().min().orElse(0) * recordsPerSegment;
+        this.nextSequence = new AtomicLong(recoverNextSequence());
+
+        log.info("Opened tick log {} at sequence {}", directory, nextSequence.get());
+    }
+
+    /**
+     * Appends the tick and returns its sequence number
+     */
+    public long append(BidAskEvent event) {
+        byte[] symbol = event.symbol().getBytes(StandardCharsets.UTF_8);
+        if (symbol.length > MAX_SYMBOL_BYTES) {
+            throw new IllegalArgumentException("Symbol too long for tick log: " + event.symbol());
+        }
+
+        // The segment is mapped before the sequence is taken: a sequence that is never committed would stop
+        // every reader at it, so a failed mapping must leave nothing reserved
+        long sequence;
+        MappedByteBuffer segment;
+        do {
+            sequence = nextSequence.get();
+            segment = segment(sequence / recordsPerSegment, true);
+        } while (!nextSequence.compareAndSet(sequence, sequence + 1));
+        int offset = offsetOf(sequence);
+
+        segment.putLong(offset + TIMESTAMP_OFFSET, event.timestamp());
+        segment.putDouble(offset + BID_OFFSET, event.bid());
+        segment.putDouble(offset + ASK_OFFSET, event.ask());
+        segment.put(offset + SYMBOL_LENGTH_OFFSET, (byte) symbol.length);
+        segment.put(offset + SYMBOL_OFFSET, symbol);
+
+        STATUS.setRelease(segment, offset + STATUS_OFFSET, COMMITTED);
+        return sequence;
+    }
+
+    /**
+     * Returns the tick at {@code sequence}, or null if it has not been committed yet
+     */
+    public BidAskEvent read(long sequence) {
+        if (sequence < firstSequence) {
+            throw new IllegalArgumentException("Sequence " + sequence + " was already deleted, first is " + firstSequence);
+        }
+
+        MappedByteBuffer segment = segment(sequence / recordsPerSegment, false);
+        if (segment == null) {
+            return null;
+        }
+
+        int offset = offsetOf(sequence);
+        if ((int) STATUS.getAcquire(segment, offset + STATUS_OFFSET) != COMMITTED) {
+            return null;
+        }
+
+        byte[] symbol = new byte[segment.get(offset + SYMBOL_LENGTH_OFFSET)];
+        segment.get(offset + SYMBOL_OFFSET, symbol);
+
+        return new BidAskEvent(
+                new String(symbol, StandardCharsets.UTF_8),
+                segment.getDouble(offset + BID_OFFSET),
+                segment.getDouble(offset + ASK_OFFSET),
+                segment.getLong(offset + TIMESTAMP_OFFSET)
+        );
+    }
+
+    /**
+     * Feeds the committed ticks in [fromSequence, toSequence) to the consumer and returns the sequence
+     * after the last one delivered, which is smaller than toSequence if it hit a not yet committed tick.
+     */
+    public long replay(long fromSequence, long toSequence, Consumer<BidAskEvent> consumer) {
+        long sequence = Math.max(fromSequence, firstSequence);
+        while (sequence < toSequence) {
+            BidAskEvent event = read(sequence);
+            if (event == null) {
+                break;
+            }
+            consumer.accept(event);
+            sequence++;
+        }
+        return sequence;
+    }
+
+    /**
+     * Sequence the next append will get. Records below it may still be in the middle of being written.
+     */
+    public long headSequence() {
+        return nextSequence.get();
+    }
+
+    public long firstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Deletes all segments that only hold records below {@code sequence}
+     */
+    public void deleteBefore(long sequence) {
+        long keepFrom = sequence / recordsPerSegment;
+
+        existingSegments().filter(index -> index < keepFrom).forEach(index -> {
+            segments.remove(index);
+            try {
+                Files.deleteIfExists(segmentPath(index));
+                log.info("Deleted tick log segment {}", index);
+            } catch (IOException e) {
+                log.warn("Could not delete tick log segment {}", index, e);
+            }
+        });
+
+        firstSequence = Math.max(firstSequence, keepFrom * recordsPerSegment);
+    }
+
+    @Override
+    public void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+        segments.clear();
+    }
+
+    private int offsetOf(long sequence) {
+        return (int) (sequence % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private MappedByteBuffer segment(long index, boolean create) {
+        MappedByteBuffer segment = segments.get(index);
+        if (segment != null) {
+            return segment;
+        }
+        if (!create && !Files.exists(segmentPath(index))) {
+            return null;
+        }
+        return segments.computeIfAbsent(index, this::map);
+    }
+
+    private MappedByteBuffer map(long index) {
+        try (FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map tick log segment " + index, e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("ticks-%012d.log", index));
+    }
+
+    private LongStream existingSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return LongStream.of(files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("ticks-") && name.endsWith(".log"))
+                    .mapToLong(name -> Long.parseLong(name.substring(6, name.length() - 4)))
+                    .toArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list tick log directory " + directory, e);
+        }
+    }
+
+    /**
+     * The log resumes after the last committed record of the newest segment
+     */
+    private long recoverNextSequence() {
+        long lastSegment = existingSegments().max().orElse(-1);
+        if (lastSegment < 0) {
+            return 0;
+        }
+
+        long sequence = lastSegment * recordsPerSegment;
+        long end = sequence + recordsPerSegment;
+        while (sequence < end && read(sequence) != null) {
+            sequence++;
+        }
+        return sequence;
+    }
+}
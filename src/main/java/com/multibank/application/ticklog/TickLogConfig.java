@@ -0,0 +1,46 @@
+package com.multibank.application.ticklog;
+
+import com.multibank.application.cluster.SymbolPartitioner;
+import com.multibank.application.repository.CandleCustomJdbcRepository;
+import com.multibank.application.service.CandleAggregationService;
+import com.multibank.application.service.TickIngress;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(prefix = "ticklog", name = "enabled", havingValue = "true")
+public class TickLogConfig {
+
+    @Bean(destroyMethod = "close")
+    public MappedTickLog mappedTickLog(TickLogProperties properties) {
+        return new MappedTickLog(Path.of(properties.getDirectory()), properties.getRecordsPerSegment());
+    }
+
+    /**
+     * Only ticks of symbols this node owns are logged, the owner aggregates the others
+     */
+    @Bean
+    public TickIngress tickLogIngress(MappedTickLog tickLog, SymbolPartitioner symbolPartitioner) {
+        return event -> {
+            if (symbolPartitioner.isLocal(event.symbol())) {
+                tickLog.append(event);
+            }
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public TickLogTailer tickLogTailer(MappedTickLog tickLog, CandleAggregationService candleAggregationService,
+                                       TickLogProperties properties) {
+        return new TickLogTailer(tickLog, candleAggregationService, properties);
+    }
+
+    @Bean
+    public TickLogReplay tickLogReplay(MappedTickLog tickLog, CandleCustomJdbcRepository repository,
+                                       SymbolRegistry symbols) {
+        return new TickLogReplay(tickLog, repository, symbols);
+    }
+}
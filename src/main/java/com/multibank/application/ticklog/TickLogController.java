@@ -0,0 +1,49 @@
+package com.multibank.application.ticklog;
+
+import com.multibank.application.service.AggregationTuning;
+import com.multibank.application.service.CandleAggregationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/ticklog")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ticklog", name = "enabled", havingValue = "true")
+public class TickLogController {
+
+    private final MappedTickLog tickLog;
+    private final TickLogTailer tickLogTailer;
+    private final TickLogReplay tickLogReplay;
+    private final CandleAggregationService candleAggregationService;
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> status() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("s", "ok");
+        response.put("first", tickLog.firstSequence());
+        response.put("head", tickLog.headSequence());
+        response.put("cursor", tickLogTailer.getCursor());
+        response.put("lag", tickLogTailer.getLag());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Re-aggregates the ticks from {@code sequence} up to the cursor and replaces their stored candles.
+     * Candles that late ticks, or ticks outside the range, can still reach are left to the live aggregator.
+     */
+    @PostMapping("/seek")
+    public ResponseEntity<Map<String, Object>> seek(@RequestParam long sequence) {
+        AggregationTuning tuning = candleAggregationService.getTuning();
+        long marginMs = tuning.maxTickLatenessMs() + tuning.candleCloseDelayMs() + tuning.maxFlushDelayMs();
+        int replaced = tickLogReplay.replay(sequence, tickLogTailer.getCursor(), marginMs);
+
+        ResponseEntity<Map<String, Object>> response = status();
+        response.getBody().put("replaced", replaced);
+        return response;
+    }
+}
@@ -0,0 +1,26 @@
+package com.multibank.application.ticklog;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "ticklog")
+public class TickLogProperties {
+
+    // When enabled, feed handlers append to the tick log and the aggregator tails it
+    private boolean enabled = false;
+
+    private String directory = "data/ticklog";
+
+    // 1M records of 64 bytes = 64MB per segment file
+    private int recordsPerSegment = 1 << 20;
+
+    // Fully consumed segments kept around for replay
+    private int retainedSegments = 16;
+
+    private int maxBatchSize = 4096;
+
+    private long idleParkMicros = 200;
+}
@@ -0,0 +1,132 @@
+package com.multibank.application.ticklog;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.repository.CandleCustomJdbcRepository;
+import com.multibank.application.symbol.SymbolRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-aggregates ticks of the log that the live aggregator already consumed. The candles are built here, apart from
+ * the live buffers and without its lateness bound, and written with batchReplace, so the stored candles are rebuilt
+ * instead of having the replayed volume added to them a second time.
+ * <p>
+ * A candle near either end of the range may also hold ticks logged outside of it, and one near its end may still
+ * be open or unflushed in the live aggregator. Per symbol only candles more than {@code marginMs} inside the event
+ * times replayed are replaced; the others are left as stored.
+ */
+@Slf4j
+public class TickLogReplay {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final MappedTickLog tickLog;
+    private final CandleCustomJdbcRepository repository;
+    private final SymbolRegistry symbols;
+
+    public TickLogReplay(MappedTickLog tickLog, CandleCustomJdbcRepository repository, SymbolRegistry symbols) {
+        this.tickLog = tickLog;
+        this.repository = repository;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Rebuilds the 1s candles of the ticks in [fromSequence, toSequence)
+     *
+     * @return number of candles replaced
+     */
+    public int replay(long fromSequence, long toSequence, long marginMs) {
+        if (fromSequence < tickLog.firstSequence() || fromSequence > toSequence) {
+            throw new IllegalArgumentException("Sequence " + fromSequence + " is outside the consumed log ["
+                    + tickLog.firstSequence() + ", " + toSequence + "]");
+        }
+
+        Map<String, SymbolReplay> bySymbol = new HashMap<>();
+        long next = tickLog.replay(fromSequence, toSequence, event ->
+                bySymbol.computeIfAbsent(event.symbol(), s -> new SymbolReplay(event.timestamp()))
+                        .add(event.timestamp(), event.midPrice()));
+
+        List<CandleEntity> candles = new ArrayList<>();
+        int replaced = 0;
+        for (Map.Entry<String, SymbolReplay> entry : bySymbol.entrySet()) {
+            int symbolId = symbols.register(entry.getKey());
+            SymbolReplay replay = entry.getValue();
+            // Ticks logged before the range are at most marginMs newer than its first one, ticks logged after it
+            // at most marginMs older than its newest one
+            long after = replay.firstTimestamp + marginMs;
+            long before = CandleInterval.ONE_SECOND.alignTimestamp(replay.lastTimestamp - marginMs);
+
+            for (Map.Entry<Long, TickAggregator> candle : replay.candles.entrySet()) {
+                long startTime = candle.getKey();
+                if (startTime > after && startTime < before) {
+                    candles.add(candle.getValue().toEntity(startTime, symbolId));
+                }
+            }
+            if (candles.size() >= BATCH_SIZE) {
+                repository.batchReplace(candles);
+                replaced += candles.size();
+                candles = new ArrayList<>();
+            }
+        }
+        if (!candles.isEmpty()) {
+            repository.batchReplace(candles);
+            replaced += candles.size();
+        }
+
+        log.info("Replayed tick log [{}, {}): {} candles of {} symbols replaced", fromSequence, next, replaced,
+                bySymbol.size());
+        return replaced;
+    }
+
+    private static class SymbolReplay {
+        private final long firstTimestamp;
+        private long lastTimestamp;
+        private final Map<Long, TickAggregator> candles = new HashMap<>();
+
+        SymbolReplay(long firstTimestamp) {
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = firstTimestamp;
+        }
+
+        void add(long timestamp, double price) {
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+            candles.computeIfAbsent(CandleInterval.ONE_SECOND.alignTimestamp(timestamp), t -> new TickAggregator())
+                    .add(timestamp, price);
+        }
+    }
+
+    // Open and close are decided by tick timestamp, like in the live aggregator
+    private static class TickAggregator {
+        private long openTimestamp = Long.MAX_VALUE;
+        private long closeTimestamp = Long.MIN_VALUE;
+        private double open;
+        private double high = -Double.MAX_VALUE;
+        private double low = Double.MAX_VALUE;
+        private double close;
+        private long volume;
+
+        void add(long timestamp, double price) {
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            volume++;
+
+            if (timestamp < openTimestamp) {
+                openTimestamp = timestamp;
+                open = price;
+            }
+            if (timestamp > closeTimestamp) {
+                closeTimestamp = timestamp;
+                close = price;
+            }
+        }
+
+        CandleEntity toEntity(long startTime, int symbolId) {
+            return new CandleEntity(new CandleEntity.CandleId(startTime, symbolId), open, high, low, close, volume);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.multibank.application.ticklog;
+
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.service.CandleAggregationService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tails the tick log on its own thread and feeds the ticks into aggregation.
+ * The cursor is kept in a small memory-mapped file so aggregation resumes where it stopped after a restart.
+ * Ticks behind the cursor are re-aggregated by {@link TickLogReplay}, not by moving the cursor back.
+ */
+@Slf4j
+public class TickLogTailer {
+
+    private final MappedTickLog tickLog;
+    private final CandleAggregationService candleAggregationService;
+    private final TickLogProperties properties;
+    private final MappedByteBuffer cursorFile;
+    private final Thread thread;
+
+    private volatile long cursor;
+    private volatile boolean running = true;
+
+    public TickLogTailer(MappedTickLog tickLog, CandleAggregationService candleAggregationService,
+                         TickLogProperties properties) {
+        this.tickLog = tickLog;
+        this.candleAggregationService = candleAggregationService;
+        this.properties = properties;
+
+        try (FileChannel channel = FileChannel.open(Path.of(properties.getDirectory(), "aggregator.cursor"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.cursorFile = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open tick log cursor", e);
+        }
+        this.cursor = Math.max(cursorFile.getLong(0), tickLog.firstSequence());
+
+        this.thread = Thread.ofPlatform().name("tick-log-tailer").daemon().unstarted(this::run);
+    }
+
+    public void start() {
+        log.info("Tailing tick log from sequence {} (head {})", cursor, tickLog.headSequence());
+        thread.start();
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public long getLag() {
+        return tickLog.headSequence() - cursor;
+    }
+
+    private void run() {
+        long idleParkNanos = TimeUnit.MICROSECONDS.toNanos(properties.getIdleParkMicros());
+        long retainedRecords = (long) properties.getRetainedSegments() * properties.getRecordsPerSegment();
+
+        while (running) {
+            try {
+                long position = cursor;
+                long next = tickLog.replay(position, position + properties.getMaxBatchSize(),
+                        candleAggregationService::processEventSync);
+
+                if (next == position) {
+                    LockSupport.parkNanos(idleParkNanos);
+                    continue;
+                }
+
+                cursor = next;
+                cursorFile.putLong(0, next);
+
+                if (next / properties.getRecordsPerSegment() != position / properties.getRecordsPerSegment()) {
+                    tickLog.deleteBefore(next - retainedRecords);
+                }
+            } catch (Exception e) {
+                log.error("Error tailing tick log at sequence {}", cursor, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cursorFile.force();
+    }
+}
@@ -0,0 +1,48 @@
+package com.multibank.application.tickstore;
+
+/**
+ * Reads a stream written by {@link BitWriter}
+ */
+final class BitReader {
+
+    private final long[] words;
+    private int position;
+
+    BitReader(long[] words) {
+        this.words = words;
+    }
+
+    long read(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+
+        int wordIndex = position >>> 6;
+        int offset = position & 63;
+        int available = 64 - offset;
+        long result;
+
+        if (bits <= available) {
+            result = (words[wordIndex] << offset) >>> (64 - bits);
+        } else {
+            int spill = bits - available;
+            long high = (words[wordIndex] << offset) >>> offset;
+            long low = words[wordIndex + 1] >>> (64 - spill);
+            result = (high << spill) | low;
+        }
+        position += bits;
+        return result;
+    }
+
+    boolean readBit() {
+        return read(1) == 1;
+    }
+
+    /**
+     * Reads {@code bits} bits as a two's complement signed value
+     */
+    long readSigned(int bits) {
+        long value = read(bits);
+        return bits == 64 ? value : (value << (64 - bits)) >> (64 - bits);
+    }
+}
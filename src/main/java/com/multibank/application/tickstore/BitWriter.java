@@ -0,0 +1,78 @@
+package com.multibank.application.tickstore;
+
+import java.util.Arrays;
+
+/**
+ * Growable MSB-first bit stream backed by a long array
+ */
+final class BitWriter {
+
+    private long[] words;
+    private int bitCount;
+
+    BitWriter(int initialWords) {
+        this.words = new long[Math.max(1, initialWords)];
+    }
+
+    /**
+     * Appends the low {@code bits} bits of {@code value}
+     */
+    void write(long value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        ensureCapacity(bitCount + bits);
+
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+
+        int wordIndex = bitCount >>> 6;
+        int free = 64 - (bitCount & 63);
+
+        if (bits <= free) {
+            words[wordIndex] |= value << (free - bits);
+        } else {
+            int spill = bits - free;
+            words[wordIndex] |= value >>> spill;
+            words[wordIndex + 1] |= value << (64 - spill);
+        }
+        bitCount += bits;
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    int bitCount() {
+        return bitCount;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Bytes currently allocated for the stream
+     */
+    long allocatedBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    /**
+     * Drops the unused tail of the backing array once no more bits will be written
+     */
+    void trim() {
+        int used = (bitCount + 63) >>> 6;
+        if (used < words.length) {
+            words = Arrays.copyOf(words, Math.max(1, used));
+        }
+    }
+
+    private void ensureCapacity(int bits) {
+        int needed = (bits + 63) >>> 6;
+        if (needed > words.length) {
+            words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+        }
+    }
+}
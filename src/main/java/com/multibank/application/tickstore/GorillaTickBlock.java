@@ -0,0 +1,210 @@
+package com.multibank.application.tickstore;
+
+/**
+ * Compressed block of raw ticks of one symbol, after Facebook's Gorilla paper: timestamps as delta-of-delta with
+ * variable-length prefixes. Prices are not XORed as doubles, whose mantissa bits change almost completely with
+ * any move of a noisy price, but scaled to fixed-point longs of {@link #PRICE_SCALE} (the 4 decimals feeds quote
+ * in) and stored as the difference to a prediction: the previous bid for the bid, the bid plus the previous
+ * spread for the ask. A price with more decimals is stored as its raw double bits. A block is appended to by
+ * a single writer at a time and can be decoded any number of times; ticks come back in arrival order.
+ */
+final class GorillaTickBlock {
+
+    // Fixed cost of the block object, its encoder state and the BitWriter, on top of the bit stream itself
+    static final long OVERHEAD_BYTES = 128;
+
+    static final double PRICE_SCALE = 10_000.0;
+
+    // Widths of the price residual after a prefix of 1 to 6 '1' bits ended by a '0'; seven '1' bits mark a raw
+    // double. A residual of 0 is a single '0'
+    private static final int[] RESIDUAL_BITS = {4, 10, 16, 24, 32, 64};
+    private static final int RAW_PREFIX_BITS = RESIDUAL_BITS.length + 1;
+
+    private final BitWriter bits;
+    private final int capacity;
+
+    private int count;
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    private long previousTimestamp;
+    private long previousDelta;
+    private final PriceState prices = new PriceState();
+
+    GorillaTickBlock(int capacity) {
+        this.capacity = capacity;
+        this.bits = new BitWriter(16);
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long minTimestamp() {
+        return minTimestamp;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    long sizeBytes() {
+        return bits.allocatedBytes() + OVERHEAD_BYTES;
+    }
+
+    void seal() {
+        bits.trim();
+    }
+
+    void append(long timestamp, double bid, double ask) {
+        if (count == 0) {
+            bits.write(timestamp, 64);
+        } else {
+            long delta = timestamp - previousTimestamp;
+            writeDeltaOfDelta(delta - previousDelta);
+            previousDelta = delta;
+        }
+        long bidFixed = writePrice(bid, prices.bid);
+        long askFixed = writePrice(ask, bidFixed + prices.spread);
+        prices.update(bidFixed, askFixed);
+
+        previousTimestamp = timestamp;
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        count++;
+    }
+
+    /**
+     * Captures the ticks appended so far. The view stays valid while more ticks are appended: appends only
+     * set bits after the captured ones, and a grown stream is copied into a new array.
+     */
+    View view() {
+        return new View(bits.words(), count);
+    }
+
+    record View(long[] words, int count) {
+
+        void forEach(TickConsumer consumer) {
+            BitReader reader = new BitReader(words);
+            PriceState prices = new PriceState();
+            long timestamp = 0;
+            long delta = 0;
+
+            for (int i = 0; i < count; i++) {
+                if (i == 0) {
+                    timestamp = reader.read(64);
+                } else {
+                    delta += readDeltaOfDelta(reader);
+                    timestamp += delta;
+                }
+                double bid = readPrice(reader, prices.bid);
+                long bidFixed = fixed(bid);
+                double ask = readPrice(reader, bidFixed + prices.spread);
+                prices.update(bidFixed, fixed(ask));
+                consumer.accept(timestamp, bid, ask);
+            }
+        }
+    }
+
+    /**
+     * Writes the price as its fixed-point difference to {@code predicted}, or as raw bits if it has more
+     * decimals than the scale, and returns its fixed-point value as the decoder will see it
+     */
+    private long writePrice(double price, long predicted) {
+        long fixed = fixed(price);
+        if (fixed / PRICE_SCALE != price) {
+            bits.write(-1L, RAW_PREFIX_BITS);
+            bits.write(Double.doubleToRawLongBits(price), 64);
+            return fixed;
+        }
+
+        long residual = fixed - predicted;
+        if (residual == 0) {
+            bits.write(0b0, 1);
+            return fixed;
+        }
+        for (int i = 0; i < RESIDUAL_BITS.length; i++) {
+            int width = RESIDUAL_BITS[i];
+            if (width == 64 || (residual >= -(1L << (width - 1)) && residual < 1L << (width - 1))) {
+                // i + 1 '1' bits and the terminating '0'
+                bits.write(-2L, i + 2);
+                bits.write(residual, width);
+                break;
+            }
+        }
+        return fixed;
+    }
+
+    private static double readPrice(BitReader reader, long predicted) {
+        int ones = 0;
+        while (ones < RAW_PREFIX_BITS && reader.readBit()) {
+            ones++;
+        }
+        if (ones == 0) {
+            return predicted / PRICE_SCALE;
+        }
+        if (ones == RAW_PREFIX_BITS) {
+            return Double.longBitsToDouble(reader.read(64));
+        }
+        return (predicted + reader.readSigned(RESIDUAL_BITS[ones - 1])) / PRICE_SCALE;
+    }
+
+    private static long fixed(double price) {
+        return Math.round(price * PRICE_SCALE);
+    }
+
+    /**
+     * '0' for an unchanged delta, then '10', '110', '1110' prefixes for 7, 9 and 12 bit values
+     * and '1111' followed by the full 64 bits for anything larger
+     */
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            bits.write(0b0, 1);
+        } else if (deltaOfDelta >= -64 && deltaOfDelta < 64) {
+            bits.write(0b10, 2);
+            bits.write(deltaOfDelta, 7);
+        } else if (deltaOfDelta >= -256 && deltaOfDelta < 256) {
+            bits.write(0b110, 3);
+            bits.write(deltaOfDelta, 9);
+        } else if (deltaOfDelta >= -2048 && deltaOfDelta < 2048) {
+            bits.write(0b1110, 4);
+            bits.write(deltaOfDelta, 12);
+        } else {
+            bits.write(0b1111, 4);
+            bits.write(deltaOfDelta, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader reader) {
+        if (!reader.readBit()) {
+            return 0;
+        }
+        if (!reader.readBit()) {
+            return reader.readSigned(7);
+        }
+        if (!reader.readBit()) {
+            return reader.readSigned(9);
+        }
+        if (!reader.readBit()) {
+            return reader.readSigned(12);
+        }
+        return reader.readSigned(64);
+    }
+
+    /**
+     * Last bid and spread in fixed point, the prediction for the next tick
+     */
+    private static final class PriceState {
+        long bid;
+        long spread;
+
+        void update(long bidFixed, long askFixed) {
+            bid = bidFixed;
+            spread = askFixed - bidFixed;
+        }
+    }
+}
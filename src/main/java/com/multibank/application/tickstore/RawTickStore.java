@@ -0,0 +1,169 @@
+package com.multibank.application.tickstore;
+
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.model.PriceBasis;
+import com.multibank.application.service.AggregationListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the last minutes of raw ticks per symbol in Gorilla-compressed blocks so candles can be
+ * recomputed with different rules (another price basis, late ticks included in open/close) after the fact.
+ * Tick timestamps are epoch millis.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "tickstore", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RawTickStore implements AggregationListener {
+
+    private final TickStoreProperties properties;
+
+    private final Map<String, SymbolTickBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                evictExpired();
+            } catch (Exception e) {
+                log.error("Error evicting expired ticks", e);
+            }
+        }, 10, 10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onTick(BidAskEvent event) {
+        long grown;
+        do {
+            SymbolTickBuffer buffer = buffers.computeIfAbsent(event.symbol(),
+                    s -> new SymbolTickBuffer(properties.getTicksPerBlock()));
+            grown = buffer.append(event.timestamp(), event.bid(), event.ask());
+            if (grown < 0) {
+                // Expired as a whole meanwhile, start a new one
+                buffers.remove(event.symbol(), buffer);
+            }
+        } while (grown < 0);
+
+        if (usedBytes.addAndGet(grown) > properties.getMemoryBudgetBytes()) {
+            enforceBudget();
+        }
+    }
+
+    /**
+     * Rebuilds candles of {@code interval} for the seconds range [from, to] from the retained raw ticks.
+     * Open and close are decided by tick timestamp, so late ticks land where they belong. Candle times are epoch
+     * millis like those of /history.
+     */
+    public List<Candle> reaggregate(String symbol, CandleInterval interval, long from, long to, PriceBasis basis) {
+        SymbolTickBuffer buffer = buffers.get(symbol);
+        if (buffer == null) {
+            return List.of();
+        }
+
+        long intervalMs = interval.getSeconds() * 1000;
+        Map<Long, TickAggregator> buckets = new HashMap<>();
+
+        buffer.forEach(from * 1000, to * 1000 + 999, (timestamp, bid, ask) ->
+                buckets.computeIfAbsent(Math.floorDiv(timestamp, intervalMs), b -> new TickAggregator())
+                        .add(timestamp, basis.price(bid, ask)));
+
+        return buckets.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getValue().build(e.getKey() * intervalMs))
+                .toList();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    int symbolCount() {
+        return buffers.size();
+    }
+
+    void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(properties.getRetentionMinutes());
+        buffers.forEach((symbol, buffer) -> {
+            usedBytes.addAndGet(-buffer.evictOlderThan(cutoff));
+            // Symbols that stopped ticking are forgotten once their last ticks expire
+            if (buffer.retireIfEmpty()) {
+                buffers.remove(symbol, buffer);
+            }
+        });
+    }
+
+    /**
+     * Evicts the globally oldest sealed blocks until the store fits its budget again
+     */
+    private synchronized void enforceBudget() {
+        while (usedBytes.get() > properties.getMemoryBudgetBytes()) {
+            SymbolTickBuffer oldest = null;
+            long oldestTimestamp = Long.MAX_VALUE;
+
+            for (SymbolTickBuffer buffer : buffers.values()) {
+                long timestamp = buffer.oldestSealedTimestamp();
+                if (timestamp < oldestTimestamp) {
+                    oldestTimestamp = timestamp;
+                    oldest = buffer;
+                }
+            }
+
+            if (oldest == null) {
+                log.warn("Tick store budget of {} bytes is too small for the active blocks of {} symbols",
+                        properties.getMemoryBudgetBytes(), buffers.size());
+                return;
+            }
+            usedBytes.addAndGet(-oldest.evictOldest());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static class TickAggregator {
+        private long openTimestamp = Long.MAX_VALUE;
+        private long closeTimestamp = Long.MIN_VALUE;
+        private double open;
+        private double high = -Double.MAX_VALUE;
+        private double low = Double.MAX_VALUE;
+        private double close;
+        private long volume;
+
+        void add(long timestamp, double price) {
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            volume++;
+
+            if (timestamp < openTimestamp) {
+                openTimestamp = timestamp;
+                open = price;
+            }
+            if (timestamp > closeTimestamp) {
+                closeTimestamp = timestamp;
+                close = price;
+            }
+        }
+
+        Candle build(long time) {
+            return new Candle(time, open, high, low, close, volume);
+        }
+    }
+}
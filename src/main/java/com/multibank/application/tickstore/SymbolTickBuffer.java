@@ -0,0 +1,110 @@
+package com.multibank.application.tickstore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Recent raw ticks of one symbol as a queue of compressed blocks, oldest first, with the last one open for appends
+ */
+final class SymbolTickBuffer {
+
+    private final int ticksPerBlock;
+    private final Deque<GorillaTickBlock> blocks = new ArrayDeque<>();
+    private boolean retired;
+
+    SymbolTickBuffer(int ticksPerBlock) {
+        this.ticksPerBlock = ticksPerBlock;
+    }
+
+    /**
+     * Appends the tick and returns by how many bytes the buffer grew, or -1 without appending when the buffer
+     * was retired and the tick belongs in a new one
+     */
+    synchronized long append(long timestamp, double bid, double ask) {
+        if (retired) {
+            return -1;
+        }
+        long grown = 0;
+        GorillaTickBlock active = blocks.peekLast();
+
+        if (active == null || active.isFull()) {
+            if (active != null) {
+                long unsealed = active.sizeBytes();
+                active.seal();
+                grown += active.sizeBytes() - unsealed;
+            }
+            active = new GorillaTickBlock(ticksPerBlock);
+            blocks.addLast(active);
+            grown += active.sizeBytes();
+        }
+
+        long before = active.sizeBytes();
+        active.append(timestamp, bid, ask);
+        return grown + active.sizeBytes() - before;
+    }
+
+    /**
+     * Timestamp of the oldest tick still held, or Long.MAX_VALUE when only the active block is left
+     */
+    synchronized long oldestSealedTimestamp() {
+        GorillaTickBlock oldest = blocks.peekFirst();
+        return oldest == null || oldest == blocks.peekLast() ? Long.MAX_VALUE : oldest.minTimestamp();
+    }
+
+    /**
+     * Drops the oldest block unless it is the active one and returns the bytes released
+     */
+    synchronized long evictOldest() {
+        if (blocks.size() < 2) {
+            return 0;
+        }
+        return blocks.pollFirst().sizeBytes();
+    }
+
+    /**
+     * Drops all blocks whose ticks are all older than {@code timestamp} and returns the bytes released
+     */
+    synchronized long evictOlderThan(long timestamp) {
+        long released = 0;
+        while (!blocks.isEmpty() && blocks.peekFirst().maxTimestamp() < timestamp) {
+            released += blocks.pollFirst().sizeBytes();
+        }
+        return released;
+    }
+
+    /**
+     * Retires the buffer if it holds no ticks, so it can be forgotten without losing a concurrent append
+     */
+    synchronized boolean retireIfEmpty() {
+        if (blocks.isEmpty()) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    /**
+     * Decodes all ticks in [from, to], in arrival order. Only the block views are captured under the lock,
+     * decoding happens without blocking appends.
+     */
+    void forEach(long from, long to, TickConsumer consumer) {
+        List<GorillaTickBlock.View> overlapping = new ArrayList<>();
+        synchronized (this) {
+            for (GorillaTickBlock block : blocks) {
+                if (block.count() > 0 && block.maxTimestamp() >= from && block.minTimestamp() <= to) {
+                    overlapping.add(block.view());
+                }
+            }
+        }
+
+        TickConsumer inRange = (timestamp, bid, ask) -> {
+            if (timestamp >= from && timestamp <= to) {
+                consumer.accept(timestamp, bid, ask);
+            }
+        };
+        for (GorillaTickBlock.View view : overlapping) {
+            view.forEach(inRange);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.multibank.application.tickstore;
+
+@FunctionalInterface
+public interface TickConsumer {
+    void accept(long timestamp, double bid, double ask);
+}
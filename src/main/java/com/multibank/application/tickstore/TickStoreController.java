@@ -0,0 +1,49 @@
+package com.multibank.application.tickstore;
+
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.model.PriceBasis;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "tickstore", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TickStoreController {
+
+    private final RawTickStore rawTickStore;
+
+    /**
+     * Recomputes candles from the retained raw ticks; same response shape as /history
+     */
+    @GetMapping("/history/reaggregate")
+    public ResponseEntity<Map<String, Object>> reaggregate(
+            @RequestParam String symbol,
+            @RequestParam String interval,
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(defaultValue = "mid") String price
+    ) {
+        List<Candle> candles = rawTickStore.reaggregate(symbol, CandleInterval.fromLabel(interval), from, to,
+                PriceBasis.fromLabel(price));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("s", "ok");
+        response.put("t", candles.stream().map(Candle::time).toList());
+        response.put("o", candles.stream().map(Candle::open).toList());
+        response.put("h", candles.stream().map(Candle::high).toList());
+        response.put("l", candles.stream().map(Candle::low).toList());
+        response.put("c", candles.stream().map(Candle::close).toList());
+        response.put("v", candles.stream().map(Candle::volume).toList());
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,21 @@
+package com.multibank.application.tickstore;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tickstore")
+public class TickStoreProperties {
+
+    private boolean enabled = true;
+
+    // Raw ticks older than this are dropped
+    private int retentionMinutes = 60;
+
+    // Hard cap on the compressed size of all symbols together; the oldest blocks are evicted first
+    private long memoryBudgetBytes = 64L * 1024 * 1024;
+
+    private int ticksPerBlock = 1024;
+}
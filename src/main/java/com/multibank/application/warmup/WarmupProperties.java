@@ -0,0 +1,30 @@
+package com.multibank.application.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    // Symbols to preload; empty means every symbol found in storage
+    private List<String> symbols = new ArrayList<>();
+
+    // Recent window requested per symbol and interval
+    private long windowSeconds = 2 * 3600;
+
+    // Rounds over all requests, so the hot paths get compiled before traffic arrives
+    private int iterations = 3;
+
+    private int parallelism = 4;
+
+    // Readiness is reported after this at the latest, even if warm-up is not done
+    private long timeoutSeconds = 60;
+}
@@ -0,0 +1,125 @@
+package com.multibank.application.warmup;
+
+import com.multibank.application.cluster.SymbolPartitioner;
+import com.multibank.application.config.LocalServerUrl;
+import com.multibank.application.controller.HistoryAdmissionControl;
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.service.impl.ParallelCandleAggregation;
+import com.multibank.application.symbol.SymbolRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.server.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Warms the instance up before it reports ready. Spring Boot switches readiness to ACCEPTING_TRAFFIC only after
+ * all application runners have returned, so this runner blocks startup until warm-up is done or
+ * warmup.timeout-seconds have passed.
+ * <p>
+ * The recent window of every local symbol is requested through this instance's own /history endpoint, at the
+ * server's actual scheme, port and context path, for every interval, in parallel. That loads the rows into the
+ * database caches and runs the real request path: routing, in-memory aggregation, response building, JSON
+ * serialization and compression. Synthetic data is run through the parallel aggregation, which regular requests
+ * only reach for very large ranges. The requests are exempt from /history admission control.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private final WarmupProperties properties;
+    private final SymbolRegistry symbolRegistry;
+    private final SymbolPartitioner symbolPartitioner;
+    private final ApplicationContext applicationContext;
+    private final HistoryAdmissionControl historyAdmissionControl;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            tasks.add(() -> exerciseAggregation());
+            // Without a web server there is no request path to warm up
+            if (applicationContext instanceof ServletWebServerApplicationContext context) {
+                RestClient client = RestClient.create(LocalServerUrl.of(context));
+                for (String symbol : symbols()) {
+                    for (CandleInterval interval : CandleInterval.values()) {
+                        tasks.add(() -> preload(client, symbol, interval));
+                    }
+                }
+            }
+
+            List<Future<Void>> futures = executor.invokeAll(tasks, properties.getTimeoutSeconds(), TimeUnit.SECONDS);
+            long failed = futures.stream().filter(f -> f.isCancelled() || failed(f)).count();
+
+            log.info("Warm-up ran {} tasks in {}ms ({} cancelled or failed)",
+                    tasks.size(), System.currentTimeMillis() - start, failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Warm-up is best effort and must never keep the instance from starting
+            log.warn("Warm-up aborted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> symbols() {
+        List<String> symbols = properties.getSymbols().isEmpty() ? symbolRegistry.names() : properties.getSymbols();
+        return symbols.stream().filter(symbolPartitioner::isLocal).toList();
+    }
+
+    private Void preload(RestClient client, String symbol, CandleInterval interval) {
+        long to = System.currentTimeMillis() / 1000;
+        long from = to - properties.getWindowSeconds();
+
+        for (int i = 0; i < properties.getIterations() && !Thread.currentThread().isInterrupted(); i++) {
+            client.get()
+                    .uri(uri -> uri.path("/history")
+                            .queryParam("symbol", symbol)
+                            .queryParam("interval", interval.getLabel())
+                            .queryParam("from", from)
+                            .queryParam("to", to)
+                            .build())
+                    .header("Accept-Encoding", "gzip")
+                    .header(HistoryAdmissionControl.INTERNAL_HEADER, historyAdmissionControl.internalToken())
+                    .retrieve()
+                    .toBodilessEntity();
+        }
+        return null;
+    }
+
+    private Void exerciseAggregation() {
+        List<Candle> candles = new ArrayList<>(86_400);
+        for (int i = 0; i < 86_400; i++) {
+            candles.add(new Candle(i, 100, 101, 99, 100.5, 1));
+        }
+
+        for (int i = 0; i < properties.getIterations() * 10 && !Thread.currentThread().isInterrupted(); i++) {
+            ParallelCandleAggregation.aggregate(candles, 60, ForkJoinPool.commonPool());
+        }
+        return null;
+    }
+
+    private static boolean failed(Future<Void> future) {
+        try {
+            future.get();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+}
@@ -1,21 +1,26 @@
+CREATE TABLE symbols (
+    id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(20) NOT NULL UNIQUE
+);
+
 CREATE TABLE candles_1s (
     time TIMESTAMPTZ NOT NULL,
-    symbol VARCHAR(20) NOT NULL,
+    symbol_id SMALLINT NOT NULL REFERENCES symbols (id),
     open DECIMAL(20, 8) NOT NULL,
     high DECIMAL(20, 8) NOT NULL,
     low DECIMAL(20, 8) NOT NULL,
     close DECIMAL(20, 8) NOT NULL,
     volume DECIMAL(20, 8) NOT NULL,
-    PRIMARY KEY (time, symbol)
+    PRIMARY KEY (time, symbol_id)
 );
 
 SELECT create_hypertable('candles_1s', 'time');
 
-CREATE INDEX idx_candles_1s_symbol_time ON candles_1s (symbol, time DESC);
+CREATE INDEX idx_candles_1s_symbol_time ON candles_1s (symbol_id, time DESC);
 
 ALTER TABLE candles_1s SET (
     timescaledb.compress,
-    timescaledb.compress_segmentby = 'symbol',
+    timescaledb.compress_segmentby = 'symbol_id',
     timescaledb.compress_orderby = 'time DESC'
     );
 
@@ -27,17 +32,17 @@ CREATE MATERIALIZED VIEW candles_5s
 WITH (timescaledb.continuous) AS
 SELECT
     time_bucket('5 seconds', time) AS time,
-    symbol,
+    symbol_id,
     FIRST(open, time) AS open,
     MAX(high) AS high,
     MIN(low) AS low,
     LAST(close, time) AS close,
     SUM(volume) AS volume
 FROM candles_1s
-GROUP BY time_bucket('5 seconds', time), symbol
+GROUP BY time_bucket('5 seconds', time), symbol_id
 WITH NO DATA;
 
-CREATE INDEX idx_candles_5s_symbol ON candles_5s (symbol, time DESC);
+CREATE INDEX idx_candles_5s_symbol ON candles_5s (symbol_id, time DESC);
 
 SELECT add_continuous_aggregate_policy(
     'candles_5s',
@@ -51,17 +56,17 @@ CREATE MATERIALIZED VIEW candles_1m
 WITH (timescaledb.continuous) AS
 SELECT
     time_bucket('1 minute', time) AS time,
-    symbol,
+    symbol_id,
     FIRST(open, time) AS open,
     MAX(high) AS high,
     MIN(low) AS low,
     LAST(close, time) AS close,
     SUM(volume) AS volume
 FROM candles_1s
-GROUP BY time_bucket('1 minute', time), symbol
+GROUP BY time_bucket('1 minute', time), symbol_id
 WITH NO DATA;
 
-CREATE INDEX idx_candles_1m_symbol ON candles_1m (symbol, time DESC);
+CREATE INDEX idx_candles_1m_symbol ON candles_1m (symbol_id, time DESC);
 
 SELECT add_continuous_aggregate_policy(
     'candles_1m',
@@ -75,17 +80,17 @@ CREATE MATERIALIZED VIEW candles_15m
 WITH (timescaledb.continuous) AS
 SELECT
     time_bucket('15 minutes', time) AS time,
-    symbol,
+    symbol_id,
     FIRST(open, time) AS open,
     MAX(high) AS high,
     MIN(low) AS low,
     LAST(close, time) AS close,
     SUM(volume) AS volume
 FROM candles_1s
-GROUP BY time_bucket('15 minutes', time), symbol
+GROUP BY time_bucket('15 minutes', time), symbol_id
 WITH NO DATA;
 
-CREATE INDEX idx_candles_15m_symbol ON candles_15m (symbol, time DESC);
+CREATE INDEX idx_candles_15m_symbol ON candles_15m (symbol_id, time DESC);
 
 SELECT add_continuous_aggregate_policy(
     'candles_15m',
@@ -99,17 +104,17 @@ CREATE MATERIALIZED VIEW candles_1h
 WITH (timescaledb.continuous) AS
 SELECT
     time_bucket('1 hour', time) AS time,
-    symbol,
+    symbol_id,
     FIRST(open, time) AS open,
     MAX(high) AS high,
     MIN(low) AS low,
     LAST(close, time) AS close,
     SUM(volume) AS volume
 FROM candles_1s
-GROUP BY time_bucket('1 hour', time), symbol
+GROUP BY time_bucket('1 hour', time), symbol_id
 WITH NO DATA;
 
-CREATE INDEX idx_candles_1h_symbol ON candles_1h (symbol, time DESC);
+CREATE INDEX idx_candles_1h_symbol ON candles_1h (symbol_id, time DESC);
 
 SELECT add_continuous_aggregate_policy(
     'candles_1h',
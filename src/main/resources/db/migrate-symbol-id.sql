@@ -0,0 +1,156 @@
+-- Upgrades a database created by db-init.sql before symbol ids, where candles_1s and its continuous aggregates
+-- are keyed by the symbol name, to the current schema. Stop the application first and run it with
+-- psql -v ON_ERROR_STOP=1 -f migrate-symbol-id.sql; the refreshes at the end cannot run inside a transaction.
+-- A database that can be rebuilt from scratch is simpler to drop and recreate with db-init.sql.
+
+BEGIN;
+
+-- The aggregates group by symbol and cannot be altered, they are rebuilt below
+DROP MATERIALIZED VIEW IF EXISTS candles_1h;
+DROP MATERIALIZED VIEW IF EXISTS candles_15m;
+DROP MATERIALIZED VIEW IF EXISTS candles_1m;
+DROP MATERIALIZED VIEW IF EXISTS candles_5s;
+
+CREATE TABLE symbols (
+    id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(20) NOT NULL UNIQUE
+);
+
+INSERT INTO symbols (name)
+SELECT DISTINCT symbol FROM candles_1s ORDER BY symbol;
+
+-- Compressed chunks cannot be updated, and compression is segmented by the column being replaced
+SELECT remove_compression_policy('candles_1s', if_exists => true);
+SELECT decompress_chunk(chunk, if_compressed => true) FROM show_chunks('candles_1s') AS chunk;
+ALTER TABLE candles_1s SET (timescaledb.compress = false);
+
+ALTER TABLE candles_1s ADD COLUMN symbol_id SMALLINT;
+
+UPDATE candles_1s c
+SET symbol_id = s.id
+FROM symbols s
+WHERE s.name = c.symbol;
+
+ALTER TABLE candles_1s ALTER COLUMN symbol_id SET NOT NULL;
+ALTER TABLE candles_1s ADD FOREIGN KEY (symbol_id) REFERENCES symbols (id);
+
+DROP INDEX idx_candles_1s_symbol_time;
+ALTER TABLE candles_1s DROP CONSTRAINT candles_1s_pkey;
+ALTER TABLE candles_1s DROP COLUMN symbol;
+ALTER TABLE candles_1s ADD PRIMARY KEY (time, symbol_id);
+
+CREATE INDEX idx_candles_1s_symbol_time ON candles_1s (symbol_id, time DESC);
+
+ALTER TABLE candles_1s SET (
+    timescaledb.compress,
+    timescaledb.compress_segmentby = 'symbol_id',
+    timescaledb.compress_orderby = 'time DESC'
+    );
+
+SELECT add_compression_policy('candles_1s', INTERVAL '1 month');
+
+
+
+CREATE MATERIALIZED VIEW candles_5s
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('5 seconds', time) AS time,
+    symbol_id,
+    FIRST(open, time) AS open,
+    MAX(high) AS high,
+    MIN(low) AS low,
+    LAST(close, time) AS close,
+    SUM(volume) AS volume
+FROM candles_1s
+GROUP BY time_bucket('5 seconds', time), symbol_id
+WITH NO DATA;
+
+CREATE INDEX idx_candles_5s_symbol ON candles_5s (symbol_id, time DESC);
+
+SELECT add_continuous_aggregate_policy(
+    'candles_5s',
+    start_offset => INTERVAL '10 minutes',
+    end_offset => INTERVAL '5 seconds',
+    schedule_interval => INTERVAL '1 minute');
+
+
+
+CREATE MATERIALIZED VIEW candles_1m
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 minute', time) AS time,
+    symbol_id,
+    FIRST(open, time) AS open,
+    MAX(high) AS high,
+    MIN(low) AS low,
+    LAST(close, time) AS close,
+    SUM(volume) AS volume
+FROM candles_1s
+GROUP BY time_bucket('1 minute', time), symbol_id
+WITH NO DATA;
+
+CREATE INDEX idx_candles_1m_symbol ON candles_1m (symbol_id, time DESC);
+
+SELECT add_continuous_aggregate_policy(
+    'candles_1m',
+    start_offset => INTERVAL '1 hour',
+    end_offset => INTERVAL '1 minute',
+    schedule_interval => INTERVAL '1 minute');
+
+
+
+CREATE MATERIALIZED VIEW candles_15m
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('15 minutes', time) AS time,
+    symbol_id,
+    FIRST(open, time) AS open,
+    MAX(high) AS high,
+    MIN(low) AS low,
+    LAST(close, time) AS close,
+    SUM(volume) AS volume
+FROM candles_1s
+GROUP BY time_bucket('15 minutes', time), symbol_id
+WITH NO DATA;
+
+CREATE INDEX idx_candles_15m_symbol ON candles_15m (symbol_id, time DESC);
+
+SELECT add_continuous_aggregate_policy(
+    'candles_15m',
+    start_offset => INTERVAL '1 hour',
+    end_offset => INTERVAL '1 minute',
+    schedule_interval => INTERVAL '1 minute');
+
+
+
+CREATE MATERIALIZED VIEW candles_1h
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 hour', time) AS time,
+    symbol_id,
+    FIRST(open, time) AS open,
+    MAX(high) AS high,
+    MIN(low) AS low,
+    LAST(close, time) AS close,
+    SUM(volume) AS volume
+FROM candles_1s
+GROUP BY time_bucket('1 hour', time), symbol_id
+WITH NO DATA;
+
+CREATE INDEX idx_candles_1h_symbol ON candles_1h (symbol_id, time DESC);
+
+SELECT add_continuous_aggregate_policy(
+    'candles_1h',
+    start_offset => INTERVAL '12 hours',
+    end_offset => INTERVAL '1 minute',
+    schedule_interval => INTERVAL '1 minute');
+
+COMMIT;
+
+
+
+-- Materialize the history the dropped aggregates held
+CALL refresh_continuous_aggregate('candles_5s', NULL, NULL);
+CALL refresh_continuous_aggregate('candles_1m', NULL, NULL);
+CALL refresh_continuous_aggregate('candles_15m', NULL, NULL);
+CALL refresh_continuous_aggregate('candles_1h', NULL, NULL);
@@ -0,0 +1,98 @@
+package com.multibank.application.archive;
+
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleArchiveTest {
+
+    private static final long DAY = 20_089; // 2025-01-01
+    private static final long DAY_START_MS = DAY * CandleArchive.DAY_MS;
+    private static final int BTC = 1;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testFullDayRoundTripsAcrossBlocks() {
+        CandleArchive archive = archive();
+        CandleBatch day = oneSecondCandles(DAY_START_MS, 86_400);
+
+        archive.write(BTC, DAY, day);
+
+        CandleBatch read = new CandleBatch();
+        archive.read(BTC, DAY_START_MS, DAY_START_MS + CandleArchive.DAY_MS - 1, read);
+        assertThat(read).isEqualTo(day);
+    }
+
+    @Test
+    void testReadsOnlyTheRequestedRange() {
+        CandleArchive archive = archive();
+        archive.write(BTC, DAY, oneSecondCandles(DAY_START_MS, 20_000));
+
+        CandleBatch read = new CandleBatch();
+        archive.read(BTC, DAY_START_MS + 5_000_000, DAY_START_MS + 5_009_000, read);
+
+        assertThat(read.toList()).extracting(Candle::time)
+                .containsExactly(LongStream.rangeClosed(5_000, 5_009)
+                        .map(s -> DAY_START_MS + s * 1000).boxed().toArray(Long[]::new));
+    }
+
+    @Test
+    void testTracksArchiveBoundaryAcrossRestarts() {
+        CandleArchive archive = archive();
+        assertThat(archive.archivedUntilMs(BTC)).isEqualTo(Long.MIN_VALUE);
+
+        archive.write(BTC, DAY, oneSecondCandles(DAY_START_MS, 10));
+        archive.write(BTC, DAY + 1, oneSecondCandles(DAY_START_MS + CandleArchive.DAY_MS, 10));
+
+        assertThat(archive.archivedUntilMs(BTC)).isEqualTo(DAY_START_MS + 2 * CandleArchive.DAY_MS);
+        assertThat(archive().archivedUntilMs(BTC)).isEqualTo(DAY_START_MS + 2 * CandleArchive.DAY_MS);
+    }
+
+    @Test
+    void testRewritingADayKeepsCandlesArchivedBefore() {
+        CandleArchive archive = archive();
+        archive.write(BTC, DAY, CandleBatch.of(List.of(
+                new Candle(DAY_START_MS, 100, 110, 90, 105, 10),
+                new Candle(DAY_START_MS + 1000, 105, 115, 95, 110, 12))));
+        archive.write(BTC, DAY, CandleBatch.of(List.of(
+                new Candle(DAY_START_MS + 1000, 105, 120, 95, 111, 13),
+                new Candle(DAY_START_MS + 2000, 111, 112, 100, 101, 5))));
+
+        CandleBatch read = new CandleBatch();
+        archive.read(BTC, DAY_START_MS, DAY_START_MS + 10_000, read);
+
+        assertThat(read.toList()).containsExactly(
+                new Candle(DAY_START_MS, 100, 110, 90, 105, 10),
+                new Candle(DAY_START_MS + 1000, 105, 120, 95, 111, 13),
+                new Candle(DAY_START_MS + 2000, 111, 112, 100, 101, 5));
+    }
+
+    private CandleArchive archive() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory.toString());
+        return new CandleArchive(properties);
+    }
+
+    private static CandleBatch oneSecondCandles(long startMs, int count) {
+        Random random = new Random(11);
+        CandleBatch candles = new CandleBatch(count);
+        double price = 100;
+        for (int i = 0; i < count; i++) {
+            double open = price;
+            price = Math.round((price + random.nextGaussian() * 0.1) * 100) / 100.0;
+            candles.add(startMs + i * 1000L, open, Math.max(open, price), Math.min(open, price), price,
+                    1 + random.nextInt(20));
+        }
+        return candles;
+    }
+}
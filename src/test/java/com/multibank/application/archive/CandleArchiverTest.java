@@ -0,0 +1,83 @@
+package com.multibank.application.archive;
+
+import com.multibank.application.cluster.SymbolPartitioner;
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
+import com.multibank.application.repository.CandleCustomJdbcRepositoryImpl;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.multibank.application.archive.CandleArchive.DAY_MS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CandleArchiverTest {
+
+    @TempDir
+    Path directory;
+
+    private final CandleCustomJdbcRepositoryImpl repository = mock(CandleCustomJdbcRepositoryImpl.class);
+    private final SymbolPartitioner partitioner = mock(SymbolPartitioner.class);
+    private final SymbolRegistry registry = SymbolRegistry.inMemory();
+
+    private CandleArchive archive;
+    private CandleArchiver archiver;
+
+    // The only day old enough to be archived with after-days=1
+    private final long day = Math.floorDiv(System.currentTimeMillis(), DAY_MS) - 2;
+    private final long dayStartMs = day * DAY_MS;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory.toString());
+        properties.setAfterDays(1);
+        archive = new CandleArchive(properties);
+        archiver = new CandleArchiver(properties, archive, repository, registry, partitioner);
+
+        when(repository.find1sCandleBatchToArchive(anyInt(), anyLong(), anyLong())).thenReturn(new CandleBatch());
+    }
+
+    @Test
+    void testArchivesTheLastSecondOfTheDay() {
+        int btc = registry.register("BTC-USD");
+        when(partitioner.isLocal("BTC-USD")).thenReturn(true);
+        when(repository.findOldest1sCandleTime(btc)).thenReturn(dayStartMs);
+
+        List<Candle> candles = List.of(
+                new Candle(dayStartMs, 100, 110, 90, 105, 10),
+                new Candle(dayStartMs + DAY_MS - 1000, 105, 115, 95, 110, 12));
+        when(repository.find1sCandleBatchToArchive(btc, dayStartMs, dayStartMs + DAY_MS))
+                .thenReturn(CandleBatch.of(candles));
+
+        archiver.archiveDueDays();
+
+        // Read and delete cover the same half-open day, so nothing is deleted that was not written
+        verify(repository).find1sCandleBatchToArchive(btc, dayStartMs, dayStartMs + DAY_MS);
+        verify(repository).delete1sCandles(btc, dayStartMs, dayStartMs + DAY_MS);
+
+        CandleBatch read = new CandleBatch();
+        archive.read(btc, dayStartMs, dayStartMs + DAY_MS - 1, read);
+        assertThat(read.toList()).containsExactlyElementsOf(candles);
+    }
+
+    @Test
+    void testSkipsSymbolsOwnedByOtherNodes() {
+        int eth = registry.register("ETH-USD");
+        when(partitioner.isLocal("ETH-USD")).thenReturn(false);
+        when(repository.findOldest1sCandleTime(eth)).thenReturn(dayStartMs);
+
+        archiver.archiveDueDays();
+
+        verify(repository, never()).findOldest1sCandleTime(eth);
+        verify(repository, never()).delete1sCandles(anyInt(), anyLong(), anyLong());
+        assertThat(archive.archivedUntilMs(eth)).isEqualTo(Long.MIN_VALUE);
+    }
+}
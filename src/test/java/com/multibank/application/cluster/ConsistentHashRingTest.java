@@ -0,0 +1,63 @@
+package com.multibank.application.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final List<ClusterMember> THREE_NODES = List.of(
+            new ClusterMember("node-1", "http://localhost:8081"),
+            new ClusterMember("node-2", "http://localhost:8082"),
+            new ClusterMember("node-3", "http://localhost:8083")
+    );
+
+    @Test
+    void testOwnerIsIndependentOfMemberOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_NODES, 128);
+        ConsistentHashRing reversed = new ConsistentHashRing(THREE_NODES.reversed(), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            String symbol = "SYM-" + i;
+            assertThat(reversed.ownerOf(symbol)).isEqualTo(ring.ownerOf(symbol));
+        }
+    }
+
+    @Test
+    void testSymbolsAreSpreadOverAllNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < 3000; i++) {
+            counts.merge(ring.ownerOf("SYM-" + i).nodeId(), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(3);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(700, 1300));
+    }
+
+    @Test
+    void testAddingNodeOnlyMovesSymbolsToNewNode() {
+        ConsistentHashRing before = new ConsistentHashRing(THREE_NODES, 128);
+        ClusterMember node4 = new ClusterMember("node-4", "http://localhost:8084");
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of(THREE_NODES.get(0), THREE_NODES.get(1), THREE_NODES.get(2), node4), 128);
+
+        int moved = 0;
+        for (int i = 0; i < 3000; i++) {
+            String symbol = "SYM-" + i;
+            ClusterMember oldOwner = before.ownerOf(symbol);
+            ClusterMember newOwner = after.ownerOf(symbol);
+            if (!oldOwner.equals(newOwner)) {
+                assertThat(newOwner).isEqualTo(node4);
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(400, 1100);
+    }
+}
@@ -0,0 +1,236 @@
+package com.multibank.application.cluster;
+
+import com.multibank.application.controller.HistoryAdmissionControl;
+import com.multibank.application.controller.HistoryAdmissionProperties;
+import com.multibank.application.controller.HistoryExecutionProperties;
+import com.sun.net.httpserver.HttpExchange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HistoryRoutingFilterTest {
+
+    private static final String BODY = "{\"s\":\"ok\"}";
+    private static final String ETAG = "\"c0ffee\"";
+
+    // Symbol the owner answers with 429
+    private static final String OVER_BUDGET = "SOL-USD";
+    // Symbol the owner takes longer to answer than the execution timeout
+    private static final String SLOW = "DOGE-USD";
+    private static final long TIMEOUT_MS = 200;
+
+    private final SymbolPartitioner partitioner = mock(SymbolPartitioner.class);
+
+    // Headers of the last request the owner received, by lower case name
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+
+    private final ClusterProperties properties = new ClusterProperties();
+    private final HistoryAdmissionControl admission =
+            new HistoryAdmissionControl(new HistoryAdmissionProperties(), new SimpleMeterRegistry());
+
+    private HttpServer owner;
+    private HistoryRoutingFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext("/history", this::serveHistory);
+        owner.start();
+
+        ClusterMember node2 = new ClusterMember("node-2", "http://localhost:" + owner.getAddress().getPort());
+        when(partitioner.ownerOf("BTC-USD")).thenReturn(node2);
+        when(partitioner.ownerOf(OVER_BUDGET)).thenReturn(node2);
+        when(partitioner.ownerOf(SLOW)).thenReturn(node2);
+
+        HistoryExecutionProperties executionProperties = new HistoryExecutionProperties();
+        executionProperties.setTimeoutMs(TIMEOUT_MS);
+        filter = new HistoryRoutingFilter(properties, partitioner, admission, executionProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.stop(0);
+    }
+
+    @Test
+    void testLiveTailIsServedByOwnerWithItsCachingHeaders() throws Exception {
+        MockHttpServletRequest request = liveTailRequest("BTC-USD");
+        request.addHeader("Accept-Encoding", "identity");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).as("served locally").isNull();
+        assertThat(received).containsEntry("x-cluster-forwarded", "true")
+                .containsEntry("accept-encoding", "identity");
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+        assertThat(response.getContentType()).startsWith("application/json");
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("no-cache");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    }
+
+    @Test
+    void testIfNoneMatchIsRevalidatedByOwner() throws Exception {
+        MockHttpServletRequest request = liveTailRequest("BTC-USD");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(received).containsEntry("if-none-match", ETAG);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void testRetryAfterOfRejectedRequestReachesClient() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(liveTailRequest(OVER_BUDGET), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("3");
+    }
+
+    @Test
+    void testClientIsForwardedWithTheSharedSecret() throws Exception {
+        properties.setForwardingSecret("s3cret");
+        MockHttpServletRequest request = liveTailRequest("BTC-USD");
+        request.setRemoteAddr("10.0.0.7");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(received).containsEntry("x-cluster-client", "10.0.0.7")
+                .containsEntry("x-cluster-secret", "s3cret");
+    }
+
+    @Test
+    void testForwardedClientIsOnlyTrustedFromMembers() throws Exception {
+        properties.setForwardingSecret("s3cret");
+
+        MockHttpServletRequest forwarded = forwardedRequest("s3cret");
+        filter.doFilter(forwarded, new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(admission.clientOf(new ServletWebRequest(forwarded))).isEqualTo("10.0.0.7");
+
+        MockHttpServletRequest forged = forwardedRequest("guess");
+        filter.doFilter(forged, new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(admission.clientOf(new ServletWebRequest(forged))).isEqualTo("10.0.0.2");
+
+        // Without a secret nothing forwarded is trusted
+        properties.setForwardingSecret("");
+        MockHttpServletRequest unsigned = forwardedRequest("");
+        filter.doFilter(unsigned, new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(admission.clientOf(new ServletWebRequest(unsigned))).isEqualTo("10.0.0.2");
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void testOwnerThatDoesNotAnswerInTimeFallsBackToLocal() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        long start = System.nanoTime();
+
+        filter.doFilter(liveTailRequest(SLOW), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void testLocalSymbolIsServedLocally() throws Exception {
+        when(partitioner.isLocal("ETH-USD")).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(liveTailRequest("ETH-USD"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void testUnreachableOwnerFallsBackToLocal() throws Exception {
+        when(partitioner.ownerOf("BTC-USD")).thenReturn(new ClusterMember("node-2", "http://localhost:1"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(liveTailRequest("BTC-USD"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest liveTailRequest(String symbol) {
+        long now = System.currentTimeMillis() / 1000;
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/history");
+        request.addParameter("symbol", symbol);
+        request.addParameter("interval", "1m");
+        request.addParameter("from", String.valueOf(now - 3600));
+        request.addParameter("to", String.valueOf(now));
+        request.setQueryString("symbol=" + symbol + "&interval=1m&from=" + (now - 3600) + "&to=" + now);
+        return request;
+    }
+
+    private static MockHttpServletRequest forwardedRequest(String secret) {
+        MockHttpServletRequest request = liveTailRequest("BTC-USD");
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader(HistoryRoutingFilter.FORWARDED_HEADER, "true");
+        request.addHeader(HistoryRoutingFilter.CLIENT_HEADER, "10.0.0.7");
+        request.addHeader(HistoryRoutingFilter.SECRET_HEADER, secret);
+        return request;
+    }
+
+    private void serveHistory(HttpExchange exchange) throws IOException {
+        exchange.getRequestHeaders().forEach((name, values) ->
+                received.put(name.toLowerCase(Locale.ROOT), values.getFirst()));
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (exchange.getRequestURI().getQuery().contains("symbol=" + SLOW)) {
+            sleep(TimeUnit.SECONDS.toMillis(3));
+        }
+
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        if (ETAG.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+        } else if (exchange.getRequestURI().getQuery().contains("symbol=" + OVER_BUDGET)) {
+            exchange.getResponseHeaders().add("Retry-After", "3");
+            exchange.sendResponseHeaders(429, -1);
+        } else {
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.multibank.application.cluster;
+
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.OpenCandleState;
+import com.multibank.application.service.AggregationProperties;
+import com.multibank.application.service.impl.CandleAggregationServiceImpl;
+import com.multibank.application.service.impl.CandleSinkDispatcher;
+import com.multibank.application.simulation.InMemoryCandleRepository;
+import com.multibank.application.simulation.SimulatedClock;
+import com.multibank.application.simulation.SimulatedScheduler;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export on the old owner and import on the new one, as done by {@link ClusterCoordinator} when a symbol moves
+ */
+class OpenCandleHandoverTest {
+
+    private static final long START_MS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+
+    private final SimulatedScheduler scheduler = new SimulatedScheduler(new SimulatedClock(START_MS));
+    private final InMemoryCandleRepository repository = new InMemoryCandleRepository(scheduler, (nowMs, size) -> 1);
+    private final SymbolRegistry symbols = SymbolRegistry.inMemory();
+
+    private final CandleAggregationServiceImpl oldOwner = service();
+    private final CandleAggregationServiceImpl newOwner = service();
+
+    @AfterEach
+    void tearDown() {
+        oldOwner.shutdown();
+        newOwner.shutdown();
+    }
+
+    @Test
+    void testHandedOverCandleIsMergedWithTicksOfTheNewOwner() {
+        long t = START_MS + 100;
+        oldOwner.processEventSync(new BidAskEvent("BTC-USD", 100, 102, t));
+        oldOwner.processEventSync(new BidAskEvent("BTC-USD", 110, 112, t));
+        oldOwner.processEventSync(new BidAskEvent("ETH-USD", 10, 12, t));
+
+        List<OpenCandleState> moved = oldOwner.exportOpenCandles("BTC-USD"::equals);
+        assertThat(moved).extracting(OpenCandleState::symbol).containsExactly("BTC-USD");
+
+        newOwner.importOpenCandles(moved);
+        newOwner.processEventSync(new BidAskEvent("BTC-USD", 90, 92, t));
+
+        scheduler.advance(2000);
+
+        // One candle with all three ticks, written by the new owner only
+        assertThat(repository.find1sCandleBatch(symbols.idOf("BTC-USD"), t, t).toList())
+                .containsExactly(new Candle(t, 101, 111, 91, 101, 3));
+        // Symbols that did not move stay with the old owner
+        assertThat(repository.find1sCandleBatch(symbols.idOf("ETH-USD"), t, t).toList())
+                .containsExactly(new Candle(t, 11, 11, 11, 11, 1));
+        assertThat(repository.totalVolume()).isEqualTo(4);
+    }
+
+    @Test
+    void testExportLeavesOtherSymbolsOpen() {
+        long t = START_MS + 100;
+        oldOwner.processEventSync(new BidAskEvent("BTC-USD", 100, 102, t));
+        oldOwner.processEventSync(new BidAskEvent("ETH-USD", 10, 12, t));
+
+        assertThat(oldOwner.exportOpenCandles("SOL-USD"::equals)).isEmpty();
+        assertThat(oldOwner.exportOpenCandles(symbol -> true))
+                .extracting(OpenCandleState::symbol)
+                .containsExactlyInAnyOrder("BTC-USD", "ETH-USD");
+        assertThat(oldOwner.exportOpenCandles(symbol -> true)).isEmpty();
+    }
+
+    @Test
+    void testTicksRacingTheExportAreNotLost() throws Exception {
+        long t = START_MS + 100;
+        int threads = 4;
+        int ticksPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<OpenCandleState> moved = new ArrayList<>();
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                producers.add(executor.submit(() -> {
+                    for (int n = 0; n < ticksPerThread; n++) {
+                        oldOwner.processEventSync(new BidAskEvent("BTC-USD", 100, 102, t));
+                    }
+                }));
+            }
+            for (Future<?> producer : producers) {
+                while (!producer.isDone()) {
+                    moved.addAll(oldOwner.exportOpenCandles("BTC-USD"::equals));
+                }
+                producer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        newOwner.importOpenCandles(moved);
+        scheduler.advance(2000);
+
+        // Every tick is either in an exported candle or in one the old owner opened after the export
+        assertThat(repository.totalVolume()).isEqualTo((long) threads * ticksPerThread);
+    }
+
+    private CandleAggregationServiceImpl service() {
+        return new CandleAggregationServiceImpl(repository, symbols, new AggregationProperties(), List.of(),
+                CandleSinkDispatcher.none(), scheduler.clock(), scheduler);
+    }
+}
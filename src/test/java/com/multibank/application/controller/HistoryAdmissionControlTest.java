@@ -0,0 +1,200 @@
+package com.multibank.application.controller;
+
+import com.multibank.application.model.CandleInterval;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoryAdmissionControlTest {
+
+    private static final long FROM = 1_620_000_000L;
+    private static final long DAY = 86_400;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testCostFollowsTheTierThatServesTheQuery() {
+        HistoryAdmissionControl admission = admission(properties());
+
+        assertThat(admission.estimateCost(CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null)).isEqualTo(100 + DAY);
+        assertThat(admission.estimateCost(CandleInterval.ONE_MINUTE, FROM, FROM + DAY - 1, null)).isEqualTo(100 + 1440);
+        // maxPoints moves a day of 1s candles to 15m buckets
+        assertThat(admission.estimateCost(CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, 500)).isEqualTo(100 + 96);
+    }
+
+    @Test
+    void testRejectsOverBudgetUntilRefilled() {
+        HistoryAdmissionProperties properties = properties();
+        properties.setMaxQueryCost(200_000);
+        properties.setBucketCapacity(200_000);
+        properties.setRefillPerSecond(10_000);
+        properties.setMaxQueueMs(0);
+        HistoryAdmissionControl admission = admission(properties);
+
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null);
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null);
+
+        // 27,000 tokens left, 59,500 missing at 10,000/s
+        assertThatThrownBy(() -> admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null))
+                .isInstanceOf(HistoryQueryRejectedException.class)
+                .extracting(e -> ((HistoryQueryRejectedException) e).getRetryAfterSeconds())
+                .isEqualTo(6L);
+
+        // Other clients have their own budget
+        admission.admit(request("10.0.0.2"), CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null);
+
+        assertThat(meterRegistry.get("history.admission.rejected").tag("reason", "budget").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testWaitsForBudgetWithinMaxQueueTime() {
+        HistoryAdmissionProperties properties = properties();
+        properties.setMaxQueryCost(1_100);
+        properties.setBucketCapacity(1_100);
+        properties.setRefillPerSecond(100_000);
+        properties.setMaxQueueMs(100);
+        HistoryAdmissionControl admission = admission(properties);
+
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+        long start = System.nanoTime();
+        // 1,100 missing at 100/ms: queued for 11ms
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(11));
+        assertThat(meterRegistry.get("history.admission.queued").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testInterruptedWaitIsACancellation() {
+        HistoryAdmissionProperties properties = properties();
+        properties.setMaxQueryCost(1_100);
+        properties.setBucketCapacity(1_100);
+        properties.setRefillPerSecond(100_000);
+        properties.setMaxQueueMs(100);
+        HistoryAdmissionControl admission = admission(properties);
+
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM,
+                    FROM + 999, null))
+                    .isInstanceOf(CancellationException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testInterruptedWaitIsRefunded() {
+        HistoryAdmissionProperties properties = properties();
+        properties.setMaxQueryCost(1_100);
+        properties.setBucketCapacity(1_100);
+        properties.setRefillPerSecond(100_000);
+        properties.setMaxQueueMs(15);
+        HistoryAdmissionControl admission = admission(properties);
+
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM,
+                    FROM + 999, null))
+                    .isInstanceOf(CancellationException.class);
+        } finally {
+            Thread.interrupted();
+        }
+
+        // Queued for 11ms again; had the cancelled request been charged, it would be 22ms and rejected
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+        assertThat(meterRegistry.get("history.admission.rejected").tag("reason", "budget").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void testIdleClientsAreForgottenAndStartWithAFullBudget() {
+        HistoryAdmissionProperties properties = properties();
+        properties.setMaxQueryCost(1_100);
+        properties.setBucketCapacity(1_100);
+        properties.setRefillPerSecond(100_000);
+        properties.setMaxQueueMs(0);
+        properties.setMaxClients(1);
+        HistoryAdmissionControl admission = admission(properties);
+
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(11));
+        // Evicts the refilled bucket of the first client, not the new one of the second
+        admission.admit(request("10.0.0.2"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+
+        admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM, FROM + 999, null);
+        assertThatThrownBy(() -> admission.admit(request("10.0.0.2"), CandleInterval.ONE_SECOND, FROM,
+                FROM + 999, null))
+                .isInstanceOf(HistoryQueryRejectedException.class);
+    }
+
+    @Test
+    void testRefusesQueriesAboveTheMaximumCost() {
+        HistoryAdmissionControl admission = admission(properties());
+
+        assertThatThrownBy(() -> admission.admit(request("10.0.0.1"), CandleInterval.ONE_SECOND, FROM,
+                FROM + 30 * DAY, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxPoints");
+    }
+
+    @Test
+    void testClientHeaderAndInternalToken() {
+        HistoryAdmissionProperties properties = properties();
+        properties.setClientHeader("X-Api-Key");
+        properties.setBucketCapacity(1_000_000);
+        properties.setRefillPerSecond(1);
+        properties.setMaxQueueMs(0);
+        HistoryAdmissionControl admission = admission(properties);
+
+        ServletWebRequest first = request("10.0.0.1");
+        ((MockHttpServletRequest) first.getRequest()).addHeader("X-Api-Key", "a");
+        for (int i = 0; i < 11; i++) {
+            admission.admit(first, CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null);
+        }
+        assertThatThrownBy(() -> admission.admit(first, CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null))
+                .isInstanceOf(HistoryQueryRejectedException.class);
+
+        // Same address, different key
+        ServletWebRequest second = request("10.0.0.1");
+        ((MockHttpServletRequest) second.getRequest()).addHeader("X-Api-Key", "b");
+        admission.admit(second, CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null);
+
+        ServletWebRequest internal = request("10.0.0.1");
+        ((MockHttpServletRequest) internal.getRequest()).addHeader("X-Api-Key", "a");
+        ((MockHttpServletRequest) internal.getRequest())
+                .addHeader(HistoryAdmissionControl.INTERNAL_HEADER, admission.internalToken());
+        admission.admit(internal, CandleInterval.ONE_SECOND, FROM, FROM + DAY - 1, null);
+    }
+
+    private HistoryAdmissionControl admission(HistoryAdmissionProperties properties) {
+        return new HistoryAdmissionControl(properties, meterRegistry, nanos::get);
+    }
+
+    private static HistoryAdmissionProperties properties() {
+        return new HistoryAdmissionProperties();
+    }
+
+    private static ServletWebRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
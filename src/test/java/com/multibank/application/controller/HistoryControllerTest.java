@@ -1,21 +1,55 @@
 package com.multibank.application.controller;
 
+import com.multibank.application.cluster.ClusterMember;
+import com.multibank.application.cluster.ClusterProperties;
+import com.multibank.application.cluster.HistoryRoutingFilter;
+import com.multibank.application.cluster.SymbolPartitioner;
 import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
 import com.multibank.application.model.CandleInterval;
+import com.multibank.application.service.AggregationProperties;
+import com.multibank.application.service.AggregationTuning;
 import com.multibank.application.service.CandleAggregationService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.hamcrest.Matchers.containsString;
@@ -27,7 +61,7 @@ class HistoryControllerTest {
     void getHistory_ok() {
         String symbol = "BTC-USD";
         long from = 1_620_000_000L;
-        long to = from + 180;
+        long to = from + 179;
 
         List<Candle> candles = Arrays.asList(
                 new Candle(from, 100, 110, 90, 105, 10),
@@ -35,54 +69,30 @@ class HistoryControllerTest {
         );
 
         CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
-        when(service.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to)).thenReturn(candles);
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to)).thenReturn(CandleBatch.of(candles));
 
-        HistoryController controller = new HistoryController(service);
+        HistoryController controller = new HistoryController(service, coalescer(), cachePolicy(), admission(), queryExecutor());
 
-        ResponseEntity<Map<String, Object>> response = controller.getHistory(symbol, "1m", from, to);
+        ResponseEntity<Map<String, Object>> response = await(controller.getHistory(symbol, "1m", from, to, null, webRequest()));
 
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
         Map<String, Object> body = response.getBody();
         assertThat(body).isNotNull();
         assertThat(body.get("s")).isEqualTo("ok");
-        List<?> t = (List<?>) body.get("t");
-        List<?> o = (List<?>) body.get("o");
-        List<?> h = (List<?>) body.get("h");
-        List<?> l = (List<?>) body.get("l");
-        List<?> c = (List<?>) body.get("c");
-        List<?> v = (List<?>) body.get("v");
+        assertThat((long[]) body.get("t")).containsExactly(from, from + 60);
+        assertThat((double[]) body.get("o")).containsExactly(100.0, 105.0);
+        assertThat((double[]) body.get("h")).containsExactly(110.0, 120.0);
+        assertThat((double[]) body.get("l")).containsExactly(90.0, 100.0);
+        assertThat((double[]) body.get("c")).containsExactly(105.0, 115.0);
+        assertThat((long[]) body.get("v")).containsExactly(10L, 12L);
 
-        assertThat(t).hasSize(2);
-        assertThat(((Number) t.get(0)).longValue()).isEqualTo(from);
-        assertThat(((Number) t.get(1)).longValue()).isEqualTo(from + 60);
-
-        assertThat(o).hasSize(2);
-        assertThat(((Number) o.get(0)).doubleValue()).isEqualTo(100.0);
-        assertThat(((Number) o.get(1)).doubleValue()).isEqualTo(105.0);
-
-        assertThat(h).hasSize(2);
-        assertThat(((Number) h.get(0)).doubleValue()).isEqualTo(110.0);
-        assertThat(((Number) h.get(1)).doubleValue()).isEqualTo(120.0);
-
-        assertThat(l).hasSize(2);
-        assertThat(((Number) l.get(0)).doubleValue()).isEqualTo(90.0);
-        assertThat(((Number) l.get(1)).doubleValue()).isEqualTo(100.0);
-
-        assertThat(c).hasSize(2);
-        assertThat(((Number) c.get(0)).doubleValue()).isEqualTo(105.0);
-        assertThat(((Number) c.get(1)).doubleValue()).isEqualTo(115.0);
-
-        assertThat(v).hasSize(2);
-        assertThat(((Number) v.get(0)).longValue()).isEqualTo(10L);
-        assertThat(((Number) v.get(1)).longValue()).isEqualTo(12L);
-
-        verify(service).getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to);
+        verify(service).getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to);
     }
 
     @Test
     @DisplayName("HistoryController returns error payload for invalid interval label")
     void getHistory_invalidInterval() {
-        HistoryController controller = new HistoryController(Mockito.mock(CandleAggregationService.class));
+        HistoryController controller = new HistoryController(Mockito.mock(CandleAggregationService.class), coalescer(), cachePolicy(), admission(), queryExecutor());
 
         MockMvc mockMvc = MockMvcBuilders
                 .standaloneSetup(controller)
@@ -108,23 +118,408 @@ class HistoryControllerTest {
     void getHistory_empty() {
         String symbol = "XRP-USD";
         long from = 1_620_000_000L;
-        long to = from + 60;
+        long to = from + 119;
 
         CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
-        when(service.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to)).thenReturn(Collections.emptyList());
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to)).thenReturn(CandleBatch.empty());
 
-        HistoryController controller = new HistoryController(service);
+        HistoryController controller = new HistoryController(service, coalescer(), cachePolicy(), admission(), queryExecutor());
 
-        ResponseEntity<Map<String, Object>> response = controller.getHistory(symbol, "1m", from, to);
+        ResponseEntity<Map<String, Object>> response = await(controller.getHistory(symbol, "1m", from, to, null, webRequest()));
 
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
         Map<String, Object> body = response.getBody();
         assertThat(body).isNotNull();
-        assertThat((List<?>) body.get("t")).isEmpty();
-        assertThat((List<?>) body.get("o")).isEmpty();
-        assertThat((List<?>) body.get("h")).isEmpty();
-        assertThat((List<?>) body.get("l")).isEmpty();
-        assertThat((List<?>) body.get("c")).isEmpty();
-        assertThat((List<?>) body.get("v")).isEmpty();
+        assertThat((long[]) body.get("t")).isEmpty();
+        assertThat((double[]) body.get("o")).isEmpty();
+        assertThat((double[]) body.get("h")).isEmpty();
+        assertThat((double[]) body.get("l")).isEmpty();
+        assertThat((double[]) body.get("c")).isEmpty();
+        assertThat((long[]) body.get("v")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("HistoryController forwards maxPoints to the downsampling service call")
+    void getHistory_maxPoints() {
+        String symbol = "BTC-USD";
+        long from = 1_620_000_000L;
+        long to = from + 86_400;
+
+        List<Candle> candles = List.of(new Candle(from, 100, 110, 90, 105, 10));
+
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_SECOND, from, to, 500)).thenReturn(CandleBatch.of(candles));
+
+        HistoryController controller = new HistoryController(service, coalescer(), cachePolicy(), admission(), queryExecutor());
+
+        ResponseEntity<Map<String, Object>> response = await(controller.getHistory(symbol, "1s", from, to, 500, webRequest()));
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat((long[]) response.getBody().get("t")).hasSize(1);
+        verify(service).getCandleBatch(symbol, CandleInterval.ONE_SECOND, from, to, 500);
+    }
+
+    @Test
+    @DisplayName("HistoryController shares one query between identical concurrent requests")
+    void getHistory_coalescesConcurrentRequests() throws Exception {
+        String symbol = "BTC-USD";
+        long from = 1_620_000_000L;
+        long to = from + 7_200;
+
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        // Read up to the end of the minute holding to
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to + 59)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return CandleBatch.of(List.of(new Candle(from, 100, 110, 90, 105, 10)));
+        });
+
+        HistoryRequestCoalescer coalescer = coalescer();
+        HistoryController controller = new HistoryController(service, coalescer, cachePolicy(), admission(), queryExecutor());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<DeferredResult<ResponseEntity<Map<String, Object>>>> first =
+                    executor.submit(() -> controller.getHistory(symbol, "1m", from, to, null, webRequest()));
+            assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Same minute buckets, so the same chart
+            Future<DeferredResult<ResponseEntity<Map<String, Object>>>> second =
+                    executor.submit(() -> controller.getHistory(symbol, "1m", from + 5, to + 10, null, webRequest()));
+            while (coalescer.getCoalescedCount() < 1) {
+                Thread.onSpinWait();
+            }
+            releaseQuery.countDown();
+
+            assertThat(await(second.get(5, TimeUnit.SECONDS)).getBody())
+                    .isSameAs(await(first.get(5, TimeUnit.SECONDS)).getBody());
+        } finally {
+            releaseQuery.countDown();
+            executor.shutdownNow();
+        }
+
+        verify(service, times(1)).getCandleBatch(Mockito.eq(symbol), Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+        assertThat(coalescer.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("HistoryController rejects a client over its query budget with 429 and Retry-After")
+    void getHistory_overBudget() throws Exception {
+        String symbol = "BTC-USD";
+        long from = 1_620_000_000L;
+        long to = from + 86_399;
+
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getCandleBatch(Mockito.eq(symbol), Mockito.any(), Mockito.anyLong(), Mockito.anyLong()))
+                .thenReturn(CandleBatch.empty());
+
+        HistoryAdmissionProperties properties = new HistoryAdmissionProperties();
+        properties.setMaxQueryCost(100_000);
+        properties.setBucketCapacity(100_000);
+        properties.setRefillPerSecond(1_000);
+        properties.setMaxQueueMs(0);
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new HistoryController(service, coalescer(), cachePolicy(),
+                        new HistoryAdmissionControl(properties, new SimpleMeterRegistry()), queryExecutor()))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        // A day of 1s candles uses up most of the budget, a second one has to wait for it
+        perform(mockMvc, get("/history")
+                        .param("symbol", symbol)
+                        .param("interval", "1s")
+                        .param("from", String.valueOf(from))
+                        .param("to", String.valueOf(to)))
+                .andExpect(status().isOk());
+
+        perform(mockMvc, get("/history")
+                        .param("symbol", symbol)
+                        .param("interval", "1s")
+                        .param("from", String.valueOf(from))
+                        .param("to", String.valueOf(to)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.s").value("error"));
+
+        // The same day as 1m candles is cheap enough
+        perform(mockMvc, get("/history")
+                        .param("symbol", symbol)
+                        .param("interval", "1m")
+                        .param("from", String.valueOf(from))
+                        .param("to", String.valueOf(to)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("HistoryController records a History Request event for rejected and failed requests too")
+    void getHistory_recordsTheOutcomeOfEveryRequest(@TempDir Path dir) throws Exception {
+        String symbol = "BTC-USD";
+        long from = 1_620_000_000L;
+        long to = from + 86_399;
+
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getCandleBatch(Mockito.eq(symbol), Mockito.any(), Mockito.anyLong(), Mockito.anyLong()))
+                .thenReturn(CandleBatch.empty());
+
+        HistoryAdmissionProperties properties = new HistoryAdmissionProperties();
+        properties.setMaxQueryCost(100_000);
+        properties.setBucketCapacity(100_000);
+        properties.setRefillPerSecond(1_000);
+        properties.setMaxQueueMs(0);
+        HistoryController controller = new HistoryController(service, coalescer(), cachePolicy(),
+                new HistoryAdmissionControl(properties, new SimpleMeterRegistry()), queryExecutor());
+
+        Path file = dir.resolve("history.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.multibank.HistoryRequest").withThreshold(Duration.ZERO);
+            recording.start();
+
+            assertThat(await(controller.getHistory(symbol, "1s", from, to, null, webRequest())).getStatusCode().value())
+                    .isEqualTo(200);
+            DeferredResult<ResponseEntity<Map<String, Object>>> rejected =
+                    controller.getHistory(symbol, "1s", from, to, null, webRequest());
+            while (!rejected.hasResult()) {
+                Thread.onSpinWait();
+            }
+            assertThat(rejected.getResult()).isInstanceOf(HistoryQueryRejectedException.class);
+            assertThatThrownBy(() -> controller.getHistory(symbol, "2m", from, to, null, webRequest()))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertThat(RecordingFile.readAllEvents(file))
+                .filteredOn(event -> event.getEventType().getName().equals("com.multibank.HistoryRequest"))
+                .extracting(event -> event.getString("outcome"))
+                .containsExactlyInAnyOrder("ok", "rejected", "bad_request");
+    }
+
+    private static HistoryRequestCoalescer coalescer() {
+        return new HistoryRequestCoalescer(new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("HistoryController answers revalidation of a settled window with 304 without querying")
+    void getHistory_settledWindowIsImmutable() throws Exception {
+        String symbol = "BTC-USD";
+        long from = 1_620_000_000L;
+        long to = from + 86_399;
+
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_HOUR, from, to))
+                .thenReturn(CandleBatch.of(List.of(new Candle(from, 100, 110, 90, 105, 10))));
+
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new HistoryController(service, coalescer(), cachePolicy(), admission(), queryExecutor()))
+                .build();
+
+        String etag = perform(mockMvc, get("/history")
+                        .param("symbol", symbol)
+                        .param("interval", "1h")
+                        .param("from", String.valueOf(from))
+                        .param("to", String.valueOf(to)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).startsWith("\"");
+
+        perform(mockMvc, get("/history")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .param("symbol", symbol)
+                        .param("interval", "1h")
+                        .param("from", String.valueOf(from))
+                        .param("to", String.valueOf(to)))
+                .andExpect(status().isNotModified());
+
+        verify(service, times(1)).getCandleBatch(symbol, CandleInterval.ONE_HOUR, from, to);
+    }
+
+    @Test
+    @DisplayName("HistoryController keeps a window revalidated while the lateness bound still lets ticks change it")
+    void getHistory_windowWithinTheLatenessBoundIsNotImmutable() {
+        String symbol = "BTC-USD";
+        long to = System.currentTimeMillis() / 60_000 * 60 - 1_801;
+        long from = to - 3_599;
+
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to)).thenReturn(CandleBatch.empty());
+        AggregationTuning defaults = new AggregationProperties().toTuning();
+        AggregationTuning hourOfLateness = new AggregationTuning(defaults.eventThreads(), defaults.schedulerThreads(),
+                defaults.candleCloseDelayMs(), defaults.closeCheckIntervalMs(), defaults.maxFlushDelayMs(),
+                defaults.flushCheckIntervalMs(), defaults.realtimeWindowSeconds(), 3_600_000);
+
+        // Ended half an hour ago: final with the default tuning, not with an hour of lateness
+        ResponseEntity<Map<String, Object>> settled = await(new HistoryController(service, coalescer(), cachePolicy(),
+                admission(), queryExecutor()).getHistory(symbol, "1m", from, to, null, webRequest()));
+        ResponseEntity<Map<String, Object>> late = await(new HistoryController(service, coalescer(),
+                cachePolicy(hourOfLateness), admission(), queryExecutor())
+                .getHistory(symbol, "1m", from, to, null, webRequest()));
+
+        assertThat(settled.getHeaders().getCacheControl()).contains("immutable");
+        assertThat(late.getHeaders().getCacheControl()).isEqualTo("max-age=1, public");
+    }
+
+    @Test
+    @DisplayName("HistoryController reads whole buckets, so requests within the same buckets get the same window")
+    void getHistory_requestsWithinTheSameBucketsShareTheWindow() throws Exception {
+        String symbol = "BTC-USD";
+        long from = 1_620_000_000L;
+        long to = from + 3_599;
+
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to))
+                .thenReturn(CandleBatch.of(List.of(new Candle(from, 100, 110, 90, 105, 10))));
+
+        HistoryController controller = new HistoryController(service, coalescer(), cachePolicy(), admission(), queryExecutor());
+        ResponseEntity<Map<String, Object>> first = await(controller.getHistory(symbol, "1m", from, to, null, webRequest()));
+        // One second into the first minute and short of the end of the last one
+        ResponseEntity<Map<String, Object>> second =
+                await(controller.getHistory(symbol, "1m", from + 1, to - 30, null, webRequest()));
+
+        assertThat((long[]) second.getBody().get("t")).containsExactly(from);
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        verify(service, times(2)).getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to);
+    }
+
+    @Test
+    @DisplayName("HistoryController gives the live tail a short max-age and a content ETag")
+    void getHistory_liveTailIsShortLived() {
+        String symbol = "BTC-USD";
+        // Whole minutes up to the current one
+        long to = System.currentTimeMillis() / 60_000 * 60 + 59;
+        long from = to - 659;
+
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to))
+                .thenReturn(CandleBatch.of(List.of(new Candle(from, 100, 110, 90, 105, 10))));
+
+        HistoryController controller = new HistoryController(service, coalescer(), cachePolicy(), admission(), queryExecutor());
+        ResponseEntity<Map<String, Object>> first = await(controller.getHistory(symbol, "1m", from, to, null, webRequest()));
+
+        when(service.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to))
+                .thenReturn(CandleBatch.of(List.of(new Candle(from, 100, 111, 90, 106, 11))));
+        ResponseEntity<Map<String, Object>> second = await(controller.getHistory(symbol, "1m", from, to, null, webRequest()));
+
+        assertThat(first.getHeaders().getCacheControl()).isEqualTo("max-age=1, public");
+        assertThat(first.getHeaders().getETag()).isNotEqualTo(second.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("HistoryController revalidates a live tail forwarded to the symbol owner by its ETag")
+    void getHistory_forwardedLiveTailKeepsETag() throws Exception {
+        String symbol = "BTC-USD";
+        // Whole minutes up to the current one
+        long to = System.currentTimeMillis() / 60_000 * 60 + 59;
+        long from = to - 659;
+        String uri = "/history?symbol=" + symbol + "&interval=1m&from=" + from + "&to=" + to;
+
+        CandleAggregationService ownerService = Mockito.mock(CandleAggregationService.class);
+        when(ownerService.getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to))
+                .thenReturn(CandleBatch.of(List.of(new Candle(from, 100, 110, 90, 105, 10))));
+        MockMvc ownerMvc = MockMvcBuilders
+                .standaloneSetup(new HistoryController(ownerService, coalescer(), cachePolicy(), admission(), queryExecutor()))
+                .build();
+
+        HttpServer owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext("/history", exchange -> serve(ownerMvc, exchange));
+        owner.start();
+        try {
+            SymbolPartitioner partitioner = Mockito.mock(SymbolPartitioner.class);
+            when(partitioner.ownerOf(symbol))
+                    .thenReturn(new ClusterMember("node-2", "http://localhost:" + owner.getAddress().getPort()));
+
+            CandleAggregationService localService = Mockito.mock(CandleAggregationService.class);
+            MockMvc mockMvc = MockMvcBuilders
+                    .standaloneSetup(new HistoryController(localService, coalescer(), cachePolicy(), admission(), queryExecutor()))
+                    .addFilters(new HistoryRoutingFilter(new ClusterProperties(), partitioner, admission(),
+                            new HistoryExecutionProperties()))
+                    .build();
+
+            String etag = mockMvc.perform(get(uri))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=1, public"))
+                    .andExpect(jsonPath("$.s").value("ok"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(etag).startsWith("\"");
+
+            mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+            verify(ownerService, times(2)).getCandleBatch(symbol, CandleInterval.ONE_MINUTE, from, to);
+            Mockito.verifyNoInteractions(localService);
+        } finally {
+            owner.stop(0);
+        }
+    }
+
+    /**
+     * Serves a request received over HTTP with the given MockMvc, as the owner node would
+     */
+    private static void serve(MockMvc mockMvc, HttpExchange exchange) throws IOException {
+        try {
+            MockHttpServletRequestBuilder request = get(exchange.getRequestURI().toString());
+            exchange.getRequestHeaders().forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+            MockHttpServletResponse response = perform(mockMvc, request).andReturn().getResponse();
+
+            for (String name : response.getHeaderNames()) {
+                if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                    response.getHeaders(name).forEach(value -> exchange.getResponseHeaders().add(name, value));
+                }
+            }
+            byte[] body = response.getContentAsByteArray();
+            exchange.sendResponseHeaders(response.getStatus(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        } catch (Exception e) {
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static HistoryCachePolicy cachePolicy() {
+        return cachePolicy(new AggregationProperties().toTuning());
+    }
+
+    private static HistoryCachePolicy cachePolicy(AggregationTuning tuning) {
+        CandleAggregationService service = Mockito.mock(CandleAggregationService.class);
+        when(service.getTuning()).thenReturn(tuning);
+        return new HistoryCachePolicy(new HistoryCacheProperties(), service);
+    }
+
+    private static HistoryAdmissionControl admission() {
+        return new HistoryAdmissionControl(new HistoryAdmissionProperties(), new SimpleMeterRegistry());
+    }
+
+    private static HistoryQueryExecutor queryExecutor() {
+        return new HistoryQueryExecutor(new HistoryExecutionProperties(), new SimpleMeterRegistry());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<Map<String, Object>> await(DeferredResult<ResponseEntity<Map<String, Object>>> result) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!result.hasResult()) {
+            assertThat(System.currentTimeMillis()).as("result within 5s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+        return (ResponseEntity<Map<String, Object>>) result.getResult();
+    }
+
+    /**
+     * Performs a request that is handled asynchronously and dispatches its result
+     */
+    private static ResultActions perform(MockMvc mockMvc, MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andReturn();
+        started.getAsyncResult(5_000);
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
     }
 }
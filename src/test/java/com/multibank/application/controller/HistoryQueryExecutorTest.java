@@ -0,0 +1,82 @@
+package com.multibank.application.controller;
+
+import com.multibank.application.repository.QueryDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryQueryExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private HistoryQueryExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void testRunsUnderItsOwnDeadline() {
+        executor = executor(1_000, 2);
+
+        DeferredResult<Object> result = executor.execute(QueryDeadline::current);
+
+        assertThat(await(result)).isInstanceOf(QueryDeadline.class);
+        assertThat(QueryDeadline.current()).isNull();
+    }
+
+    @Test
+    void testFailsWhenNoQuerySlotFreesUpBeforeTheDeadline() throws Exception {
+        executor = executor(200, 1);
+        CountDownLatch holding = new CountDownLatch(1);
+
+        DeferredResult<String> slow = executor.execute(() -> executor.limited(() -> {
+            holding.countDown();
+            awaitRelease();
+            return "slow";
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long start = System.nanoTime();
+        DeferredResult<String> waiting = executor.execute(() -> executor.limited(() -> "fast"));
+
+        assertThat(await(waiting)).isInstanceOf(QueryTimeoutException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+
+        release.countDown();
+        assertThat(await(slow)).isEqualTo("slow");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Object await(DeferredResult<?> result) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!result.hasResult()) {
+            assertThat(System.currentTimeMillis()).as("result within 5s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+        return result.getResult();
+    }
+
+    private static HistoryQueryExecutor executor(long timeoutMs, int maxConcurrentQueries) {
+        HistoryExecutionProperties properties = new HistoryExecutionProperties();
+        properties.setTimeoutMs(timeoutMs);
+        properties.setMaxConcurrentQueries(maxConcurrentQueries);
+        return new HistoryQueryExecutor(properties, new SimpleMeterRegistry());
+    }
+}
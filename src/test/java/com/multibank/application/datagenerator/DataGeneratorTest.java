@@ -0,0 +1,23 @@
+package com.multibank.application.datagenerator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataGeneratorTest {
+
+    @Test
+    void testRoundsToFourDecimals() {
+        assertThat(DataGenerator.roundToTickSize(92300.123449)).isEqualTo(92300.1234);
+        assertThat(DataGenerator.roundToTickSize(92300.12345)).isEqualTo(92300.1235);
+        assertThat(DataGenerator.roundToTickSize(0.28549)).isEqualTo(0.2855);
+        assertThat(DataGenerator.roundToTickSize(0.00004)).isEqualTo(0.0);
+    }
+
+    @Test
+    void testRoundedPricesStayUnchanged() {
+        for (double price : new double[]{1.0, 0.997, 2.1, 139.2, 899.66, 3100.0, 0.285}) {
+            assertThat(DataGenerator.roundToTickSize(price)).isEqualTo(price);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.multibank.application.loadtest;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyProbeTest {
+
+    private static final long TIMESTAMP = 1_735_689_600_123L;
+
+    private final SymbolRegistry symbols = SymbolRegistry.inMemory();
+    private final LatencyProbe probe = new LatencyProbe(symbols);
+
+    @Test
+    void testRecordsTimeFromIntendedSendUntilFlush() {
+        long intended = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(250);
+        probe.track("BTC-USD", TIMESTAMP, intended);
+
+        probe.onCandlesFlushed(List.of(candle("ETH-USD"), candle("BTC-USD")));
+
+        Histogram recorded = probe.getRecorder().getIntervalHistogram();
+        assertThat(recorded.getTotalCount()).isEqualTo(1);
+        assertThat(recorded.getMaxValue()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(250));
+    }
+
+    @Test
+    void testOnlyTheFirstSampleOfACandleIsKept() {
+        probe.track("BTC-USD", TIMESTAMP, System.nanoTime() - TimeUnit.SECONDS.toNanos(2));
+        probe.track("BTC-USD", TIMESTAMP, System.nanoTime());
+
+        probe.onCandlesFlushed(List.of(candle("BTC-USD")));
+        // A correction of the same candle is not a second sample
+        probe.onCandlesFlushed(List.of(candle("BTC-USD")));
+
+        Histogram recorded = probe.getRecorder().getIntervalHistogram();
+        assertThat(recorded.getTotalCount()).isEqualTo(1);
+        assertThat(recorded.getMaxValue()).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toMicros(2));
+    }
+
+    @Test
+    void testLateTickIsVisibleWithTheCorrectionOfItsCandle() {
+        probe.track("BTC-USD", TIMESTAMP, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100));
+
+        probe.onCandlesCorrected(List.of(candle("BTC-USD")));
+
+        assertThat(probe.getRecorder().getIntervalHistogram().getTotalCount()).isEqualTo(1);
+        assertThat(probe.expireStale()).isZero();
+    }
+
+    @Test
+    void testSamplesThatNeverBecomeVisibleAreCountedAsLost() {
+        probe.track("BTC-USD", TIMESTAMP, System.nanoTime() - TimeUnit.MINUTES.toNanos(2));
+        probe.track("ETH-USD", TIMESTAMP, System.nanoTime());
+
+        assertThat(probe.expireStale()).isEqualTo(1);
+        assertThat(probe.expireStale()).isEqualTo(1);
+
+        probe.onCandlesFlushed(List.of(candle("BTC-USD"), candle("ETH-USD")));
+        assertThat(probe.getRecorder().getIntervalHistogram().getTotalCount()).isEqualTo(1);
+    }
+
+    private CandleEntity candle(String symbol) {
+        long time = CandleInterval.ONE_SECOND.alignTimestamp(TIMESTAMP);
+        return new CandleEntity(new CandleEntity.CandleId(time, symbols.register(symbol)), 1.0, 1.0, 1.0, 1.0, 1L);
+    }
+}
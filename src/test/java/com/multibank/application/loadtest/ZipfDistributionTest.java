@@ -0,0 +1,56 @@
+package com.multibank.application.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ZipfDistributionTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void testFrequenciesFollowTheExponent() {
+        double[] frequencies = frequencies(new ZipfDistribution(10, 1.0));
+
+        // 1 / (rank + 1) normalized by the 10th harmonic number
+        double harmonic = 0;
+        for (int i = 1; i <= 10; i++) {
+            harmonic += 1.0 / i;
+        }
+        for (int rank = 0; rank < 10; rank++) {
+            assertThat(frequencies[rank]).isCloseTo(1.0 / (rank + 1) / harmonic, within(0.01));
+        }
+    }
+
+    @Test
+    void testExponentZeroIsUniform() {
+        double[] frequencies = frequencies(new ZipfDistribution(8, 0.0));
+
+        for (double frequency : frequencies) {
+            assertThat(frequency).isCloseTo(1.0 / 8, within(0.01));
+        }
+    }
+
+    @Test
+    void testSamplesStayInRange() {
+        ZipfDistribution single = new ZipfDistribution(1, 1.1);
+        ZipfDistribution steep = new ZipfDistribution(2000, 3.0);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(single.sample()).isZero();
+            assertThat(steep.sample()).isBetween(0, 1999);
+        }
+    }
+
+    private static double[] frequencies(ZipfDistribution distribution) {
+        double[] frequencies = new double[10];
+        for (int i = 0; i < SAMPLES; i++) {
+            frequencies[distribution.sample()]++;
+        }
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] /= SAMPLES;
+        }
+        return frequencies;
+    }
+}
@@ -0,0 +1,56 @@
+package com.multibank.application.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleBatchTest {
+
+    @Test
+    void testGrowsAndTrimsColumns() {
+        CandleBatch batch = new CandleBatch(1);
+        for (int i = 0; i < 40; i++) {
+            batch.add(1000 + i, 100 + i, 110 + i, 90 + i, 105 + i, i);
+        }
+
+        assertThat(batch.size()).isEqualTo(40);
+        assertThat(batch.times().length).isGreaterThan(40);
+
+        batch.trimToSize();
+        assertThat(batch.times()).hasSize(40);
+        assertThat(batch.volumes()).hasSize(40);
+        assertThat(batch.get(39)).isEqualTo(new Candle(1039, 139, 149, 129, 144, 39));
+    }
+
+    @Test
+    void testListViewMatchesInput() {
+        List<Candle> candles = List.of(
+                new Candle(1000, 100, 110, 90, 105, 10),
+                new Candle(1001, 105, 115, 95, 110, 12));
+
+        CandleBatch batch = CandleBatch.of(candles);
+
+        assertThat(batch.toList()).isEqualTo(candles);
+        assertThat(batch).isEqualTo(CandleBatch.of(candles));
+        assertThat(CandleBatch.empty().toList()).isEmpty();
+    }
+
+    @Test
+    void testMergeByTimePrefersSecondBatchOnEqualTime() {
+        CandleBatch historical = CandleBatch.of(List.of(
+                new Candle(1000, 100, 110, 90, 105, 10),
+                new Candle(1002, 100, 110, 90, 105, 10),
+                new Candle(1004, 100, 110, 90, 105, 10)));
+        CandleBatch realtime = CandleBatch.of(List.of(
+                new Candle(1001, 200, 210, 190, 205, 20),
+                new Candle(1002, 200, 210, 190, 205, 20),
+                new Candle(1005, 200, 210, 190, 205, 20)));
+
+        CandleBatch merged = CandleBatch.mergeByTime(historical, realtime);
+
+        assertThat(merged.toList()).extracting(Candle::time).containsExactly(1000L, 1001L, 1002L, 1004L, 1005L);
+        assertThat(merged.get(2).open()).isEqualTo(200);
+    }
+}
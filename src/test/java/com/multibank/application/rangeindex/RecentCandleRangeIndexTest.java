@@ -0,0 +1,57 @@
+package com.multibank.application.rangeindex;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentCandleRangeIndexTest {
+
+    private static final long BASE_SECOND = 1_735_689_600L;
+
+    private final SymbolRegistry symbols = SymbolRegistry.inMemory();
+
+    @Test
+    void testSymbolIsIndexedFromItsFirstQueryOn() {
+        RecentCandleRangeIndex index = new RecentCandleRangeIndex(new RangeIndexProperties(), symbols);
+
+        index.onCandlesFlushed(List.of(candle("BTC-USD", BASE_SECOND, 5)));
+        assertThat(index.summarize("BTC-USD", BASE_SECOND, BASE_SECOND + 10)).isEmpty();
+
+        index.onCandlesFlushed(List.of(candle("BTC-USD", BASE_SECOND + 1, 3)));
+        assertThat(index.summarize("BTC-USD", BASE_SECOND, BASE_SECOND + 10))
+                .hasValueSatisfying(summary -> assertThat(summary.volume()).isEqualTo(3));
+        assertThat(index.summarize("UNKNOWN-USD", BASE_SECOND, BASE_SECOND + 10)).isEmpty();
+    }
+
+    @Test
+    void testLeastRecentlyQueriedSymbolIsDroppedBeyondTheLimit() {
+        RangeIndexProperties properties = new RangeIndexProperties();
+        properties.setMaxSymbols(2);
+        RecentCandleRangeIndex index = new RecentCandleRangeIndex(properties, symbols);
+        symbols.register("BTC-USD");
+        symbols.register("ETH-USD");
+        symbols.register("SOL-USD");
+
+        index.summarize("BTC-USD", BASE_SECOND, BASE_SECOND);
+        index.summarize("ETH-USD", BASE_SECOND, BASE_SECOND);
+        index.onCandlesFlushed(List.of(candle("BTC-USD", BASE_SECOND, 1), candle("ETH-USD", BASE_SECOND, 1)));
+        // BTC-USD is queried again, so ETH-USD makes room for SOL-USD
+        index.summarize("BTC-USD", BASE_SECOND, BASE_SECOND);
+        index.summarize("SOL-USD", BASE_SECOND, BASE_SECOND);
+        index.onCandlesFlushed(List.of(candle("SOL-USD", BASE_SECOND, 1)));
+
+        assertThat(index.summarize("BTC-USD", BASE_SECOND, BASE_SECOND)).isPresent();
+        assertThat(index.summarize("SOL-USD", BASE_SECOND, BASE_SECOND)).isPresent();
+        // Indexed again from now on, but its earlier candles are gone
+        assertThat(index.summarize("ETH-USD", BASE_SECOND, BASE_SECOND)).isEmpty();
+    }
+
+    private CandleEntity candle(String symbol, long second, long volume) {
+        return new CandleEntity(new CandleEntity.CandleId(second * 1000, symbols.register(symbol)), 1.0, 1.0, 1.0, 1.0,
+                volume);
+    }
+}
@@ -0,0 +1,112 @@
+package com.multibank.application.rangeindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolRangeIndexTest {
+
+    private static final long BASE_SECOND = 1_735_689_600L;
+
+    @Test
+    void testRangeQueriesMatchBruteForceAcrossRingWraps() {
+        assertMatchesBruteForce(1024);
+    }
+
+    @Test
+    void testWindowThatIsNotAPowerOfTwo() {
+        SymbolRangeIndex index = new SymbolRangeIndex(1000);
+        assertThat(index.capacity()).isEqualTo(1000);
+
+        assertMatchesBruteForce(1000);
+        assertMatchesBruteForce(21_600);
+    }
+
+    @Test
+    void testSecondsOutsideTheWindowAreForgotten() {
+        SymbolRangeIndex index = new SymbolRangeIndex(1024);
+        index.put(BASE_SECOND * 1000, 100, 200, 50, 150, 10, false);
+        index.put((BASE_SECOND + 1024) * 1000, 100, 101, 99, 100, 1, false);
+
+        // Same ring slot as the first candle, which has left the window
+        RangeSummary summary = index.query(BASE_SECOND, BASE_SECOND + 2000);
+
+        assertThat(summary.volume()).isEqualTo(1);
+        assertThat(summary.high()).isEqualTo(101);
+
+        // Too old to be indexed at all
+        index.put(BASE_SECOND * 1000, 100, 300, 50, 150, 10, false);
+        assertThat(index.query(BASE_SECOND, BASE_SECOND + 2000).high()).isEqualTo(101);
+    }
+
+    @Test
+    void testCorrectionReplacesMergedSecond() {
+        SymbolRangeIndex index = new SymbolRangeIndex(64);
+        index.put(BASE_SECOND * 1000, 100, 101, 99, 100, 2, false);
+        index.put(BASE_SECOND * 1000, 100, 105, 99, 104, 1, false);
+        assertThat(index.query(BASE_SECOND, BASE_SECOND).volume()).isEqualTo(3);
+
+        index.put(BASE_SECOND * 1000, 98, 105, 97, 104, 4, true);
+
+        assertThat(index.query(BASE_SECOND, BASE_SECOND))
+                .isEqualTo(new RangeSummary(BASE_SECOND * 1000, BASE_SECOND * 1000, 98, 105, 97, 104, 4));
+    }
+
+    private static void assertMatchesBruteForce(int windowSeconds) {
+        SymbolRangeIndex index = new SymbolRangeIndex(windowSeconds);
+        int seconds = 5000;
+        double[] open = new double[seconds];
+        double[] high = new double[seconds];
+        double[] low = new double[seconds];
+        double[] close = new double[seconds];
+        long[] volume = new long[seconds];
+        boolean[] present = new boolean[seconds];
+
+        Random random = new Random(3);
+        double price = 100;
+        for (int i = 0; i < seconds; i++) {
+            // Leave gaps, as symbols do not trade every second
+            if (random.nextInt(4) == 0) {
+                continue;
+            }
+            open[i] = price;
+            price += random.nextGaussian();
+            close[i] = price;
+            high[i] = Math.max(open[i], close[i]) + random.nextDouble();
+            low[i] = Math.min(open[i], close[i]) - random.nextDouble();
+            volume[i] = 1 + random.nextInt(50);
+            present[i] = true;
+            index.put((BASE_SECOND + i) * 1000, open[i], high[i], low[i], close[i], volume[i], false);
+
+            if (i % 97 == 0) {
+                int from = Math.max(0, i - index.capacity() + 1) + random.nextInt(Math.min(i + 1, index.capacity()));
+                int to = from + random.nextInt(i - from + 1);
+                RangeSummary summary = index.query(BASE_SECOND + from, BASE_SECOND + to);
+
+                int first = -1;
+                int last = -1;
+                double h = Double.NEGATIVE_INFINITY;
+                double l = Double.POSITIVE_INFINITY;
+                long v = 0;
+                for (int s = from; s <= to; s++) {
+                    if (present[s]) {
+                        first = first < 0 ? s : first;
+                        last = s;
+                        h = Math.max(h, high[s]);
+                        l = Math.min(l, low[s]);
+                        v += volume[s];
+                    }
+                }
+
+                if (first < 0) {
+                    assertThat(summary).isNull();
+                    continue;
+                }
+                assertThat(summary).isEqualTo(new RangeSummary((BASE_SECOND + first) * 1000, (BASE_SECOND + last) * 1000,
+                        open[first], h, l, close[last], v));
+            }
+        }
+    }
+}
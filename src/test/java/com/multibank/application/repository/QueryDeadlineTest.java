@@ -0,0 +1,63 @@
+package com.multibank.application.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class QueryDeadlineTest {
+
+    @Test
+    void testIsCurrentOnlyWhileCalled() {
+        QueryDeadline deadline = QueryDeadline.after(1_000);
+
+        assertThat(deadline.call(QueryDeadline::current)).isSameAs(deadline);
+        assertThat(QueryDeadline.current()).isNull();
+    }
+
+    @Test
+    void testStatementGetsRemainingTimeAndIsCancelled() throws Exception {
+        QueryDeadline deadline = QueryDeadline.after(2_500);
+        Statement statement = mock(Statement.class);
+
+        deadline.apply(statement);
+        verify(statement).setQueryTimeout(intThat(seconds -> seconds == 2 || seconds == 3));
+
+        deadline.cancel();
+        verify(statement).cancel();
+        assertThat(deadline.translate(new DataAccessResourceFailureException("canceling statement")))
+                .isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    void testReleasedStatementIsNotCancelled() throws Exception {
+        QueryDeadline deadline = QueryDeadline.after(1_000);
+        Statement statement = mock(Statement.class);
+
+        deadline.apply(statement);
+        deadline.release(statement);
+        deadline.cancel();
+
+        verify(statement, never()).cancel();
+        assertThatThrownBy(deadline::check).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    void testPassedDeadlineFailsAsTimeout() {
+        QueryDeadline deadline = QueryDeadline.after(0);
+
+        assertThatThrownBy(deadline::check).isInstanceOf(QueryTimeoutException.class);
+        assertThatThrownBy(() -> deadline.call(() -> {
+            throw new DataAccessResourceFailureException("canceling statement due to statement timeout");
+        })).isInstanceOf(QueryTimeoutException.class);
+    }
+}
@@ -0,0 +1,183 @@
+package com.multibank.application.repository.columnar;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarFileCandleRepositoryTest {
+
+    private static final long DAY_START_MS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+    private static final int BTC = 1;
+    private static final int ETH = 2;
+
+    @TempDir
+    Path directory;
+
+    private ColumnarFileCandleRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ColumnarStorageProperties properties = new ColumnarStorageProperties();
+        properties.setDirectory(directory.toString());
+        repository = new ColumnarFileCandleRepository(properties);
+    }
+
+    @Test
+    void testUpsertedCandlesAreReturnedInRange() {
+        repository.batchUpsert(List.of(
+                candle(DAY_START_MS + 2000, 100, 105, 99, 104, 3),
+                candle(DAY_START_MS + 5000, 104, 106, 103, 105, 2),
+                candle(DAY_START_MS + 9000, 105, 107, 100, 101, 4)
+        ));
+
+        List<Candle> candles = repository.find1sCandles(BTC, DAY_START_MS + 1000, DAY_START_MS + 5000);
+
+        assertThat(candles).extracting(Candle::time).containsExactly(DAY_START_MS + 2000, DAY_START_MS + 5000);
+        assertThat(candles.get(0).close()).isEqualTo(104);
+        assertThat(repository.find1sCandles(ETH, DAY_START_MS, DAY_START_MS + 10_000)).isEmpty();
+    }
+
+    @Test
+    void testRepeatedUpsertMergesLikeTheSqlUpsert() {
+        repository.batchUpsert(List.of(candle(DAY_START_MS + 1000, 100, 105, 99, 104, 3)));
+        repository.batchUpsert(List.of(candle(DAY_START_MS + 1000, 101, 110, 98, 102, 2)));
+
+        Candle merged = repository.find1sCandles(BTC, DAY_START_MS, DAY_START_MS + 1000).get(0);
+
+        assertThat(merged.open()).isEqualTo(100);
+        assertThat(merged.high()).isEqualTo(110);
+        assertThat(merged.low()).isEqualTo(98);
+        assertThat(merged.close()).isEqualTo(102);
+        assertThat(merged.volume()).isEqualTo(5);
+    }
+
+    @Test
+    void testCoarserTiersAreMaintainedOnWrite() {
+        // Written out of order on purpose: open and close must still follow candle time
+        repository.batchUpsert(List.of(
+                candle(DAY_START_MS + 61_000, 103, 108, 102, 107, 1),
+                candle(DAY_START_MS + 1000, 100, 105, 99, 104, 3),
+                candle(DAY_START_MS + 30_000, 104, 106, 97, 103, 2)
+        ));
+
+        long fromSeconds = DAY_START_MS / 1000;
+        List<Candle> minutes = repository.findCandles(CandleInterval.ONE_MINUTE, BTC, fromSeconds, fromSeconds + 119);
+
+        assertThat(minutes).hasSize(2);
+        Candle first = minutes.get(0);
+        assertThat(first.time()).isEqualTo(DAY_START_MS);
+        assertThat(first.open()).isEqualTo(100);
+        assertThat(first.high()).isEqualTo(106);
+        assertThat(first.low()).isEqualTo(97);
+        assertThat(first.close()).isEqualTo(103);
+        assertThat(first.volume()).isEqualTo(5);
+
+        List<Candle> hours = repository.findCandles(CandleInterval.ONE_HOUR, BTC, fromSeconds, fromSeconds + 3599);
+        assertThat(hours).hasSize(1);
+        assertThat(hours.get(0).close()).isEqualTo(107);
+        assertThat(hours.get(0).volume()).isEqualTo(6);
+    }
+
+    @Test
+    void testReplaceOverwritesAndRebuildsCoarserTiers() {
+        repository.batchUpsert(List.of(
+                candle(DAY_START_MS + 1000, 100, 105, 99, 104, 3),
+                candle(DAY_START_MS + 30_000, 104, 106, 97, 103, 2)
+        ));
+
+        // Late tick corrected the first candle: lower open, one more tick
+        repository.batchReplace(List.of(candle(DAY_START_MS + 1000, 98, 105, 98, 104, 4)));
+
+        Candle second = repository.find1sCandles(BTC, DAY_START_MS, DAY_START_MS + 1000).get(0);
+        assertThat(second.open()).isEqualTo(98);
+        assertThat(second.volume()).isEqualTo(4);
+
+        long fromSeconds = DAY_START_MS / 1000;
+        Candle minute = repository.findCandles(CandleInterval.ONE_MINUTE, BTC, fromSeconds, fromSeconds + 59).get(0);
+        assertThat(minute.open()).isEqualTo(98);
+        assertThat(minute.low()).isEqualTo(97);
+        assertThat(minute.close()).isEqualTo(103);
+        assertThat(minute.volume()).isEqualTo(6);
+    }
+
+    @Test
+    void testRangesSpanningDaysReadEveryDayFile() {
+        repository.batchUpsert(List.of(
+                candle(DAY_START_MS - 1000, 100, 101, 99, 100, 1),
+                candle(DAY_START_MS + 1000, 100, 101, 99, 100, 1)
+        ));
+
+        assertThat(repository.find1sCandles(BTC, DAY_START_MS - 60_000, DAY_START_MS + 60_000)).hasSize(2);
+    }
+
+    @Test
+    void testConcurrentMergesSurviveEvictionOfTheirFile() throws Exception {
+        // Every upsert touches five files, so with one open file they are dropped and mapped again all the time
+        ColumnarStorageProperties properties = new ColumnarStorageProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxOpenFiles(1);
+        ColumnarFileCandleRepository evicting = new ColumnarFileCandleRepository(properties);
+
+        int threads = 4;
+        int upserts = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < upserts; i++) {
+                        evicting.batchUpsert(List.of(candle(DAY_START_MS + 1000, 100, 101, 99, 100, 1)));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long fromSeconds = DAY_START_MS / 1000;
+        assertThat(evicting.find1sCandles(BTC, DAY_START_MS, DAY_START_MS + 1000).get(0).volume())
+                .isEqualTo(threads * upserts);
+        assertThat(evicting.findCandles(CandleInterval.ONE_HOUR, BTC, fromSeconds, fromSeconds).get(0).volume())
+                .isEqualTo(threads * upserts);
+    }
+
+    @Test
+    void testSymbolNamedDirectoriesAreMovedToTheirId() throws Exception {
+        repository.batchUpsert(List.of(candle(DAY_START_MS + 1000, 100, 105, 99, 104, 3)));
+        repository.close();
+        // Layout before symbol ids, with another symbol already registered
+        Files.move(directory.resolve(Integer.toString(BTC)), directory.resolve("BTC-USD"));
+        Files.writeString(directory.resolve("symbols.txt"), "ETH-USD\n");
+
+        ColumnarStorageProperties properties = new ColumnarStorageProperties();
+        properties.setDirectory(directory.toString());
+        SymbolFileRepository symbols = new SymbolFileRepository(properties);
+
+        assertThat(symbols.findAll()).containsEntry("ETH-USD", 1).containsEntry("BTC-USD", 2);
+        assertThat(directory.resolve("BTC-USD")).doesNotExist();
+        assertThat(new ColumnarFileCandleRepository(properties).find1sCandles(2, DAY_START_MS, DAY_START_MS + 1000))
+                .extracting(Candle::volume)
+                .containsExactly(3L);
+    }
+
+    private static CandleEntity candle(long timeMs, double open, double high, double low, double close, long volume) {
+        return new CandleEntity(new CandleEntity.CandleId(timeMs, BTC), open, high, low, close, volume);
+    }
+}
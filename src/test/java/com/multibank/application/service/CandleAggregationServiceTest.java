@@ -3,9 +3,11 @@ package com.multibank.application.service;
 import com.multibank.application.entity.CandleEntity;
 import com.multibank.application.model.BidAskEvent;
 import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
 import com.multibank.application.model.CandleInterval;
 import com.multibank.application.repository.CandleCustomJdbcRepository;
 import com.multibank.application.service.impl.CandleAggregationServiceImpl;
+import com.multibank.application.symbol.SymbolRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,11 +17,15 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +37,8 @@ public class CandleAggregationServiceTest {
     @Captor
     private ArgumentCaptor<List<CandleEntity>> candleCaptor;
 
+    private SymbolRegistry symbols;
+
     private CandleAggregationService aggregator;
 
     @AfterEach
@@ -42,7 +50,12 @@ public class CandleAggregationServiceTest {
 
     @BeforeEach
     void setUp() {
-        aggregator = new CandleAggregationServiceImpl(repository);
+        symbols = SymbolRegistry.inMemory();
+        symbols.register("BTC-USD");
+        symbols.register("ETH-USD");
+        // No materialization watermark unless a test sets one, routing uses the realtime window
+        lenient().when(repository.findMaterializedUntil(any())).thenReturn(null);
+        aggregator = new CandleAggregationServiceImpl(repository, symbols, new AggregationProperties(), List.of());
     }
 
     @Test
@@ -60,7 +73,7 @@ public class CandleAggregationServiceTest {
         assertThat(savedCandles).isNotEmpty();
 
         CandleEntity candle = savedCandles.get(0);
-        assertThat(candle.getId().getSymbol()).isEqualTo("BTC-USD");
+        assertThat(candle.getId().getSymbolId()).isEqualTo(symbols.idOf("BTC-USD"));
         assertThat(candle.getOpen()).isEqualTo(50005.0);
         assertThat(candle.getVolume()).isEqualTo(1L);
     }
@@ -79,7 +92,7 @@ public class CandleAggregationServiceTest {
 
         List<CandleEntity> savedCandles = candleCaptor.getValue();
         CandleEntity candle = savedCandles.stream()
-                .filter(c -> c.getId().getSymbol().equals("BTC-USD"))
+                .filter(c -> c.getId().getSymbolId() == symbols.idOf("BTC-USD"))
                 .findFirst()
                 .orElse(null);
 
@@ -105,7 +118,7 @@ public class CandleAggregationServiceTest {
 
         List<CandleEntity> savedCandles = candleCaptor.getValue();
         CandleEntity candle = savedCandles.stream()
-                .filter(c -> c.getId().getSymbol().equals("BTC-USD"))
+                .filter(c -> c.getId().getSymbolId() == symbols.idOf("BTC-USD"))
                 .findFirst()
                 .orElse(null);
 
@@ -117,6 +130,76 @@ public class CandleAggregationServiceTest {
         assertThat(candle.getVolume()).isEqualTo(3L);
     }
 
+    @Test
+    void testLateTickAfterFlushIsSentAsOneCorrection() throws Exception {
+        long baseTime = 1620000000L;
+
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 50000.0, 50010.0, baseTime));
+        verify(repository, timeout(2000)).batchUpsert(anyList());
+
+        // Both arrive after the flush and must end up in the same stored candle
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 50100.0, 50110.0, baseTime));
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 49900.0, 49910.0, baseTime));
+
+        verify(repository, timeout(2000)).batchReplace(candleCaptor.capture());
+
+        List<CandleEntity> corrections = candleCaptor.getAllValues().stream().flatMap(List::stream).toList();
+        CandleEntity corrected = corrections.get(corrections.size() - 1);
+        assertThat(corrected.getId().getTime()).isEqualTo(baseTime);
+        assertThat(corrected.getOpen()).isEqualTo(50005.0);
+        assertThat(corrected.getHigh()).isEqualTo(50105.0);
+        assertThat(corrected.getLow()).isEqualTo(49905.0);
+        assertThat(corrected.getVolume()).isEqualTo(3L);
+        verify(repository, times(1)).batchUpsert(anyList());
+    }
+
+    @Test
+    void testTickBeyondLatenessBoundIsDropped() throws Exception {
+        long baseTime = 1620000000L;
+
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 50000.0, 50010.0, baseTime));
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 50000.0, 50010.0, baseTime + 60_000));
+        verify(repository, timeout(2000).atLeastOnce()).batchUpsert(anyList());
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        // Its candle has been flushed and forgotten, and it is far behind the watermark
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 49000.0, 49010.0, baseTime));
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        verify(repository, never()).batchReplace(anyList());
+        verify(repository, atLeastOnce()).batchUpsert(candleCaptor.capture());
+        assertThat(candleCaptor.getAllValues().stream().flatMap(List::stream)
+                .filter(c -> c.getId().getTime() == baseTime)).hasSize(1);
+    }
+
+    @Test
+    void testTickJustInsideLatenessBoundAfterEvictionCheckIsACorrection() throws Exception {
+        long baseTime = 1620000000L;
+        long maxTickLatenessMs = new AggregationProperties().getMaxTickLatenessMs();
+
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 50000.0, 50010.0, baseTime));
+        verify(repository, timeout(2000)).batchUpsert(anyList());
+
+        // Watermark exactly at the bound, then let a few close cycles run their eviction
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 50000.0, 50010.0, baseTime + maxTickLatenessMs));
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        // Still accepted, so it has to be merged into the flushed candle instead of opening a new one
+        aggregator.processEventSync(new BidAskEvent("BTC-USD", 50100.0, 50110.0, baseTime));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CandleEntity>> corrections = ArgumentCaptor.forClass(List.class);
+        verify(repository, timeout(2000)).batchReplace(corrections.capture());
+        CandleEntity corrected = corrections.getValue().get(0);
+        assertThat(corrected.getId().getTime()).isEqualTo(baseTime);
+        assertThat(corrected.getVolume()).isEqualTo(2L);
+
+        TimeUnit.MILLISECONDS.sleep(300);
+        verify(repository, atLeastOnce()).batchUpsert(candleCaptor.capture());
+        assertThat(candleCaptor.getAllValues().stream().flatMap(List::stream)
+                .filter(c -> c.getId().getTime() == baseTime)).hasSize(1);
+    }
+
     @Test
     void testTimeAlignment() {
         CandleInterval interval = CandleInterval.ONE_MINUTE;
@@ -143,8 +226,8 @@ public class CandleAggregationServiceTest {
                 new Candle(1620000002L, 50100.0, 50200.0, 50000.0, 50150.0, 15L)
         );
 
-        when(repository.find1sCandles(symbol, from, to))
-                .thenReturn(mockCandles);
+        when(repository.find1sCandleBatch(symbols.idOf(symbol), from, to))
+                .thenReturn(CandleBatch.of(mockCandles));
 
         List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_SECOND, from, to);
 
@@ -167,7 +250,7 @@ public class CandleAggregationServiceTest {
     //            new Object[]{1620000120L, symbol, 50100.0, 50200.0, 50000.0, 50150.0, 15L}
     //    );
 //
-    //    when(repository.findCandles(CandleInterval.ONE_SECOND, symbol, from, to))
+    //    when(repository.findCandles(CandleInterval.ONE_SECOND, symbols.idOf(symbol), from, to))
     //            .thenReturn(mockResults);
 //
     //    List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to);
@@ -192,10 +275,10 @@ public class CandleAggregationServiceTest {
         List<CandleEntity> savedCandles = candleCaptor.getValue();
 
         long btcCount = savedCandles.stream()
-                .filter(c -> c.getId().getSymbol().equals("BTC-USD"))
+                .filter(c -> c.getId().getSymbolId() == symbols.idOf("BTC-USD"))
                 .count();
         long ethCount = savedCandles.stream()
-                .filter(c -> c.getId().getSymbol().equals("ETH-USD"))
+                .filter(c -> c.getId().getSymbolId() == symbols.idOf("ETH-USD"))
                 .count();
 
         assertThat(btcCount).isGreaterThan(0);
@@ -217,12 +300,23 @@ public class CandleAggregationServiceTest {
         List<List<CandleEntity>> allSaves = candleCaptor.getAllValues();
         long totalCandles = allSaves.stream()
                 .flatMap(List::stream)
-                .filter(c -> c.getId().getSymbol().equals("BTC-USD"))
+                .filter(c -> c.getId().getSymbolId() == symbols.idOf("BTC-USD"))
                 .count();
 
         assertThat(totalCandles).isGreaterThanOrEqualTo(3);
     }
 
+    @Test
+    void testUnknownSymbolIsRejectedWithoutQuery() {
+        long now = System.currentTimeMillis() / 1000;
+
+        assertThatThrownBy(() -> aggregator.getHistoricalCandles("DOGE-USD", CandleInterval.ONE_MINUTE, now - 600, now))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("DOGE-USD");
+
+        verifyNoInteractions(repository);
+    }
+
     @Test
     void testHistoricalOnlyPathUsesFindCandles() {
         String symbol = "BTC-USD";
@@ -235,14 +329,14 @@ public class CandleAggregationServiceTest {
                 new Candle(from + 60, 105.0, 120.0, 100.0, 115.0, 12)
         );
 
-        when(repository.findCandles(CandleInterval.ONE_MINUTE, symbol, from, to)).thenReturn(historical);
+        when(repository.findCandleBatch(CandleInterval.ONE_MINUTE, symbols.idOf(symbol), from, to)).thenReturn(CandleBatch.of(historical));
 
         List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to);
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).time()).isEqualTo(from);
-        verify(repository, times(1)).findCandles(CandleInterval.ONE_MINUTE, symbol, from, to);
-        verify(repository, never()).find1sCandles(anyString(), anyLong(), anyLong());
+        verify(repository, times(1)).findCandleBatch(CandleInterval.ONE_MINUTE, symbols.idOf(symbol), from, to);
+        verify(repository, never()).find1sCandleBatch(anyInt(), anyLong(), anyLong());
     }
 
     @Test
@@ -269,7 +363,7 @@ public class CandleAggregationServiceTest {
                 new Candle(fromAligned + 9, 18, 20, 17, 19, 1)
         );
 
-        when(repository.find1sCandles(symbol, from, to)).thenReturn(oneSec);
+        when(repository.find1sCandleBatch(symbols.idOf(symbol), from, to)).thenReturn(CandleBatch.of(oneSec));
 
         List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.FIVE_SECONDS, from, to);
 
@@ -289,8 +383,8 @@ public class CandleAggregationServiceTest {
         assertThat(b2.close()).isEqualTo(19);
         assertThat(b2.volume()).isEqualTo(5);
 
-        verify(repository, times(1)).find1sCandles(symbol, from, to);
-        verify(repository, never()).findCandles(any(), anyString(), anyLong(), anyLong());
+        verify(repository, times(1)).find1sCandleBatch(symbols.idOf(symbol), from, to);
+        verify(repository, never()).findCandleBatch(any(), anyInt(), anyLong(), anyLong());
     }
 
     @Test
@@ -313,8 +407,8 @@ public class CandleAggregationServiceTest {
                 new Candle(rtAligned + 60, 111, 120, 110, 118, 7)
         );
 
-        when(repository.findCandles(CandleInterval.ONE_MINUTE, symbol, from, realtimeThreshold)).thenReturn(historical);
-        when(repository.find1sCandles(symbol, realtimeThreshold, to)).thenReturn(realtime);
+        when(repository.findCandleBatch(CandleInterval.ONE_MINUTE, symbols.idOf(symbol), from, realtimeThreshold)).thenReturn(CandleBatch.of(historical));
+        when(repository.find1sCandleBatch(symbols.idOf(symbol), realtimeThreshold, to)).thenReturn(CandleBatch.of(realtime));
 
         List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to);
 
@@ -325,8 +419,225 @@ public class CandleAggregationServiceTest {
         assertThat(result.get(1).open()).isEqualTo(106); // realtime overrides historical at same timestamp
         assertThat(result.get(2).time()).isEqualTo(rtAligned + 60);
 
-        verify(repository, times(1)).findCandles(CandleInterval.ONE_MINUTE, symbol, from, realtimeThreshold);
-        verify(repository, times(1)).find1sCandles(symbol, realtimeThreshold, to);
+        verify(repository, times(1)).findCandleBatch(CandleInterval.ONE_MINUTE, symbols.idOf(symbol), from, realtimeThreshold);
+        verify(repository, times(1)).find1sCandleBatch(symbols.idOf(symbol), realtimeThreshold, to);
+    }
+
+    @Test
+    void testSplitsExactlyAtMaterializationWatermark() {
+        String symbol = "BTC-USD";
+        long now = System.currentTimeMillis() / 1000;
+        long watermark = CandleInterval.ONE_MINUTE.alignTimestamp(now - 600);
+        long from = watermark - 3600;
+        long to = now;
+
+        when(repository.findMaterializedUntil(CandleInterval.ONE_MINUTE)).thenReturn(watermark);
+        when(repository.findCandleBatch(CandleInterval.ONE_MINUTE, symbols.idOf(symbol), from, watermark - 1))
+                .thenReturn(CandleBatch.of(List.of(new Candle(watermark - 60, 100, 110, 90, 105, 10))));
+        when(repository.find1sCandleBatch(symbols.idOf(symbol), watermark, to))
+                .thenReturn(CandleBatch.of(List.of(
+                        new Candle(watermark, 105, 106, 104, 105, 1),
+                        new Candle(watermark + 1, 105, 108, 105, 107, 1))));
+
+        List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to);
+
+        assertThat(result).extracting(Candle::time).containsExactly(watermark - 60, watermark);
+        assertThat(result.get(1).high()).isEqualTo(108);
+        assertThat(result.get(1).volume()).isEqualTo(2);
+    }
+
+    @Test
+    void testCorrectionBehindWatermarkIsReadFrom1sCandles() {
+        String symbol = "BTC-USD";
+        int symbolId = symbols.idOf(symbol);
+        long now = System.currentTimeMillis() / 1000;
+        // Materialized up to the current bucket, although the last one can still receive late ticks
+        long watermark = CandleInterval.FIVE_SECONDS.alignTimestamp(now);
+        long corrected = watermark - 5;
+        long from = watermark - 60;
+        long to = now;
+
+        when(repository.findMaterializedUntil(CandleInterval.FIVE_SECONDS)).thenReturn(watermark);
+        // The view still holds the bucket as refreshed before a late tick was merged into its 1s candle
+        when(repository.findCandleBatch(eq(CandleInterval.FIVE_SECONDS), eq(symbolId), eq(from), anyLong()))
+                .thenAnswer(invocation -> (long) invocation.getArgument(3) >= corrected
+                        ? CandleBatch.of(List.of(new Candle(corrected, 100, 101, 99, 100, 1)))
+                        : CandleBatch.empty());
+        when(repository.find1sCandleBatch(eq(symbolId), anyLong(), eq(to)))
+                .thenAnswer(invocation -> (long) invocation.getArgument(1) <= corrected + 2
+                        ? CandleBatch.of(List.of(new Candle(corrected + 2, 100, 104, 99, 103, 2)))
+                        : CandleBatch.empty());
+
+        List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.FIVE_SECONDS, from, to);
+
+        assertThat(result).containsExactly(new Candle(corrected, 100, 104, 99, 103, 2));
+    }
+
+    @Test
+    void testRecentWindowOfMaterializedViewIsNotReaggregated() {
+        String symbol = "BTC-USD";
+        long now = System.currentTimeMillis() / 1000;
+        long from = now - 60;
+        long to = now;
+
+        // Fully materialized up to now, e.g. embedded storage
+        when(repository.findMaterializedUntil(CandleInterval.ONE_MINUTE)).thenReturn(Long.MAX_VALUE);
+        when(repository.findCandleBatch(CandleInterval.ONE_MINUTE, symbols.idOf(symbol), from, to))
+                .thenReturn(CandleBatch.empty());
+
+        aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to);
+
+        verify(repository, never()).find1sCandleBatch(anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testNothingMaterializedAggregatesWholeRangeFrom1sCandles() {
+        String symbol = "BTC-USD";
+        long now = System.currentTimeMillis() / 1000;
+        long from = now - 7200;
+        long to = now;
+
+        when(repository.findMaterializedUntil(CandleInterval.ONE_HOUR)).thenReturn(Long.MIN_VALUE);
+        when(repository.find1sCandleBatch(symbols.idOf(symbol), from, to)).thenReturn(CandleBatch.empty());
+
+        aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_HOUR, from, to);
+
+        verify(repository, never()).findCandleBatch(any(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testMaxPointsPicksSmallestFittingTier() {
+        String symbol = "BTC-USD";
+        long now = System.currentTimeMillis() / 1000;
+        long from = CandleInterval.ONE_HOUR.alignTimestamp(now - 20000);
+        long to = from + 1799; // 30 x 1m buckets, 2 x 15m buckets
+
+        List<Candle> fifteenMinutes = Arrays.asList(
+                new Candle(from, 100.0, 110.0, 90.0, 105.0, 10),
+                new Candle(from + 900, 105.0, 120.0, 100.0, 115.0, 12)
+        );
+
+        when(repository.findCandleBatch(CandleInterval.FIFTEEN_MINUTES, symbols.idOf(symbol), from, to)).thenReturn(CandleBatch.of(fifteenMinutes));
+
+        List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to, 10);
+
+        assertThat(result).hasSize(2);
+        verify(repository, times(1)).findCandleBatch(CandleInterval.FIFTEEN_MINUTES, symbols.idOf(symbol), from, to);
+        verify(repository, never()).findCandleBatch(eq(CandleInterval.ONE_MINUTE), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testMaxPointsMergesCoarsestTierWhenNothingFits() {
+        String symbol = "BTC-USD";
+        long now = System.currentTimeMillis() / 1000;
+        long from = CandleInterval.ONE_HOUR.alignTimestamp(now) - 30 * 86400;
+        long to = from + 10 * 86400 - 1; // 240 x 1h buckets
+
+        List<Candle> hourly = new ArrayList<>();
+        for (int i = 0; i < 240; i++) {
+            hourly.add(new Candle(from + i * 3600L, 100 + i, 101 + i, 99 + i, 100.5 + i, 1));
+        }
+
+        when(repository.findCandleBatch(CandleInterval.ONE_HOUR, symbols.idOf(symbol), from, to)).thenReturn(CandleBatch.of(hourly));
+
+        List<Candle> result = aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_SECOND, from, to, 24);
+
+        assertThat(result).hasSizeLessThanOrEqualTo(24);
+        assertThat(result.stream().mapToLong(Candle::volume).sum()).isEqualTo(240);
+        assertThat(result.get(0).open()).isEqualTo(100);
+        assertThat(result.get(result.size() - 1).close()).isEqualTo(100.5 + 239);
+    }
+
+    @Test
+    void testRetuneKeepsBufferedCandles() throws Exception {
+        long timestamp = 1620000000L;
+        aggregator.processEvent(new BidAskEvent("BTC-USD", 50000.0, 50010.0, timestamp));
+
+        AggregationTuning tuning = new AggregationTuning(2, 1, 50, 20, 100, 25, 60, 5000);
+        aggregator.retune(tuning);
+
+        TimeUnit.SECONDS.sleep(2);
+
+        verify(repository, atLeastOnce()).batchUpsert(candleCaptor.capture());
+        long flushedVolume = candleCaptor.getAllValues().stream()
+                .flatMap(List::stream)
+                .mapToLong(CandleEntity::getVolume)
+                .sum();
+        assertThat(flushedVolume).isEqualTo(1L);
+        assertThat(aggregator.getTuning()).isEqualTo(tuning);
+    }
+
+    @Test
+    void testRetunedRealtimeWindowChangesRouting() {
+        String symbol = "BTC-USD";
+        long now = System.currentTimeMillis() / 1000;
+        long from = now - 600;
+        long to = now - 60;
+
+        AggregationTuning defaults = aggregator.getTuning();
+        aggregator.retune(new AggregationTuning(defaults.eventThreads(), defaults.schedulerThreads(),
+                defaults.candleCloseDelayMs(), defaults.closeCheckIntervalMs(), defaults.maxFlushDelayMs(),
+                defaults.flushCheckIntervalMs(), 30, defaults.maxTickLatenessMs()));
+
+        when(repository.findCandleBatch(CandleInterval.ONE_MINUTE, symbols.idOf(symbol), from, to))
+                .thenReturn(CandleBatch.empty());
+
+        // Would reach into the default 120s realtime window, but is fully historical with 30s
+        aggregator.getHistoricalCandles(symbol, CandleInterval.ONE_MINUTE, from, to);
+
+        verify(repository, never()).find1sCandleBatch(anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testRejectsInvalidTuning() {
+        assertThatThrownBy(() -> new AggregationTuning(0, 2, 100, 50, 150, 10, 120, 5000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("eventThreads");
+        assertThatThrownBy(() -> new AggregationTuning(100_000, 2, 100, 50, 150, 10, 120, 5000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("eventThreads");
+        assertThatThrownBy(() -> new AggregationTuning(8, 2, 100, 1, 150, 10, 120, 5000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("closeCheckIntervalMs");
+        assertThatThrownBy(() -> new AggregationTuning(8, 2, 100, 50, 150, 1, 120, 5000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("flushCheckIntervalMs");
+        assertThat(new AggregationProperties().toTuning().eventThreads()).isEqualTo(8);
+    }
+
+    @Test
+    void testFullEventQueueAggregatesOnTheSubmittingThread() {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread submitter = Thread.currentThread();
+        List<String> submitterTicks = new CopyOnWriteArrayList<>();
+        AggregationListener blockEventThread = new AggregationListener() {
+            @Override
+            public void onTick(BidAskEvent event) {
+                if (Thread.currentThread() == submitter) {
+                    submitterTicks.add(event.symbol());
+                    return;
+                }
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        AggregationProperties properties = new AggregationProperties();
+        properties.setEventThreads(1);
+        properties.setEventQueueCapacity(1);
+        aggregator.shutdown();
+        aggregator = new CandleAggregationServiceImpl(repository, symbols, properties, List.of(blockEventThread));
+
+        long timestamp = 1620000000L;
+        // The first one occupies the event thread, the second one the queue
+        aggregator.processEvent(new BidAskEvent("BTC-USD", 50000.0, 50010.0, timestamp));
+        aggregator.processEvent(new BidAskEvent("BTC-USD", 50000.0, 50010.0, timestamp));
+        aggregator.processEvent(new BidAskEvent("ETH-USD", 3000.0, 3001.0, timestamp));
+
+        assertThat(submitterTicks).containsExactly("ETH-USD");
+        release.countDown();
     }
 
     @Test
@@ -0,0 +1,47 @@
+package com.multibank.application.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveFlushPolicyTest {
+
+    private final AdaptiveFlushPolicy policy = new AdaptiveFlushPolicy(50, 1_000, 150, 50);
+
+    @Test
+    void testFlushesWhenBatchIsFullOrOldestCandleIsDue() {
+        assertThat(policy.shouldFlush(0, 1_000)).isFalse();
+        assertThat(policy.shouldFlush(10, 20)).isFalse();
+        assertThat(policy.shouldFlush(10, 150)).isTrue();
+        assertThat(policy.shouldFlush(50, 0)).isTrue();
+    }
+
+    @Test
+    void testTargetGrowsWhileFullBatchesStayFast() {
+        for (int i = 0; i < 100; i++) {
+            policy.onFlushCompleted(policy.getTargetBatchSize(), 5);
+        }
+
+        assertThat(policy.getTargetBatchSize()).isEqualTo(1_000);
+    }
+
+    @Test
+    void testTargetDoesNotGrowOnDeadlineTriggeredFlushes() {
+        policy.onFlushCompleted(10, 5);
+
+        assertThat(policy.getTargetBatchSize()).isEqualTo(50);
+    }
+
+    @Test
+    void testTargetShrinksWhenFlushIsSlow() {
+        for (int i = 0; i < 30; i++) {
+            policy.onFlushCompleted(policy.getTargetBatchSize(), 5);
+        }
+        int grown = policy.getTargetBatchSize();
+
+        policy.onFlushCompleted(grown, 200);
+
+        assertThat(policy.getTargetBatchSize()).isEqualTo((int) (grown * 0.7));
+        assertThat(policy.getTargetBatchSize()).isGreaterThanOrEqualTo(50);
+    }
+}
@@ -0,0 +1,50 @@
+package com.multibank.application.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleKernelsTest {
+
+    @Test
+    void testReductionsMatchPlainLoopsForEveryRange() {
+        Random random = new Random(7);
+        double[] prices = new double[300];
+        long[] volumes = new long[300];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + random.nextGaussian() * 10;
+            volumes[i] = random.nextInt(1_000);
+        }
+
+        // Covers ranges shorter than a vector, whole vectors and every remainder length at every offset
+        for (int from = 0; from < 40; from++) {
+            for (int to = from + 1; to <= prices.length; to += 7) {
+                assertThat(CandleKernels.max(prices, from, to))
+                        .isEqualTo(Arrays.stream(prices, from, to).max().orElseThrow());
+                assertThat(CandleKernels.min(prices, from, to))
+                        .isEqualTo(Arrays.stream(prices, from, to).min().orElseThrow());
+                assertThat(CandleKernels.sum(volumes, from, to))
+                        .isEqualTo(Arrays.stream(volumes, from, to).sum());
+            }
+        }
+    }
+
+    @Test
+    void testEmptyRanges() {
+        double[] prices = {1, 2, 3};
+
+        assertThat(CandleKernels.max(prices, 1, 1)).isEqualTo(Double.NEGATIVE_INFINITY);
+        assertThat(CandleKernels.min(prices, 1, 1)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(CandleKernels.sum(new long[]{1, 2}, 2, 2)).isZero();
+    }
+
+    @Test
+    void testVectorApiIsUsedWhenTheModuleIsPresent() {
+        // The build adds jdk.incubator.vector to the test JVM
+        assertThat(CandleKernels.isVectorized())
+                .isEqualTo(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+    }
+}
@@ -0,0 +1,229 @@
+package com.multibank.application.service.impl;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.service.CandleSink;
+import com.multibank.application.simulation.SimulatedClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleSinkDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private CandleSinkDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void testSlowSinkDoesNotHoldUpOthers() {
+        RecordingSink fast = new RecordingSink("fast", 1000, 100);
+        RecordingSink stuck = new RecordingSink("stuck", 1000, 100) {
+            @Override
+            public void write(List<CandleEntity> candles) throws Exception {
+                release.await();
+                super.write(candles);
+            }
+        };
+        dispatcher = new CandleSinkDispatcher(List.of(fast, stuck), meterRegistry);
+
+        dispatcher.publish(candles(0, 10));
+
+        awaitUntil(() -> fast.written.size() == 10);
+        assertThat(stuck.written).isEmpty();
+    }
+
+    @Test
+    void testFullQueueDropsAndCounts() {
+        RecordingSink stuck = new RecordingSink("stuck", 1, 5) {
+            @Override
+            public void write(List<CandleEntity> candles) throws Exception {
+                release.await();
+                super.write(candles);
+            }
+        };
+        dispatcher = new CandleSinkDispatcher(List.of(stuck), meterRegistry);
+
+        dispatcher.publish(candles(0, 1));
+        // The worker holds the first candle, the queue takes five more
+        awaitUntil(() -> gauge("candle.sink.queued", "stuck") == 0);
+        dispatcher.publish(candles(1, 10));
+
+        assertThat(gauge("candle.sink.queued", "stuck")).isEqualTo(5);
+        assertThat(meterRegistry.get("candle.sink.dropped").tag("sink", "stuck").counter().count()).isEqualTo(5);
+
+        release.countDown();
+        awaitUntil(() -> stuck.written.size() == 6);
+    }
+
+    @Test
+    void testInterruptedBlockingPublishCountsTheRestAsDropped() throws Exception {
+        RecordingSink stuck = new RecordingSink("blocking", 1, 2) {
+            @Override
+            public void write(List<CandleEntity> candles) throws Exception {
+                release.await();
+                super.write(candles);
+            }
+
+            @Override
+            public boolean blockWhenFull() {
+                return true;
+            }
+        };
+        dispatcher = new CandleSinkDispatcher(List.of(stuck), meterRegistry);
+
+        dispatcher.publish(candles(0, 1));
+        awaitUntil(() -> gauge("candle.sink.queued", "blocking") == 0);
+
+        // Two candles fit into the queue, the publisher then waits for room until it is interrupted
+        Thread publisher = new Thread(() -> dispatcher.publish(candles(1, 10)));
+        publisher.start();
+        awaitUntil(() -> gauge("candle.sink.queued", "blocking") == 2 && publisher.getState() == Thread.State.WAITING);
+        publisher.interrupt();
+        publisher.join(5_000);
+
+        assertThat(meterRegistry.get("candle.sink.dropped").tag("sink", "blocking").counter().count()).isEqualTo(8);
+
+        release.countDown();
+        awaitUntil(() -> stuck.written.size() == 3);
+    }
+
+    @Test
+    void testBatchesAndKeepsCorrectionsApart() {
+        RecordingSink sink = new RecordingSink("batched", 4, 100);
+        dispatcher = new CandleSinkDispatcher(List.of(sink), meterRegistry);
+
+        dispatcher.publish(candles(0, 10));
+        dispatcher.publishCorrections(candles(3, 1));
+
+        awaitUntil(() -> sink.written.size() == 10 && sink.replaced.size() == 1);
+        assertThat(sink.batchSizes).allMatch(size -> size <= 4);
+        assertThat(sink.written).extracting(c -> c.getId().getTime())
+                .containsExactly(IntStream.range(0, 10).mapToObj(i -> 1_620_000_000_000L + i * 1000L)
+                        .toArray(Long[]::new));
+        assertThat(meterRegistry.get("candle.sink.written").tag("sink", "batched").counter().count()).isEqualTo(11);
+    }
+
+    @Test
+    void testFailingBatchIsCountedAndLaterBatchesStillArrive() {
+        RecordingSink sink = new RecordingSink("flaky", 1, 100) {
+            private boolean failed;
+
+            @Override
+            public void write(List<CandleEntity> candles) throws Exception {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("unavailable");
+                }
+                super.write(candles);
+            }
+        };
+        dispatcher = new CandleSinkDispatcher(List.of(sink), meterRegistry);
+
+        dispatcher.publish(candles(0, 3));
+
+        awaitUntil(() -> sink.written.size() == 2);
+        assertThat(meterRegistry.get("candle.sink.failed").tag("sink", "flaky").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testLagIsMeasuredWithTheServiceClock() {
+        RecordingSink stuck = new RecordingSink("stuck", 1, 5) {
+            @Override
+            public void write(List<CandleEntity> candles) throws Exception {
+                release.await();
+                super.write(candles);
+            }
+        };
+        SimulatedClock clock = new SimulatedClock(1_620_000_000_000L);
+        dispatcher = new CandleSinkDispatcher(List.of(stuck), meterRegistry);
+        dispatcher.useClock(clock);
+
+        dispatcher.publish(candles(0, 1));
+        awaitUntil(() -> gauge("candle.sink.queued", "stuck") == 0);
+        dispatcher.publish(candles(1, 1));
+        clock.advance(1_500);
+
+        assertThat(gauge("candle.sink.lag", "stuck")).isEqualTo(1_500);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition within 2s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private double gauge(String name, String sink) {
+        return meterRegistry.get(name).tag("sink", sink).gauge().value();
+    }
+
+    private static List<CandleEntity> candles(int first, int count) {
+        List<CandleEntity> candles = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            candles.add(new CandleEntity(new CandleEntity.CandleId(1_620_000_000_000L + i * 1000L, 1),
+                    100.0, 110.0, 90.0, 105.0, 1L));
+        }
+        return candles;
+    }
+
+    private static class RecordingSink implements CandleSink {
+
+        private final String name;
+        private final int batchSize;
+        private final int queueCapacity;
+
+        final List<CandleEntity> written = new CopyOnWriteArrayList<>();
+        final List<CandleEntity> replaced = new CopyOnWriteArrayList<>();
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        RecordingSink(String name, int batchSize, int queueCapacity) {
+            this.name = name;
+            this.batchSize = batchSize;
+            this.queueCapacity = queueCapacity;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void write(List<CandleEntity> candles) throws Exception {
+            batchSizes.add(candles.size());
+            written.addAll(candles);
+        }
+
+        @Override
+        public void replace(List<CandleEntity> candles) {
+            replaced.addAll(candles);
+        }
+
+        @Override
+        public int batchSize() {
+            return batchSize;
+        }
+
+        @Override
+        public int queueCapacity() {
+            return queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.multibank.application.service.impl;
+
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleBatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelCandleAggregationTest {
+
+    @Test
+    void testMatchesSequentialAggregationForEveryBucketSize() {
+        List<Candle> candles = oneSecondCandles(200_000, 1_620_000_000L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long bucketSeconds : new long[]{1, 5, 60, 900, 3600, 7 * 3600}) {
+                assertThat(ParallelCandleAggregation.aggregate(candles, bucketSeconds, pool))
+                        .as("bucket of %ds", bucketSeconds)
+                        .isEqualTo(sequential(candles, bucketSeconds));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSparseInputWithGaps() {
+        List<Candle> candles = new ArrayList<>();
+        for (Candle candle : oneSecondCandles(100_000, 1_620_000_000L)) {
+            // Drop most of every hour, leaving long gaps between the buckets
+            if (candle.time() % 3600 < 300) {
+                candles.add(candle);
+            }
+        }
+
+        assertThat(ParallelCandleAggregation.aggregate(candles, 60, ForkJoinPool.commonPool()))
+                .isEqualTo(sequential(candles, 60));
+    }
+
+    @Test
+    void testSequentialReductionOfBatchMatchesParallel() {
+        CandleBatch candles = CandleBatch.of(oneSecondCandles(20_000, 1_620_000_000L));
+
+        assertThat(ParallelCandleAggregation.aggregateSequential(candles, 300))
+                .isEqualTo(ParallelCandleAggregation.aggregate(candles, 300, ForkJoinPool.commonPool()));
+        assertThat(ParallelCandleAggregation.aggregateSequential(candles, 300).toList())
+                .isEqualTo(sequential(candles.toList(), 300));
+    }
+
+    @Test
+    void testDetectsUnorderedInput() {
+        List<Candle> candles = new ArrayList<>(oneSecondCandles(10, 1_620_000_000L));
+        assertThat(ParallelCandleAggregation.isTimeOrdered(CandleBatch.of(candles))).isTrue();
+
+        candles.add(candles.get(0));
+        assertThat(ParallelCandleAggregation.isTimeOrdered(CandleBatch.of(candles))).isFalse();
+    }
+
+    private static List<Candle> oneSecondCandles(int count, long start) {
+        Random random = new Random(7);
+        List<Candle> candles = new ArrayList<>(count);
+        double price = 100;
+        for (int i = 0; i < count; i++) {
+            double open = price;
+            price += random.nextGaussian();
+            candles.add(new Candle(start + i, open, Math.max(open, price) + 0.5, Math.min(open, price) - 0.5,
+                    price, 1 + random.nextInt(20)));
+        }
+        return candles;
+    }
+
+    // The service's single-threaded path
+    private static List<Candle> sequential(List<Candle> candles, long bucketSeconds) {
+        Map<Long, double[]> buckets = new LinkedHashMap<>();
+        for (Candle candle : candles) {
+            long bucketTime = (candle.time() / bucketSeconds) * bucketSeconds;
+            double[] b = buckets.get(bucketTime);
+            if (b == null) {
+                buckets.put(bucketTime, new double[]{candle.open(), Math.max(Double.MIN_VALUE, candle.high()),
+                        candle.low(), candle.close(), candle.volume()});
+            } else {
+                b[1] = Math.max(b[1], candle.high());
+                b[2] = Math.min(b[2], candle.low());
+                b[3] = candle.close();
+                b[4] += candle.volume();
+            }
+        }
+
+        List<Candle> result = new ArrayList<>();
+        buckets.forEach((time, b) -> result.add(new Candle(time, b[0], b[1], b[2], b[3], (long) b[4])));
+        return result;
+    }
+}
@@ -0,0 +1,262 @@
+package com.multibank.application.simulation;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.Candle;
+import com.multibank.application.service.AggregationListener;
+import com.multibank.application.service.AggregationProperties;
+import com.multibank.application.service.impl.CandleAggregationServiceImpl;
+import com.multibank.application.service.impl.CandleSinkDispatcher;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Drives synthetic ticks through the real aggregation service in simulated time: ticks are generated at their
+ * event time, the close and flush tasks run on a {@link SimulatedScheduler} and storage is an
+ * {@link InMemoryCandleRepository} whose latency can be varied over time. Hours of ticks take seconds.
+ * <p>
+ * Everything runs on one thread: while a write waits for its latency, the other tasks due meanwhile run nested
+ * in it, like they would on other threads of the real service. Ticks are aggregated synchronously on arrival.
+ */
+public class AggregationSimulation {
+
+    private static final Logger log = LoggerFactory.getLogger(AggregationSimulation.class);
+
+    private static final long MAX_TRACKED_LAG_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * State of the pipeline at one point in simulated time; flush and close lag figures cover the interval
+     * since the previous sample
+     */
+    public record Sample(long atMs, long openCandles, long pendingFlush, int flushes, int maxBatchSize,
+                         long maxFlushMs, long closeLagP50Ms, long closeLagP99Ms, long closeLagMaxMs) {
+    }
+
+    /**
+     * @param pendingAtEnd candles opened but not flushed once the last ticks had time to drain
+     */
+    public record Report(long ticks, long storedVolume, int storedCandles, long pendingAtEnd, List<Sample> samples) {
+
+        public long peakPendingFlush() {
+            return samples.stream().mapToLong(Sample::pendingFlush).max().orElse(0);
+        }
+
+        public List<Sample> between(long fromMs, long toMs) {
+            return samples.stream().filter(s -> s.atMs() >= fromMs && s.atMs() < toMs).toList();
+        }
+    }
+
+    private List<String> symbols = List.of("BTC-USD", "ETH-USD", "SOL-USD");
+    private long startMs = 1_700_000_000_000L;
+    private long durationMs = TimeUnit.HOURS.toMillis(1);
+    private int slotsPerSecond = 25;
+    private int maxTicksPerSlot = 3;
+    private long sampleEveryMs = TimeUnit.MINUTES.toMillis(1);
+    private long drainMs = TimeUnit.SECONDS.toMillis(10);
+    private long seed = 42;
+    private AggregationProperties properties = new AggregationProperties();
+    private InMemoryCandleRepository.Latency latency = (nowMs, batchSize) -> 2 + batchSize / 100;
+
+    public AggregationSimulation symbols(List<String> symbols) {
+        this.symbols = List.copyOf(symbols);
+        return this;
+    }
+
+    public AggregationSimulation startingAt(long startMs) {
+        this.startMs = startMs;
+        return this;
+    }
+
+    public AggregationSimulation duration(long duration, TimeUnit unit) {
+        this.durationMs = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * Every symbol gets 1 to {@code maxTicksPerSlot} ticks in each of {@code slotsPerSecond} evenly spaced slots
+     */
+    public AggregationSimulation tickRate(int slotsPerSecond, int maxTicksPerSlot) {
+        if (slotsPerSecond < 1 || slotsPerSecond > 1000 || maxTicksPerSlot < 1) {
+            throw new IllegalArgumentException("Invalid tick rate: " + slotsPerSecond + "/s x " + maxTicksPerSlot);
+        }
+        this.slotsPerSecond = slotsPerSecond;
+        this.maxTicksPerSlot = maxTicksPerSlot;
+        return this;
+    }
+
+    public AggregationSimulation sampleEvery(long interval, TimeUnit unit) {
+        this.sampleEveryMs = unit.toMillis(interval);
+        return this;
+    }
+
+    public AggregationSimulation seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public AggregationSimulation properties(AggregationProperties properties) {
+        this.properties = properties;
+        return this;
+    }
+
+    public AggregationSimulation latency(InMemoryCandleRepository.Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public Report run() {
+        SimulatedClock clock = new SimulatedClock(startMs);
+        SimulatedScheduler scheduler = new SimulatedScheduler(clock);
+        InMemoryCandleRepository repository = new InMemoryCandleRepository(scheduler, latency);
+        Probe probe = new Probe(clock);
+        CandleAggregationServiceImpl service = new CandleAggregationServiceImpl(repository,
+                SymbolRegistry.inMemory(), properties, List.of(probe), CandleSinkDispatcher.none(), clock, scheduler);
+
+        TickSource ticks = new TickSource(service, clock);
+        Sampler sampler = new Sampler(probe, repository, clock);
+        long endMs = startMs + durationMs;
+        try {
+            // Ticks and samples are scheduled tasks too, so they carry on while a write is in progress
+            Future<?> tickTask = scheduler.scheduleAtFixedRate(ticks, 0, 1000 / slotsPerSecond);
+            Future<?> sampleTask = scheduler.scheduleAtFixedRate(sampler, sampleEveryMs, sampleEveryMs);
+            scheduler.advanceTo(endMs - 1);
+            tickTask.cancel(false);
+
+            scheduler.advanceTo(endMs + drainMs);
+            sampleTask.cancel(false);
+            sampler.run();
+
+            Report report = new Report(ticks.count, repository.totalVolume(), repository.candleCount(),
+                    probe.opened - probe.flushed, sampler.samples);
+            log(report);
+            return report;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private void log(Report report) {
+        log.info("Simulated {} ticks of {} symbols over {}s: {} candles stored, volume {}, {} pending at end",
+                report.ticks(), symbols.size(), durationMs / 1000, report.storedCandles(), report.storedVolume(),
+                report.pendingAtEnd());
+        log.info(String.format("%10s %8s %8s %8s %9s %10s %9s %9s %9s", "t[s]", "open", "pending", "flushes",
+                "maxBatch", "maxFlushMs", "lagP50", "lagP99", "lagMax"));
+        for (Sample s : report.samples()) {
+            log.info(String.format("%10d %8d %8d %8d %9d %10d %9d %9d %9d", (s.atMs() - startMs) / 1000,
+                    s.openCandles(), s.pendingFlush(), s.flushes(), s.maxBatchSize(), s.maxFlushMs(),
+                    s.closeLagP50Ms(), s.closeLagP99Ms(), s.closeLagMaxMs()));
+        }
+    }
+
+    /**
+     * Every symbol gets a random walk price and 1 to maxTicksPerSlot ticks at the time of each run
+     */
+    private final class TickSource implements Runnable {
+
+        private final CandleAggregationServiceImpl service;
+        private final SimulatedClock clock;
+        private final Random random = new Random(seed);
+        private final double[] prices = new double[symbols.size()];
+        private long count;
+
+        TickSource(CandleAggregationServiceImpl service, SimulatedClock clock) {
+            this.service = service;
+            this.clock = clock;
+            Arrays.fill(prices, 100.0);
+        }
+
+        @Override
+        public void run() {
+            long timestamp = clock.millis();
+            for (int i = 0; i < prices.length; i++) {
+                int slotTicks = 1 + random.nextInt(maxTicksPerSlot);
+                for (int k = 0; k < slotTicks; k++) {
+                    prices[i] = Math.max(1.0, prices[i] * (1 + random.nextGaussian() * 0.0005));
+                    service.processEventSync(new BidAskEvent(symbols.get(i), prices[i] - 0.01, prices[i] + 0.01,
+                            timestamp));
+                    count++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a {@link Sample} per run
+     */
+    private static final class Sampler implements Runnable {
+
+        private final Probe probe;
+        private final InMemoryCandleRepository repository;
+        private final SimulatedClock clock;
+        private final List<Sample> samples = new ArrayList<>();
+        private int upsertsSeen;
+
+        Sampler(Probe probe, InMemoryCandleRepository repository, SimulatedClock clock) {
+            this.probe = probe;
+            this.repository = repository;
+            this.clock = clock;
+        }
+
+        @Override
+        public void run() {
+            List<InMemoryCandleRepository.Write> upserts = repository.upserts();
+            List<InMemoryCandleRepository.Write> recent = upserts.subList(upsertsSeen, upserts.size());
+            Histogram lag = probe.closeLag;
+            samples.add(new Sample(clock.millis(),
+                    probe.opened - probe.closed,
+                    probe.closed - probe.flushed,
+                    recent.size(),
+                    recent.stream().mapToInt(InMemoryCandleRepository.Write::size).max().orElse(0),
+                    recent.stream().mapToLong(InMemoryCandleRepository.Write::durationMs).max().orElse(0),
+                    lag.getValueAtPercentile(50),
+                    lag.getValueAtPercentile(99),
+                    lag.getMaxValue()));
+            lag.reset();
+            upsertsSeen = upserts.size();
+        }
+    }
+
+    /**
+     * Counts candles through the pipeline. Called on the simulation thread only.
+     */
+    private static final class Probe implements AggregationListener {
+
+        private final SimulatedClock clock;
+        private final Histogram closeLag = new Histogram(MAX_TRACKED_LAG_MS, 3);
+        private long opened;
+        private long closed;
+        private long flushed;
+
+        Probe(SimulatedClock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public void onCandleOpened(String symbol, long startTime, Supplier<Candle> formingCandle) {
+            opened++;
+        }
+
+        @Override
+        public void onCandleClosed(String symbol, Candle candle) {
+            closed++;
+            // A 1s candle could close at the earliest when its second is over
+            long lagMs = clock.millis() - (candle.time() + 1000);
+            closeLag.recordValue(Math.min(Math.max(lagMs, 0), MAX_TRACKED_LAG_MS));
+        }
+
+        @Override
+        public void onCandlesFlushed(List<CandleEntity> candles) {
+            flushed += candles.size();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.multibank.application.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AggregationSimulationTest {
+
+    private static final long START_MS = 1_700_000_000_000L;
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    void testSteadyLoadFlushesEverythingWithBoundedCloseLag() {
+        AggregationSimulation.Report report = new AggregationSimulation()
+                .startingAt(START_MS)
+                .duration(30, TimeUnit.MINUTES)
+                .run();
+
+        assertThat(report.storedVolume()).isEqualTo(report.ticks());
+        assertThat(report.pendingAtEnd()).isZero();
+        assertThat(report.samples()).allSatisfy(sample -> {
+            assertThat(sample.pendingFlush()).isLessThan(100);
+            assertThat(sample.closeLagMaxMs()).isLessThanOrEqualTo(100);
+        });
+    }
+
+    @Test
+    void testDatabaseSlowdownBuffersCandlesAndRecovers() {
+        long slowFrom = START_MS + 30 * MINUTE_MS;
+        long slowUntil = START_MS + 50 * MINUTE_MS;
+
+        AggregationSimulation.Report report = new AggregationSimulation()
+                .startingAt(START_MS)
+                .duration(90, TimeUnit.MINUTES)
+                // Under a second for a minimum size batch, too slow to keep up with 75 candles/s
+                .latency((nowMs, batchSize) -> nowMs >= slowFrom && nowMs < slowUntil
+                        ? 400 + 10L * batchSize
+                        : 2 + batchSize / 100)
+                .run();
+
+        assertThat(report.storedVolume()).isEqualTo(report.ticks());
+        assertThat(report.pendingAtEnd()).isZero();
+
+        List<AggregationSimulation.Sample> before = report.between(START_MS, slowFrom);
+        List<AggregationSimulation.Sample> during = report.between(slowFrom, slowUntil);
+        List<AggregationSimulation.Sample> recovered = report.between(slowUntil + 10 * MINUTE_MS, Long.MAX_VALUE);
+
+        assertThat(before).allSatisfy(sample -> assertThat(sample.pendingFlush()).isLessThan(100));
+        assertThat(during).extracting(AggregationSimulation.Sample::pendingFlush).isSorted();
+        assertThat(report.peakPendingFlush()).isGreaterThan(1000);
+        assertThat(recovered).allSatisfy(sample -> {
+            assertThat(sample.pendingFlush()).isLessThan(100);
+            assertThat(sample.closeLagMaxMs()).isLessThanOrEqualTo(100);
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.multibank.application.simulation;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.CandleBatch;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.repository.CandleCustomJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for the candle tables with the same upsert semantics as the SQL one. Every write takes the simulated
+ * time given by its {@link Latency}: the calling task waits for it while other scheduled tasks carry on, so the
+ * caller observes it like a real round trip.
+ */
+public class InMemoryCandleRepository implements CandleCustomJdbcRepository {
+
+    /**
+     * Simulated duration of one write of {@code batchSize} candles started at {@code nowMs}
+     */
+    @FunctionalInterface
+    public interface Latency {
+        long millis(long nowMs, int batchSize);
+    }
+
+    public record Write(long startedAtMs, long durationMs, int size) {
+    }
+
+    private final SimulatedScheduler scheduler;
+    private final Latency latency;
+    private final Map<Integer, NavigableMap<Long, CandleEntity>> candles = new ConcurrentHashMap<>();
+    private final List<Write> upserts = new ArrayList<>();
+
+    public InMemoryCandleRepository(SimulatedScheduler scheduler, Latency latency) {
+        this.scheduler = scheduler;
+        this.latency = latency;
+    }
+
+    @Override
+    public synchronized CandleBatch find1sCandleBatch(int symbolId, Long from, Long to) {
+        CandleBatch batch = new CandleBatch();
+        table(symbolId).subMap(from, true, to, true).values().forEach(candle -> batch.add(candle.getId().getTime(),
+                candle.getOpen(), candle.getHigh(), candle.getLow(), candle.getClose(), candle.getVolume()));
+        return batch;
+    }
+
+    @Override
+    public CandleBatch findCandleBatch(CandleInterval interval, int symbolId, Long from, Long to) {
+        throw new UnsupportedOperationException("Only 1s candles are kept");
+    }
+
+    @Override
+    public void batchUpsert(List<CandleEntity> batch) {
+        long startedAtMs = scheduler.clock().millis();
+        long durationMs = latency.millis(startedAtMs, batch.size());
+        // Rows become visible when the write returns
+        scheduler.advance(durationMs);
+        upsert(batch);
+        synchronized (this) {
+            upserts.add(new Write(startedAtMs, durationMs, batch.size()));
+        }
+    }
+
+    private synchronized void upsert(List<CandleEntity> batch) {
+        for (CandleEntity candle : batch) {
+            table(candle.getId().getSymbolId()).merge(candle.getId().getTime(), copy(candle), (stored, added) -> {
+                stored.setHigh(Math.max(stored.getHigh(), added.getHigh()));
+                stored.setLow(Math.min(stored.getLow(), added.getLow()));
+                stored.setClose(added.getClose());
+                stored.setVolume(stored.getVolume() + added.getVolume());
+                return stored;
+            });
+        }
+    }
+
+    @Override
+    public void batchReplace(List<CandleEntity> batch) {
+        scheduler.advance(latency.millis(scheduler.clock().millis(), batch.size()));
+        synchronized (this) {
+            for (CandleEntity candle : batch) {
+                table(candle.getId().getSymbolId()).put(candle.getId().getTime(), copy(candle));
+            }
+        }
+    }
+
+    public synchronized long totalVolume() {
+        return candles.values().stream()
+                .flatMap(table -> table.values().stream())
+                .mapToLong(CandleEntity::getVolume)
+                .sum();
+    }
+
+    public synchronized int candleCount() {
+        return candles.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public synchronized List<Write> upserts() {
+        return List.copyOf(upserts);
+    }
+
+    private NavigableMap<Long, CandleEntity> table(int symbolId) {
+        return candles.computeIfAbsent(symbolId, id -> new TreeMap<>());
+    }
+
+    private static CandleEntity copy(CandleEntity candle) {
+        return new CandleEntity(new CandleEntity.CandleId(candle.getId().getTime(), candle.getId().getSymbolId()),
+                candle.getOpen(), candle.getHigh(), candle.getLow(), candle.getClose(), candle.getVolume());
+    }
+}
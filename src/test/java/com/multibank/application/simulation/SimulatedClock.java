@@ -0,0 +1,47 @@
+package com.multibank.application.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock that only moves when told to. Time never goes backwards: setting an earlier time is ignored.
+ */
+public class SimulatedClock extends Clock {
+
+    private final AtomicLong nowMs;
+
+    public SimulatedClock(long startMs) {
+        this.nowMs = new AtomicLong(startMs);
+    }
+
+    public void advance(long ms) {
+        nowMs.addAndGet(ms);
+    }
+
+    public void advanceTo(long timeMs) {
+        nowMs.accumulateAndGet(timeMs, Math::max);
+    }
+
+    @Override
+    public long millis() {
+        return nowMs.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException("Simulated time is UTC only");
+    }
+}
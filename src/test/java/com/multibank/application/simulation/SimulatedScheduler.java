@@ -0,0 +1,140 @@
+package com.multibank.application.simulation;
+
+import com.multibank.application.service.impl.AggregationScheduler;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs scheduled tasks on the calling thread as simulated time is advanced, in order of due time and, for equal
+ * times, of scheduling. A task can take simulated time itself by calling {@link #advance(long)}: the other tasks
+ * due meanwhile run nested in that call, as they would on other threads, and the task continues once the time
+ * has passed. Fixed-delay tasks then wait their delay from the end of the run.
+ */
+public class SimulatedScheduler implements AggregationScheduler {
+
+    private final SimulatedClock clock;
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private long sequence;
+    private int threads = 1;
+    private int running;
+    private boolean shutdown;
+
+    public SimulatedScheduler(SimulatedClock clock) {
+        this.clock = clock;
+    }
+
+    public SimulatedClock clock() {
+        return clock;
+    }
+
+    /**
+     * Runs every task due up to {@code timeMs} and leaves the clock at that time, or later if the tasks took longer
+     */
+    public void advanceTo(long timeMs) {
+        // A running task is out of the queue until it returns, so it never runs nested in itself
+        Task task;
+        while ((task = queue.peek()) != null && task.dueMs <= timeMs) {
+            queue.poll();
+            if (task.handle.isDone()) {
+                continue;
+            }
+            clock.advanceTo(task.dueMs);
+            running++;
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                // Same as an executor: an exception suppresses the following runs
+                task.handle.completeExceptionally(e);
+                continue;
+            } finally {
+                running--;
+            }
+            if (!task.handle.isDone() && !shutdown) {
+                long next = task.fixedRate ? task.dueMs + task.periodMs : clock.millis() + task.periodMs;
+                queue.add(new Task(task.runnable, next, task.periodMs, task.fixedRate, sequence++, task.handle));
+            }
+        }
+        clock.advanceTo(timeMs);
+    }
+
+    /**
+     * Lets {@code ms} of simulated time pass, running whatever is due meanwhile
+     */
+    public void advance(long ms) {
+        advanceTo(clock.millis() + ms);
+    }
+
+    @Override
+    public Future<?> scheduleAtFixedRate(Runnable task, long initialDelayMs, long periodMs) {
+        return schedule(task, initialDelayMs, periodMs, true);
+    }
+
+    @Override
+    public Future<?> scheduleWithFixedDelay(Runnable task, long initialDelayMs, long delayMs) {
+        return schedule(task, initialDelayMs, delayMs, false);
+    }
+
+    private Future<?> schedule(Runnable runnable, long initialDelayMs, long periodMs, boolean fixedRate) {
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + periodMs);
+        }
+        CompletableFuture<Void> handle = new CompletableFuture<>();
+        if (!shutdown) {
+            queue.add(new Task(runnable, clock.millis() + initialDelayMs, periodMs, fixedRate, sequence++, handle));
+        } else {
+            handle.cancel(false);
+        }
+        return handle;
+    }
+
+    @Override
+    public void setThreads(int threads) {
+        // Nested runs stand in for any number of threads, the count is only reported
+        this.threads = threads;
+    }
+
+    @Override
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public int activeThreads() {
+        return running;
+    }
+
+    @Override
+    public int queuedTasks() {
+        return queue.size();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    @Override
+    public void shutdownNow() {
+        shutdown = true;
+        queue.forEach(task -> task.handle.cancel(false));
+        queue.clear();
+    }
+
+    private record Task(Runnable runnable, long dueMs, long periodMs, boolean fixedRate, long sequence,
+                        CompletableFuture<Void> handle) implements Comparable<Task> {
+
+        @Override
+        public int compareTo(Task other) {
+            int byTime = Long.compare(dueMs, other.dueMs);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.multibank.application.snapshot;
+
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.Candle;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestCandleSnapshotTest {
+
+    private static final long BASE_MS = 1_735_689_600_000L;
+
+    private final SnapshotProperties properties = new SnapshotProperties();
+
+    @Test
+    void testRendersPriceAndFormingCandleOfEverySymbol() {
+        properties.setRefreshMs(0);
+        LatestCandleSnapshot snapshot = new LatestCandleSnapshot(properties, SymbolRegistry.inMemory());
+
+        snapshot.onTick(new BidAskEvent("ETH-USD", 3000.0, 3002.0, BASE_MS + 10));
+        snapshot.onCandleOpened("ETH-USD", BASE_MS, () -> new Candle(BASE_MS, 3001.0, 3001.0, 3001.0, 3001.0, 1));
+        snapshot.onTick(new BidAskEvent("BTC-USD", 50000.0, 50010.0, BASE_MS + 20));
+
+        String json = json(snapshot);
+
+        assertThat(json).isEqualTo("{\"s\":\"ok\",\"time\":" + timeOf(json) + ",\"symbols\":{"
+                + "\"BTC-USD\":{\"price\":50005.0,\"priceTime\":" + (BASE_MS + 20) + ",\"forming\":null,\"lastClosed\":null},"
+                + "\"ETH-USD\":{\"price\":3001.0,\"priceTime\":" + (BASE_MS + 10) + ",\"forming\":{\"t\":" + BASE_MS
+                + ",\"o\":3001.0,\"h\":3001.0,\"l\":3001.0,\"c\":3001.0,\"v\":1},\"lastClosed\":null}}}");
+    }
+
+    @Test
+    void testClosedCandleIsNoLongerReportedAsForming() {
+        properties.setRefreshMs(0);
+        LatestCandleSnapshot snapshot = new LatestCandleSnapshot(properties, SymbolRegistry.inMemory());
+        Candle candle = new Candle(BASE_MS, 100.0, 101.0, 99.0, 100.5, 3);
+
+        snapshot.onCandleOpened("BTC-USD", BASE_MS, () -> candle);
+        snapshot.onCandleClosed("BTC-USD", candle);
+
+        assertThat(json(snapshot)).contains("\"forming\":null,\"lastClosed\":{\"t\":" + BASE_MS);
+    }
+
+    @Test
+    void testOlderCandleDoesNotReplaceNewerOne() {
+        properties.setRefreshMs(0);
+        LatestCandleSnapshot snapshot = new LatestCandleSnapshot(properties, SymbolRegistry.inMemory());
+
+        snapshot.onCandleOpened("BTC-USD", BASE_MS + 1000, () -> new Candle(BASE_MS + 1000, 2, 2, 2, 2, 1));
+        snapshot.onCandleOpened("BTC-USD", BASE_MS, () -> new Candle(BASE_MS, 1, 1, 1, 1, 1));
+
+        assertThat(json(snapshot)).contains("\"forming\":{\"t\":" + (BASE_MS + 1000));
+    }
+
+    @Test
+    void testOlderTickDoesNotReplaceNewerPrice() {
+        properties.setRefreshMs(0);
+        LatestCandleSnapshot snapshot = new LatestCandleSnapshot(properties, SymbolRegistry.inMemory());
+
+        snapshot.onTick(new BidAskEvent("BTC-USD", 50100.0, 50110.0, BASE_MS + 20));
+        snapshot.onTick(new BidAskEvent("BTC-USD", 50000.0, 50010.0, BASE_MS + 10));
+
+        assertThat(json(snapshot)).contains("\"price\":50105.0,\"priceTime\":" + (BASE_MS + 20));
+    }
+
+    @Test
+    void testResponseIsReusedWithinRefreshInterval() {
+        properties.setRefreshMs(60_000);
+        LatestCandleSnapshot snapshot = new LatestCandleSnapshot(properties, SymbolRegistry.inMemory());
+
+        snapshot.onTick(new BidAskEvent("BTC-USD", 50000.0, 50010.0, BASE_MS));
+        byte[] first = snapshot.render();
+        snapshot.onTick(new BidAskEvent("ETH-USD", 3000.0, 3002.0, BASE_MS));
+
+        assertThat(snapshot.render()).isSameAs(first);
+    }
+
+    private static String json(LatestCandleSnapshot snapshot) {
+        return new String(snapshot.render(), StandardCharsets.UTF_8);
+    }
+
+    private static String timeOf(String json) {
+        return json.substring(json.indexOf("\"time\":") + 7, json.indexOf(",\"symbols\""));
+    }
+}
@@ -0,0 +1,67 @@
+package com.multibank.application.symbol;
+
+import com.multibank.application.repository.columnar.ColumnarStorageProperties;
+import com.multibank.application.repository.columnar.SymbolFileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SymbolRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSymbolsGetStableCompactIds() {
+        SymbolRegistry registry = SymbolRegistry.inMemory();
+
+        int btc = registry.register("BTC-USD");
+        int eth = registry.register("ETH-USD");
+
+        assertThat(btc).isEqualTo(1);
+        assertThat(eth).isEqualTo(2);
+        assertThat(registry.register("BTC-USD")).isEqualTo(btc);
+        assertThat(registry.idOf("ETH-USD")).isEqualTo(eth);
+        assertThat(registry.nameOf(eth)).isEqualTo("ETH-USD");
+        assertThat(registry.names()).containsExactly("BTC-USD", "ETH-USD");
+    }
+
+    @Test
+    void testUnknownSymbolsAreNotRegisteredByLookups() {
+        SymbolRegistry registry = SymbolRegistry.inMemory();
+
+        assertThat(registry.idOf("BTC-USD")).isEqualTo(SymbolRegistry.UNKNOWN);
+        assertThatThrownBy(() -> registry.requireId("BTC-USD")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.nameOf(1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.names()).isEmpty();
+    }
+
+    @Test
+    void testInvalidSymbolsAreRejected() {
+        SymbolRegistry registry = SymbolRegistry.inMemory();
+
+        assertThatThrownBy(() -> registry.register("../etc")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.register("A-SYMBOL-FAR-TOO-LONG-TO-STORE"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.register(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testFileDictionaryKeepsIdsAcrossRestarts() {
+        ColumnarStorageProperties properties = new ColumnarStorageProperties();
+        properties.setDirectory(directory.toString());
+
+        SymbolRegistry first = new SymbolRegistry(new SymbolFileRepository(properties));
+        first.register("BTC-USD");
+        int eth = first.register("ETH-USD");
+
+        SymbolRegistry restarted = new SymbolRegistry(new SymbolFileRepository(properties));
+
+        assertThat(restarted.idOf("ETH-USD")).isEqualTo(eth);
+        assertThat(restarted.register("SOL-USD")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,103 @@
+package com.multibank.application.ticklog;
+
+import com.multibank.application.model.BidAskEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedTickLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendedTicksCanBeReadBack() {
+        try (MappedTickLog tickLog = new MappedTickLog(directory, 16)) {
+            long first = tickLog.append(new BidAskEvent("BTC-USD", 50000.0, 50010.0, 1620000000000L));
+            long second = tickLog.append(new BidAskEvent("ETH-USD", 3000.0, 3001.0, 1620000000001L));
+
+            assertThat(first).isEqualTo(0);
+            assertThat(second).isEqualTo(1);
+            assertThat(tickLog.read(0)).isEqualTo(new BidAskEvent("BTC-USD", 50000.0, 50010.0, 1620000000000L));
+            assertThat(tickLog.read(1)).isEqualTo(new BidAskEvent("ETH-USD", 3000.0, 3001.0, 1620000000001L));
+            assertThat(tickLog.read(2)).isNull();
+        }
+    }
+
+    @Test
+    void testReplayAcrossSegmentsFromAnyOffset() {
+        try (MappedTickLog tickLog = new MappedTickLog(directory, 4)) {
+            for (int i = 0; i < 10; i++) {
+                tickLog.append(new BidAskEvent("XRP-USD", i, i + 1, i));
+            }
+
+            List<BidAskEvent> replayed = new ArrayList<>();
+            long next = tickLog.replay(3, 100, replayed::add);
+
+            assertThat(next).isEqualTo(10);
+            assertThat(replayed).hasSize(7);
+            assertThat(replayed.get(0).timestamp()).isEqualTo(3);
+            assertThat(replayed.get(6).timestamp()).isEqualTo(9);
+        }
+    }
+
+    @Test
+    void testFailedSegmentMappingLeavesNoGap() throws Exception {
+        try (MappedTickLog tickLog = new MappedTickLog(directory, 4)) {
+            for (int i = 0; i < 4; i++) {
+                tickLog.append(new BidAskEvent("ADA-USD", i, i + 1, i));
+            }
+
+            // The next segment cannot be mapped while a directory is in its place
+            Path blocked = Files.createDirectory(directory.resolve("ticks-000000000001.log"));
+            assertThatThrownBy(() -> tickLog.append(new BidAskEvent("ADA-USD", 4, 5, 4)))
+                    .isInstanceOf(UncheckedIOException.class);
+            assertThat(tickLog.headSequence()).isEqualTo(4);
+
+            Files.delete(blocked);
+            assertThat(tickLog.append(new BidAskEvent("ADA-USD", 4, 5, 4))).isEqualTo(4);
+
+            List<BidAskEvent> replayed = new ArrayList<>();
+            assertThat(tickLog.replay(0, 100, replayed::add)).isEqualTo(5);
+            assertThat(replayed).extracting(BidAskEvent::timestamp).containsExactly(0L, 1L, 2L, 3L, 4L);
+        }
+    }
+
+    @Test
+    void testReopenResumesAfterLastCommittedTick() {
+        try (MappedTickLog tickLog = new MappedTickLog(directory, 4)) {
+            for (int i = 0; i < 6; i++) {
+                tickLog.append(new BidAskEvent("SOL-USD", i, i + 1, i));
+            }
+        }
+
+        try (MappedTickLog reopened = new MappedTickLog(directory, 4)) {
+            assertThat(reopened.headSequence()).isEqualTo(6);
+            assertThat(reopened.append(new BidAskEvent("SOL-USD", 6, 7, 6))).isEqualTo(6);
+            assertThat(reopened.read(5).timestamp()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void testDeletedSegmentsAreNoLongerReadable() {
+        try (MappedTickLog tickLog = new MappedTickLog(directory, 4)) {
+            for (int i = 0; i < 10; i++) {
+                tickLog.append(new BidAskEvent("BNB-USD", i, i + 1, i));
+            }
+
+            tickLog.deleteBefore(8);
+
+            assertThat(tickLog.firstSequence()).isEqualTo(8);
+            assertThat(tickLog.read(8).timestamp()).isEqualTo(8);
+            assertThatThrownBy(() -> tickLog.read(3)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.multibank.application.ticklog;
+
+import com.multibank.application.entity.CandleEntity;
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.repository.CandleCustomJdbcRepository;
+import com.multibank.application.symbol.SymbolRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TickLogReplayTest {
+
+    private static final long T = 1_735_689_600_000L;
+    private static final long MARGIN_MS = 5000;
+
+    @TempDir
+    Path directory;
+
+    private final CandleCustomJdbcRepository repository = mock(CandleCustomJdbcRepository.class);
+    private final SymbolRegistry symbols = SymbolRegistry.inMemory();
+
+    private MappedTickLog tickLog;
+    private TickLogReplay replay;
+
+    @BeforeEach
+    void setUp() {
+        tickLog = new MappedTickLog(directory, 16);
+        replay = new TickLogReplay(tickLog, repository, symbols);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tickLog.close();
+    }
+
+    @Test
+    void testReplacesCandlesInsideTheRangeWithTheirFullState() {
+        // Two ticks per candle, one candle per second for 20s
+        for (int second = 0; second < 20; second++) {
+            tickLog.append(new BidAskEvent("BTC-USD", 99, 101, T + second * 1000L));
+            tickLog.append(new BidAskEvent("BTC-USD", 101, 103, T + second * 1000L));
+        }
+
+        int replaced = replay.replay(0, tickLog.headSequence(), MARGIN_MS);
+
+        // Candles within the margin of the first and the newest tick may share ticks logged outside the range
+        Map<Long, CandleEntity> candles = replacedCandles();
+        assertThat(replaced).isEqualTo(8);
+        assertThat(candles.keySet()).containsExactlyInAnyOrderElementsOf(
+                List.of(T + 6000, T + 7000, T + 8000, T + 9000, T + 10_000, T + 11_000, T + 12_000, T + 13_000));
+
+        CandleEntity candle = candles.get(T + 6000);
+        assertThat(candle.getId().getSymbolId()).isEqualTo(symbols.idOf("BTC-USD"));
+        assertThat(candle.getLow()).isEqualTo(100.0);
+        assertThat(candle.getHigh()).isEqualTo(102.0);
+        // Replaced, not added to: the volume is what the ticks give, whatever was stored before
+        assertThat(candle.getVolume()).isEqualTo(2L);
+        verify(repository, never()).batchUpsert(anyList());
+    }
+
+    @Test
+    void testTicksBeyondTheLatenessBoundAreReaggregated() {
+        for (int second = 0; second < 20; second++) {
+            tickLog.append(new BidAskEvent("BTC-USD", 99, 101, T + second * 1000L));
+        }
+        // Logged 11s after newer ticks of the symbol, which the live aggregator drops
+        tickLog.append(new BidAskEvent("BTC-USD", 95, 97, T + 8000));
+
+        replay.replay(0, tickLog.headSequence(), MARGIN_MS);
+
+        CandleEntity candle = replacedCandles().get(T + 8000);
+        assertThat(candle.getVolume()).isEqualTo(2L);
+        assertThat(candle.getLow()).isEqualTo(96.0);
+    }
+
+    @Test
+    void testRejectsSequencesOutsideTheConsumedLog() {
+        tickLog.append(new BidAskEvent("BTC-USD", 99, 101, T));
+
+        assertThatThrownBy(() -> replay.replay(2, 1, MARGIN_MS)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> replay.replay(-1, 1, MARGIN_MS)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, CandleEntity> replacedCandles() {
+        ArgumentCaptor<List<CandleEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).batchReplace(captor.capture());
+
+        List<CandleEntity> all = new ArrayList<>();
+        captor.getAllValues().forEach(all::addAll);
+        return all.stream().collect(Collectors.toMap(c -> c.getId().getTime(), Function.identity()));
+    }
+}
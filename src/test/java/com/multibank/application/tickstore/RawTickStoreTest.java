@@ -0,0 +1,120 @@
+package com.multibank.application.tickstore;
+
+import com.multibank.application.model.BidAskEvent;
+import com.multibank.application.model.Candle;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.model.PriceBasis;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RawTickStoreTest {
+
+    private static final long BASE_MS = 1_760_000_000_000L;
+
+    @Test
+    void testCompressedBlockRoundTripsTicksExactly() {
+        GorillaTickBlock block = new GorillaTickBlock(10_000);
+        Random random = new Random(42);
+        List<double[]> expected = new ArrayList<>();
+
+        long timestamp = BASE_MS;
+        double price = 92300.0;
+        for (int i = 0; i < 10_000; i++) {
+            timestamp += 15 + random.nextInt(10) - (i % 100 == 0 ? 500 : 0);
+            price += (random.nextDouble() * 2 - 1) * price / 1000;
+            double bid = Math.round((price - 20) * 1e4) / 1e4;
+            double ask = Math.round((price + 20) * 1e4) / 1e4;
+            if (i % 1000 == 0) {
+                // More decimals than the fixed-point scale, kept as the raw double
+                bid = price - 20.123456789;
+            }
+            block.append(timestamp, bid, ask);
+            expected.add(new double[]{timestamp, bid, ask});
+        }
+        block.seal();
+
+        List<double[]> decoded = new ArrayList<>();
+        block.view().forEach((t, bid, ask) -> decoded.add(new double[]{t, bid, ask}));
+
+        assertThat(decoded).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(decoded.get(i)).containsExactly(expected.get(i));
+        }
+        // A tenth of the ~48 bytes of a BidAskEvent plus its list slot, even with a price that moves up to 0.1%
+        // on every tick
+        assertThat(block.sizeBytes() / 10_000.0).isLessThan(5.0);
+    }
+
+    @Test
+    void testReaggregateUsesRequestedPriceBasisAndTimestampOrder() {
+        RawTickStore store = new RawTickStore(new TickStoreProperties());
+
+        store.onTick(new BidAskEvent("BTC-USD", 100.0, 102.0, BASE_MS + 500));
+        store.onTick(new BidAskEvent("BTC-USD", 104.0, 106.0, BASE_MS + 900));
+        // Late tick for the start of the second, arrives last
+        store.onTick(new BidAskEvent("BTC-USD", 98.0, 100.0, BASE_MS + 10));
+        store.onTick(new BidAskEvent("BTC-USD", 110.0, 112.0, BASE_MS + 1200));
+
+        long fromSeconds = BASE_MS / 1000;
+        List<Candle> bidCandles = store.reaggregate("BTC-USD", CandleInterval.ONE_SECOND,
+                fromSeconds, fromSeconds + 1, PriceBasis.BID);
+
+        assertThat(bidCandles).hasSize(2);
+        Candle first = bidCandles.get(0);
+        assertThat(first.time()).isEqualTo(fromSeconds * 1000);
+        assertThat(first.open()).isEqualTo(98.0);
+        assertThat(first.high()).isEqualTo(104.0);
+        assertThat(first.low()).isEqualTo(98.0);
+        assertThat(first.close()).isEqualTo(104.0);
+        assertThat(first.volume()).isEqualTo(3);
+
+        List<Candle> midCandles = store.reaggregate("BTC-USD", CandleInterval.FIVE_SECONDS,
+                fromSeconds, fromSeconds + 4, PriceBasis.MID);
+        assertThat(midCandles).hasSize(1);
+        assertThat(midCandles.get(0).close()).isEqualTo(111.0);
+        assertThat(midCandles.get(0).volume()).isEqualTo(4);
+    }
+
+    @Test
+    void testMemoryBudgetEvictsOldestBlocks() {
+        TickStoreProperties properties = new TickStoreProperties();
+        properties.setTicksPerBlock(64);
+        properties.setMemoryBudgetBytes(16 * 1024);
+        RawTickStore store = new RawTickStore(properties);
+
+        for (int i = 0; i < 20_000; i++) {
+            store.onTick(new BidAskEvent(i % 2 == 0 ? "ETH-USD" : "SOL-USD", 3000 + i * 0.01, 3001 + i * 0.013, BASE_MS + i * 20L));
+        }
+
+        assertThat(store.getUsedBytes()).isLessThanOrEqualTo(16 * 1024);
+        // Only the newest ticks survive
+        assertThat(store.reaggregate("ETH-USD", CandleInterval.ONE_SECOND, BASE_MS / 1000, BASE_MS / 1000 + 10, PriceBasis.MID)).isEmpty();
+        assertThat(store.reaggregate("ETH-USD", CandleInterval.ONE_HOUR, BASE_MS / 1000, BASE_MS / 1000 + 3600, PriceBasis.MID)).isNotEmpty();
+    }
+
+    @Test
+    void testSymbolsThatStopTickingAreForgotten() {
+        RawTickStore store = new RawTickStore(new TickStoreProperties());
+        long now = System.currentTimeMillis();
+
+        // Far beyond the retention
+        store.onTick(new BidAskEvent("ETH-USD", 3000.0, 3001.0, BASE_MS));
+        store.onTick(new BidAskEvent("BTC-USD", 100.0, 102.0, now));
+
+        store.evictExpired();
+
+        assertThat(store.symbolCount()).isEqualTo(1);
+        assertThat(store.getUsedBytes()).isPositive();
+
+        // A symbol that resumes gets a new buffer
+        store.onTick(new BidAskEvent("ETH-USD", 3000.0, 3001.0, now));
+        assertThat(store.symbolCount()).isEqualTo(2);
+        assertThat(store.reaggregate("ETH-USD", CandleInterval.ONE_MINUTE, now / 1000 - 60, now / 1000 + 60,
+                PriceBasis.MID)).hasSize(1);
+    }
+}
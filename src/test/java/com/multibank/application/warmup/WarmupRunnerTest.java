@@ -0,0 +1,139 @@
+package com.multibank.application.warmup;
+
+import com.multibank.application.cluster.SymbolPartitioner;
+import com.multibank.application.controller.HistoryAdmissionControl;
+import com.multibank.application.controller.HistoryAdmissionProperties;
+import com.multibank.application.model.CandleInterval;
+import com.multibank.application.symbol.SymbolRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.boot.web.server.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WarmupRunnerTest {
+
+    private static final String CONTEXT_PATH = "/candles";
+
+    private final SymbolRegistry symbols = SymbolRegistry.inMemory();
+    private final SymbolPartitioner partitioner = mock(SymbolPartitioner.class);
+    private final HistoryAdmissionControl admission =
+            new HistoryAdmissionControl(new HistoryAdmissionProperties(), new SimpleMeterRegistry());
+    private final WarmupProperties properties = new WarmupProperties();
+
+    // symbol/interval of every request the server received with the internal token
+    private final Set<String> preloaded = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean hang;
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        symbols.register("BTC-USD");
+        symbols.register("ETH-USD");
+        when(partitioner.isLocal("BTC-USD")).thenReturn(true);
+        properties.setIterations(1);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(CONTEXT_PATH + "/history", this::serveHistory);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void testLocalSymbolsArePreloadedThroughTheContextPath() {
+        runner().run(new DefaultApplicationArguments());
+
+        assertThat(preloaded).containsExactlyInAnyOrderElementsOf(Arrays.stream(CandleInterval.values())
+                .map(interval -> "BTC-USD/" + interval.getLabel())
+                .toList());
+    }
+
+    @Test
+    void testStartupIsReleasedAfterTheTimeout() {
+        hang = true;
+        properties.setTimeoutSeconds(1);
+
+        long start = System.nanoTime();
+        runner().run(new DefaultApplicationArguments());
+
+        // Readiness is reported once the runner returns, which must not wait for the hanging requests
+        assertThat((System.nanoTime() - start) / 1_000_000).isBetween(1_000L, 5_000L);
+        assertThat(preloaded).isEmpty();
+    }
+
+    @Test
+    void testWithoutWebServerOnlyTheAggregationIsWarmedUp() {
+        WarmupRunner runner = new WarmupRunner(properties, symbols, partitioner,
+                mock(ApplicationContext.class), admission);
+
+        runner.run(new DefaultApplicationArguments());
+
+        assertThat(preloaded).isEmpty();
+    }
+
+    private WarmupRunner runner() {
+        WebServer webServer = mock(WebServer.class);
+        when(webServer.getPort()).thenReturn(server.getAddress().getPort());
+        MockServletContext servletContext = new MockServletContext();
+        servletContext.setContextPath(CONTEXT_PATH);
+
+        ServletWebServerApplicationContext context = mock(ServletWebServerApplicationContext.class);
+        when(context.getEnvironment()).thenReturn(new MockEnvironment());
+        when(context.getWebServer()).thenReturn(webServer);
+        when(context.getServletContext()).thenReturn(servletContext);
+
+        return new WarmupRunner(properties, symbols, partitioner, context, admission);
+    }
+
+    private void serveHistory(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (hang) {
+                release.await();
+                return;
+            }
+            if (admission.internalToken().equals(
+                    exchange.getRequestHeaders().getFirst(HistoryAdmissionControl.INTERNAL_HEADER))) {
+                String query = exchange.getRequestURI().getQuery();
+                preloaded.add(param(query, "symbol") + "/" + param(query, "interval"));
+            }
+            exchange.sendResponseHeaders(200, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String param(String query, String name) {
+        return Arrays.stream(query.split("&"))
+                .filter(pair -> pair.startsWith(name + "="))
+                .map(pair -> pair.substring(name.length() + 1))
+                .findFirst()
+                .orElseThrow();
+    }
+}
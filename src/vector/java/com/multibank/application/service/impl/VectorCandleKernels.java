@@ -0,0 +1,70 @@
+package com.multibank.application.service.impl;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of CandleKernels. Only loaded when jdk.incubator.vector is present: full vectors are
+ * reduced lane-wise and the remainder shorter than one vector is finished with scalar code.
+ */
+final class VectorCandleKernels {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private VectorCandleKernels() {
+    }
+
+    static double max(double[] values, int from, int to) {
+        int i = from;
+        double max = Double.NEGATIVE_INFINITY;
+        int bound = from + DOUBLES.loopBound(to - from);
+        if (i < bound) {
+            DoubleVector acc = DoubleVector.fromArray(DOUBLES, values, i);
+            for (i += DOUBLES.length(); i < bound; i += DOUBLES.length()) {
+                acc = acc.max(DoubleVector.fromArray(DOUBLES, values, i));
+            }
+            max = acc.reduceLanes(VectorOperators.MAX);
+        }
+        for (; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    static double min(double[] values, int from, int to) {
+        int i = from;
+        double min = Double.POSITIVE_INFINITY;
+        int bound = from + DOUBLES.loopBound(to - from);
+        if (i < bound) {
+            DoubleVector acc = DoubleVector.fromArray(DOUBLES, values, i);
+            for (i += DOUBLES.length(); i < bound; i += DOUBLES.length()) {
+                acc = acc.min(DoubleVector.fromArray(DOUBLES, values, i));
+            }
+            min = acc.reduceLanes(VectorOperators.MIN);
+        }
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    static long sum(long[] values, int from, int to) {
+        int i = from;
+        long sum = 0;
+        int bound = from + LONGS.loopBound(to - from);
+        if (i < bound) {
+            LongVector acc = LongVector.zero(LONGS);
+            for (; i < bound; i += LONGS.length()) {
+                acc = acc.add(LongVector.fromArray(LONGS, values, i));
+            }
+            sum = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+}